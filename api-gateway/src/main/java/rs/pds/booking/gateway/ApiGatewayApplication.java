@@ -3,10 +3,20 @@ package rs.pds.booking.gateway;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import rs.pds.booking.gateway.cache.ResponseCacheProperties;
+import rs.pds.booking.gateway.loadbalancer.LatencyAwareLoadBalancerConfig;
+import rs.pds.booking.gateway.loadbalancer.LoadBalancingProperties;
+import rs.pds.booking.gateway.loadbalancer.RegistryPushProperties;
+import rs.pds.booking.gateway.ratelimit.RateLimitProperties;
 import rs.pds.booking.gateway.security.ApiKeyProperties;
+import rs.pds.booking.gateway.upstream.UpstreamProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(ApiKeyProperties.class)
+@EnableConfigurationProperties({ApiKeyProperties.class, ResponseCacheProperties.class, RateLimitProperties.class,
+        LoadBalancingProperties.class, RegistryPushProperties.class, UpstreamProperties.class})
+// lb:// rute: izbor instance po latenciji / opterecenju / zoni umesto round-robin-a
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
 public class ApiGatewayApplication {
     public static void main(String[] args) {
         SpringApplication.run(ApiGatewayApplication.class, args);
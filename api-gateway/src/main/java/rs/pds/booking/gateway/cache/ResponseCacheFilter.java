@@ -0,0 +1,361 @@
+package rs.pds.booking.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.gateway.security.ApiKeyProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Kes GET odgovora na gateway-u (posle ApiKeyFilter-a, pre rutiranja).
+ * <ul>
+ *   <li>kljuc: path + query + API key + Accept; kesira se samo 200 sa Content-Length do max-entry-size,
+ *   ukupna velicina je ogranicena u bajtovima (max-size)</li>
+ *   <li>chunked odgovori bez Content-Length, NDJSON i SSE stream prolaze bez baferovanja i ne kesiraju se</li>
+ *   <li>TTL = min(ttl, Cache-Control max-age); no-store / private se ne kesiraju</li>
+ *   <li>ETag: upstream ETag ili SHA-256 tela; If-None-Match koji se poklapa -> 304 bez tela</li>
+ *   <li>invalidacija po prefiksu resursa, preko generacija (O(1), stari unosi ispadaju kroz TTL / velicinu):
+ *   upis na stavku (PUT/DELETE /api/bookings/5) ponistava tu stavku sa pod-resursima (/api/bookings/5/details)
+ *   i upite nad kolekcijom (/api/bookings?..., /api/bookings/availability), ne i druge stavke;
+ *   upis na kolekciju (POST /api/bookings, /api/bookings/bulk) ponistava ceo koren</li>
+ * </ul>
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private static final String ALL = "/**";
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    // procena memorije po unosu pored tela (objekti, kljuc, header-i)
+    private static final int ENTRY_OVERHEAD = 512;
+
+    record CachedResponse(long rootGeneration, long resourceGeneration, HttpStatusCode status, HttpHeaders headers, byte[] body,
+                          String etag, long storedAtNanos, long ttlNanos) {}
+
+    private final ResponseCacheProperties properties;
+    private final ApiKeyProperties apiKeyProperties;
+    private final List<PathPattern> patterns;
+
+    private final Cache<String, CachedResponse> cache;
+    // generacija po korenu (/api/bookings/**), kolekciji (/api/bookings) i stavci (/api/bookings/5); vrednosti su iz
+    // jednog brojaca, pa generacija koja istekne i ponovo nastane nikad ne vrati staru vrednost. Stavka istice tek
+    // posle 2 x ttl: odgovor upamcen pre njenog upisa je tada vec istekao, pa nestala generacija (0) ne ozivljava ga
+    private final Cache<String, Long> generations;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+    private final Counter invalidations;
+    private final Counter evictions;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ApiKeyProperties apiKeyProperties, MeterRegistry registry) {
+        this.properties = properties;
+        this.apiKeyProperties = apiKeyProperties;
+        this.patterns = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+
+        this.generations = Caffeine.newBuilder().expireAfterWrite(properties.getTtl().multipliedBy(2)).build();
+        this.evictions = Counter.builder("gateway.response.cache.evictions").register(registry);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedResponse value) -> value.body().length + key.length() * 2 + ENTRY_OVERHEAD)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+
+        this.hits = Counter.builder("gateway.response.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("gateway.response.cache.requests").tag("result", "miss").register(registry);
+        this.notModified = Counter.builder("gateway.response.cache.not.modified")
+                .description("304 odgovori na If-None-Match").register(registry);
+        this.invalidations = Counter.builder("gateway.response.cache.invalidations").register(registry);
+        Gauge.builder("gateway.response.cache.hit.ratio", this, ResponseCacheFilter::hitRatio).register(registry);
+        Gauge.builder("gateway.response.cache.entries", cache, Cache::estimatedSize).register(registry);
+        Gauge.builder("gateway.response.cache.size", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .baseUnit("bytes")
+                .description("Procenjena memorija kesiranih odgovora")
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || !matches(request)) {
+            return chain.filter(exchange);
+        }
+
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method)) {
+            return get(exchange, chain);
+        }
+        if (HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+            return chain.filter(exchange);
+        }
+
+        // upis: generacija se menja i pre i posle prosledjivanja, pa ni GET koji je bio u toku ne upisuje stari odgovor
+        String path = request.getPath().value();
+        invalidate(path);
+        return chain.filter(exchange).doFinally(signal -> invalidate(path));
+    }
+
+    private Mono<Void> get(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        List<MediaType> accept = request.getHeaders().getAccept();
+        if (accept.contains(MediaType.APPLICATION_NDJSON) || accept.contains(MediaType.TEXT_EVENT_STREAM)) {
+            return chain.filter(exchange);
+        }
+
+        String key = key(request);
+        String rootScope = root(request.getPath().value()) + ALL;
+        String resourceScope = resource(request.getPath().value());
+        long rootGeneration = generation(rootScope);
+        long resourceGeneration = generation(resourceScope);
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+        if (!"no-cache".equals(request.getHeaders().getCacheControl())) {
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null && cached.rootGeneration() == rootGeneration
+                    && cached.resourceGeneration() == resourceGeneration) {
+                hits.increment();
+                return writeCached(exchange.getResponse(), cached, ifNoneMatch);
+            }
+        }
+        misses.increment();
+
+        long ttlDefault = properties.getTtl().toNanos();
+        long maxEntry = properties.getMaxEntrySize().toBytes();
+        var decorated = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                if (!HttpStatus.OK.equals(getStatusCode()) || !cacheable(headers, maxEntry)) {
+                    return super.writeWith(body);
+                }
+                long ttl = ttlNanos(headers, ttlDefault);
+                if (ttl <= 0) {
+                    return super.writeWith(body);
+                }
+                // Content-Length je vec proveren; limit stiti i od upstream-a koji posalje vise nego sto je najavio
+                return DataBufferUtils.join(body, (int) Math.min(maxEntry, Integer.MAX_VALUE)).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+
+                    String etag = headers.getETag();
+                    if (etag == null) {
+                        etag = etagOf(bytes);
+                        headers.setETag(etag);
+                    }
+                    if (generation(rootScope) == rootGeneration && generation(resourceScope) == resourceGeneration) {
+                        cache.put(key, new CachedResponse(rootGeneration, resourceGeneration, getStatusCode(), cacheableHeaders(headers), bytes,
+                                etag, System.nanoTime(), ttl));
+                    }
+                    headers.set(CACHE_HEADER, "MISS");
+                    if (etagMatches(ifNoneMatch, etag)) {
+                        notModified.increment();
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        headers.remove(HttpHeaders.CONTENT_LENGTH);
+                        return setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, String ifNoneMatch) {
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAtNanos())));
+        headers.set(CACHE_HEADER, "HIT");
+        if (etagMatches(ifNoneMatch, cached.etag())) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private boolean matches(ServerHttpRequest request) {
+        var path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String key(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String query = request.getURI().getRawQuery();
+        return request.getPath().value()
+                + (query == null ? "" : "?" + query)
+                + '|' + headers.getFirst(apiKeyProperties.getHeaderName())
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT);
+    }
+
+    // baferuje se samo telo poznate duzine do max-entry-size; chunked / stream odgovori idu direktno klijentu
+    private static boolean cacheable(HttpHeaders headers, long maxEntry) {
+        long length = headers.getContentLength();
+        if (length < 0 || length > maxEntry || headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+            return false;
+        }
+        MediaType type = headers.getContentType();
+        return !MediaType.APPLICATION_NDJSON.isCompatibleWith(type) && !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(type);
+    }
+
+    // koren = prva dva segmenta putanje (/api/bookings/5/details -> /api/bookings)
+    static String root(String path) {
+        int first = path.indexOf('/', 1);
+        if (first < 0) {
+            return path;
+        }
+        int second = path.indexOf('/', first + 1);
+        return second < 0 ? path : path.substring(0, second);
+    }
+
+    // resurs = koren + id stavke ako ga putanja ima (/api/bookings/5/details -> /api/bookings/5), inace kolekcija
+    // (/api/bookings/availability -> /api/bookings)
+    static String resource(String path) {
+        String root = root(path);
+        if (path.length() <= root.length() + 1) {
+            return root;
+        }
+        int end = path.indexOf('/', root.length() + 1);
+        String segment = path.substring(root.length() + 1, end < 0 ? path.length() : end);
+        return !segment.isEmpty() && segment.chars().allMatch(Character::isDigit) ? root + '/' + segment : root;
+    }
+
+    private long generation(String scope) {
+        Long generation = generations.getIfPresent(scope);
+        return generation == null ? 0 : generation;
+    }
+
+    // upis na stavku: stavka i upiti nad kolekcijom; upis na kolekciju (ili bilo sta bez id-ja): ceo koren
+    private void invalidate(String path) {
+        String root = root(path);
+        String resource = resource(path);
+        if (resource.equals(root)) {
+            generations.put(root + ALL, sequence.incrementAndGet());
+        } else {
+            generations.put(resource, sequence.incrementAndGet());
+            generations.put(root, sequence.incrementAndGet());
+        }
+        invalidations.increment();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static long ttlNanos(HttpHeaders headers, long defaultTtl) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return defaultTtl;
+        }
+        if (cacheControl.contains("no-store") || cacheControl.contains("private") || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Matcher m = MAX_AGE.matcher(cacheControl);
+        return m.find() ? Math.min(defaultTtl, TimeUnit.SECONDS.toNanos(Long.parseLong(m.group(1)))) : defaultTtl;
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.remove(HttpHeaders.CONNECTION);
+        copy.remove(HttpHeaders.SET_COOKIE);
+        copy.remove(HttpHeaders.DATE);
+        copy.remove(CACHE_HEADER);
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // If-None-Match koristi slabo poredjenje (W/ prefiks se ignorise), "*" odgovara svemu
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String expected = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    @Override
+    public int getOrder() {
+        return -90; // posle ApiKeyFilter (-100): kes vide samo autentifikovani zahtevi
+    }
+}
@@ -0,0 +1,29 @@
+package rs.pds.booking.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(30);
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+    private List<String> paths = new ArrayList<>(List.of("/api/bookings/**", "/api/users/**"));
+
+    //getter-i i setter-i
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+    public Duration getTtl() {return ttl;}
+    public void setTtl(Duration ttl) {this.ttl = ttl;}
+    public DataSize getMaxSize() {return maxSize;}
+    public void setMaxSize(DataSize maxSize) {this.maxSize = maxSize;}
+    public DataSize getMaxEntrySize() {return maxEntrySize;}
+    public void setMaxEntrySize(DataSize maxEntrySize) {this.maxEntrySize = maxEntrySize;}
+    public List<String> getPaths() {return paths;}
+    public void setPaths(List<String> paths) {this.paths = paths;}
+}
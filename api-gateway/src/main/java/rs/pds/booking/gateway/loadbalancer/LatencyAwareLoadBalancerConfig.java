@@ -0,0 +1,45 @@
+package rs.pds.booking.gateway.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerZoneConfig;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import rs.pds.booking.common.loadbalancer.LatencyAwareLoadBalancer;
+import rs.pds.booking.common.loadbalancer.OverlayServiceInstanceListSupplier;
+import rs.pds.booking.common.loadbalancer.RegistryOverlay;
+
+/**
+ * Konfiguracija LoadBalancer konteksta po servisu (@LoadBalancerClients u ApiGatewayApplication).
+ * Namerno bez @Configuration: ne sme u component scan glavnog konteksta, vazi samo u kontekstu servisa.
+ * Zona se cita pri svakom izboru - Eureka je postavlja iz metadata-map posle kreiranja bean-a.
+ * Lista instanci: Eureka -> LoadBalancer kes -> izmene primljene push-om ({@link RegistryOverlay}).
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.load-balancing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory clientFactory,
+                                                             LoadBalancerZoneConfig zoneConfig,
+                                                             LoadBalancingProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(serviceId,
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                zoneConfig::getZone,
+                new LatencyAwareLoadBalancer.Settings(properties.getDecay(), properties.getFailureThreshold(),
+                        properties.getEjection(), properties.isZoneAffinity()));
+    }
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   RegistryOverlay overlay) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .with((ctx, delegate) -> new OverlayServiceInstanceListSupplier(delegate, overlay))
+                .build(context);
+    }
+}
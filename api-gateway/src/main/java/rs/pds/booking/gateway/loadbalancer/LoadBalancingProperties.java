@@ -0,0 +1,30 @@
+package rs.pds.booking.gateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public class LoadBalancingProperties {
+    // false = podrazumevani round-robin iz Spring Cloud LoadBalancer-a
+    private boolean enabled = true;
+    // koliko brzo procena latencije prati brze odgovore; instanca bez uzorka duze od ovoga se opet proba
+    private Duration decay = Duration.ofSeconds(10);
+    // uzastopne greske (izuzetak ili 5xx) posle kojih se instanca izbacuje
+    private int failureThreshold = 3;
+    private Duration ejection = Duration.ofSeconds(10);
+    // prednost instancama iz iste zone (metadata "zone"), dok god neka od njih nije izbacena
+    private boolean zoneAffinity = true;
+
+    //getter-i i setter-i
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+    public Duration getDecay() {return decay;}
+    public void setDecay(Duration decay) {this.decay = decay;}
+    public int getFailureThreshold() {return failureThreshold;}
+    public void setFailureThreshold(int failureThreshold) {this.failureThreshold = failureThreshold;}
+    public Duration getEjection() {return ejection;}
+    public void setEjection(Duration ejection) {this.ejection = ejection;}
+    public boolean isZoneAffinity() {return zoneAffinity;}
+    public void setZoneAffinity(boolean zoneAffinity) {this.zoneAffinity = zoneAffinity;}
+}
@@ -0,0 +1,29 @@
+package rs.pds.booking.gateway.loadbalancer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.pds.booking.common.loadbalancer.RegistryChangeWatcher;
+import rs.pds.booking.common.loadbalancer.RegistryOverlay;
+
+// push izmena registra za lb:// rute (gateway.registry-push); overlay postoji uvek, prazan kad je push ugasen
+@Configuration
+public class RegistryPushConfig {
+
+    @Bean
+    public RegistryOverlay registryOverlay(RegistryPushProperties properties) {
+        return new RegistryOverlay(properties.getOverlayTtl());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.registry-push", name = "enabled", havingValue = "true")
+    public RegistryChangeWatcher registryChangeWatcher(RegistryOverlay overlay,
+                                                       ObjectMapper objectMapper,
+                                                       RegistryPushProperties properties,
+                                                       @Value("${eureka.client.service-url.defaultZone:http://localhost:8761/eureka}") String defaultZone) {
+        return new RegistryChangeWatcher(overlay, objectMapper, properties.getUrl(), defaultZone,
+                properties.getWait(), properties.getRetryDelay());
+    }
+}
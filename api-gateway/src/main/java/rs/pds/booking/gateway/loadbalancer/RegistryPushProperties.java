@@ -0,0 +1,31 @@
+package rs.pds.booking.gateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.registry-push")
+public class RegistryPushProperties {
+    // long-poll na discovery-service /registry/changes (RegistryChangeWatcher)
+    private boolean enabled = false;
+    // prazno = eureka.client.service-url.defaultZone bez /eureka
+    private String url;
+    // koliko discovery drzi otvoren zahtev kad nema izmena
+    private Duration wait = Duration.ofSeconds(30);
+    // koliko vazi izmena primljena push-om; do tada redovni Eureka fetch + LoadBalancer kes sustignu
+    private Duration overlayTtl = Duration.ofSeconds(30);
+    // pauza posle neuspelog poziva (discovery nedostupan)
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    //getter-i i setter-i
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+    public String getUrl() {return url;}
+    public void setUrl(String url) {this.url = url;}
+    public Duration getWait() {return wait;}
+    public void setWait(Duration wait) {this.wait = wait;}
+    public Duration getOverlayTtl() {return overlayTtl;}
+    public void setOverlayTtl(Duration overlayTtl) {this.overlayTtl = overlayTtl;}
+    public Duration getRetryDelay() {return retryDelay;}
+    public void setRetryDelay(Duration retryDelay) {this.retryDelay = retryDelay;}
+}
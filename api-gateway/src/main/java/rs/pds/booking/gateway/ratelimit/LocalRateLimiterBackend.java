@@ -0,0 +1,81 @@
+package rs.pds.booking.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket u memoriji, bez zakljucavanja: stanje bucket-a je jedan long (GCRA - "theoretical arrival time",
+ * trenutak kad bi bucket opet bio pun), a zahtev je jedan CAS. Ekvivalentno je klasicnom bucket-u
+ * (replenishRate tokena/s, najvise burstCapacity), bez posebnog refill koraka.
+ * Bucket-i su u Caffeine-u: ogranicen broj + brisanje posle neaktivnosti. Bucket se ne brise pre nego sto bi se
+ * ionako potpuno napunio, pa brisanje po neaktivnosti nikad ne daje klijentu vise nego sto mu pripada.
+ */
+public class LocalRateLimiterBackend implements RateLimiterBackend {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimiterBackend(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    LocalRateLimiterBackend(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(idleTimeout(properties))
+                .ticker(nanoClock::getAsLong)
+                .build();
+    }
+
+    // najmanje koliko traje punjenje najveceg bucket-a
+    private static Duration idleTimeout(RateLimitProperties properties) {
+        Duration idle = properties.getIdleTimeout();
+        if (properties.getDefaultLimit() != null && properties.getDefaultLimit().fullRefill().compareTo(idle) > 0) {
+            idle = properties.getDefaultLimit().fullRefill();
+        }
+        for (RateLimitProperties.Limit limit : properties.getRoutes().values()) {
+            if (limit.fullRefill().compareTo(idle) > 0) {
+                idle = limit.fullRefill();
+            }
+        }
+        return idle;
+    }
+
+    @Override
+    public Mono<Decision> tryAcquire(String key, RateLimitProperties.Limit limit) {
+        return Mono.just(acquire(key, limit));
+    }
+
+    Decision acquire(String key, RateLimitProperties.Limit limit) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long interval = (long) (1e9 / limit.getReplenishRate()); // ns po tokenu
+        long cost = interval * limit.getRequestedTokens();
+        long tolerance = interval * limit.getBurstCapacity(); // koliko TAT sme da bude ispred sadasnjeg trenutka
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = tat.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current; // pun bucket -> od sada
+            long next = base + cost;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return new Decision(false, Math.max(0, (tolerance - (base - now)) / interval), Duration.ofNanos(ahead - tolerance));
+            }
+            if (tat.compareAndSet(current, next)) {
+                return new Decision(true, (tolerance - ahead) / interval, Duration.ZERO);
+            }
+        }
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
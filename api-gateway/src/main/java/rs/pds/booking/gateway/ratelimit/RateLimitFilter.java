@@ -0,0 +1,103 @@
+package rs.pds.booking.gateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.gateway.security.ApiKeyFilter;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ograničenje broja zahteva po API kljucu i ruti (order -95: posle ApiKeyFilter-a, pre kesa odgovora).
+ * Limit rute je iz gateway.rate-limit.routes.{routeId}, inace default-limit; bez limita zahtev prolazi.
+ * Preko limita -> 429 + Retry-After (sekunde, zaokruzeno navise); X-RateLimit-Remaining ide uz svaki odgovor.
+ * Kljuc se uzima iz atributa koji postavlja ApiKeyFilter posle provere, ne iz header-a: izmisljeni kljucevi
+ * (npr. na whitelist putanjama ili kad je provera iskljucena) ne dobijaju svaki svoj bucket.
+ * Zahtevi bez proverenog kljuca se broje po IP adresi klijenta.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY = "{\"error\":\"too_many_requests\",\"message\":\"Rate limit exceeded\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitProperties properties;
+    private final RateLimiterBackend backend;
+    private final MeterRegistry registry;
+    private final Map<String, Counter> allowed = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties,
+                           ObjectProvider<RateLimiterBackend> backend,
+                           MeterRegistry registry) {
+        this.properties = properties;
+        this.backend = backend.getIfAvailable(() -> new LocalRateLimiterBackend(properties));
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        RateLimitProperties.Limit limit = properties.getRoutes().getOrDefault(route.getId(), properties.getDefaultLimit());
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        return backend.tryAcquire(routeId + '|' + clientKey(exchange), limit).flatMap(decision -> {
+            var response = exchange.getResponse();
+            response.getHeaders().set(REMAINING_HEADER, Long.toString(decision.remaining()));
+            if (decision.allowed()) {
+                counter(allowed, routeId, "allowed").increment();
+                return chain.filter(exchange);
+            }
+            counter(rejected, routeId, "rejected").increment();
+            long retryAfterSeconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(TOO_MANY_REQUESTS_BODY.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+        });
+    }
+
+    private String clientKey(ServerWebExchange exchange) {
+        String client = exchange.getAttribute(ApiKeyFilter.CLIENT_ATTR);
+        if (client != null) {
+            return client;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remote == null ? "?" : remote.getHostString());
+    }
+
+    private Counter counter(Map<String, Counter> counters, String routeId, String result) {
+        return counters.computeIfAbsent(routeId, id -> Counter.builder("gateway.rate.limit.requests")
+                .tag("route", id)
+                .tag("result", result)
+                .register(registry));
+    }
+
+    @Override
+    public int getOrder() {
+        return -95; // izmedju ApiKeyFilter (-100) i ResponseCacheFilter (-90)
+    }
+}
@@ -0,0 +1,58 @@
+package rs.pds.booking.gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // najvise ovoliko bucket-a (API key x ruta) u memoriji; bucket bez zahteva duze od idle-timeout se brise
+    private long maxBuckets = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    // vazi za rute koje nemaju svoj limit; null = bez limita
+    private Limit defaultLimit;
+    // kljuc je id rute iz spring.cloud.gateway.routes
+    private Map<String, Limit> routes = new HashMap<>();
+
+    //getter-i i setter-i
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+    public long getMaxBuckets() {return maxBuckets;}
+    public void setMaxBuckets(long maxBuckets) {this.maxBuckets = maxBuckets;}
+    public Duration getIdleTimeout() {return idleTimeout;}
+    public void setIdleTimeout(Duration idleTimeout) {this.idleTimeout = idleTimeout;}
+    public Limit getDefaultLimit() {return defaultLimit;}
+    public void setDefaultLimit(Limit defaultLimit) {this.defaultLimit = defaultLimit;}
+    public Map<String, Limit> getRoutes() {return routes;}
+    public void setRoutes(Map<String, Limit> routes) {this.routes = routes;}
+
+    // token bucket: replenishRate tokena u sekundi, najvise burstCapacity odjednom, requestedTokens po zahtevu
+    public static class Limit {
+        private double replenishRate = 50;
+        private int burstCapacity = 100;
+        private int requestedTokens = 1;
+
+        public Limit() {}
+
+        public Limit(double replenishRate, int burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+
+        //getter-i i setter-i
+        public double getReplenishRate() {return replenishRate;}
+        public void setReplenishRate(double replenishRate) {this.replenishRate = replenishRate;}
+        public int getBurstCapacity() {return burstCapacity;}
+        public void setBurstCapacity(int burstCapacity) {this.burstCapacity = burstCapacity;}
+        public int getRequestedTokens() {return requestedTokens;}
+        public void setRequestedTokens(int requestedTokens) {this.requestedTokens = requestedTokens;}
+
+        // vreme za koje se prazan bucket potpuno napuni
+        public Duration fullRefill() {
+            return Duration.ofNanos((long) Math.ceil(burstCapacity * 1e9 / replenishRate));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package rs.pds.booking.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Gde se cuva stanje bucket-a. Podrazumevano je {@link LocalRateLimiterBackend} (u memoriji gateway instance,
+ * bez Redis-a); bean drugog tipa (npr. deljeni store za vise instanci) ga zamenjuje.
+ */
+public interface RateLimiterBackend {
+
+    /**
+     * @param key   bucket (ruta + klijent)
+     * @param limit limit rute
+     */
+    Mono<Decision> tryAcquire(String key, RateLimitProperties.Limit limit);
+
+    // retryAfter je ZERO kad je zahtev pusten
+    record Decision(boolean allowed, long remaining, Duration retryAfter) {}
+}
@@ -7,51 +7,131 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Provera API kljuca za svaki zahtev (order -100, pre svih ostalih filtera).
+ * Sve sto ne zavisi od zahteva se pravi jednom na startu: whitelist se kompajlira u PathPattern-e,
+ * kljucevi se cuvaju kao nizovi bajtova, a telo 401 odgovora je jedan deljeni niz bajtova.
+ * Poredjenje kljuca je u konstantnom vremenu (MessageDigest.isEqual, uvek protiv svih kljuceva); trajanje
+ * zavisi samo od duzine poslatog kljuca, pa vreme odgovora ne otkriva ni sadrzaj ni duzinu podesenog kljuca.
+ * Zahtev sa ispravnim kljucem dobija atribut {@link #CLIENT_ATTR} (koji od podesenih kljuceva, ne sam kljuc)
+ * - po njemu RateLimitFilter broji zahteve.
+ */
 @Component
 public class ApiKeyFilter implements GlobalFilter, Ordered {
 
+    // "key:<redni broj podesenog kljuca>"; postoji samo ako je kljuc proveren i ispravan
+    public static final String CLIENT_ATTR = ApiKeyFilter.class.getName() + ".client";
+
     private static final Logger log = LoggerFactory.getLogger(ApiKeyFilter.class);
-    private final ApiKeyProperties properties;
-    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private static final byte[] UNAUTHORIZED_BODY = "{\"error\":\"unauthorized\",\"message\":\"Missing or invalid API key\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final String headerName;
+    private final PathPattern[] whitelist;
+    private final byte[][] keys;
+
+    private final long rejectLogIntervalNanos;
+    private final AtomicLong nextRejectLog = new AtomicLong(System.nanoTime());
+    private final AtomicLong suppressedRejects = new AtomicLong();
 
     public ApiKeyFilter(ApiKeyProperties properties) {
-        this.properties = properties;
+        this.enabled = properties.isEnabled();
+        this.headerName = properties.getHeaderName();
+        this.whitelist = properties.getWhitelist().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toArray(PathPattern[]::new);
+        this.keys = Stream.concat(Stream.of(properties.getValue()), properties.getValues().stream())
+                .filter(Objects::nonNull)
+                .filter(k -> !k.isBlank())
+                .distinct()
+                .map(k -> k.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        this.rejectLogIntervalNanos = properties.getRejectLogInterval().toNanos();
+        if (enabled && keys.length == 0) {
+            log.warn("API key provera je ukljucena, a nijedan kljuc nije podesen - svi zahtevi van whitelist-e dobijaju 401");
+        }
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        if(!properties.isEnabled()){
+        if(!enabled){
             return chain.filter(exchange);
         }
 
-        var path = exchange.getRequest().getPath().value();
-
-        for(String pattern : properties.getWhitelist()){
-            if(matcher.match(pattern,path)){
+        // putanja je vec parsirana u request-u, nema novih objekata
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern pattern : whitelist) {
+            if (pattern.matches(path)) {
                 return chain.filter(exchange);
             }
         }
 
-        var headerName = properties.getHeaderName();
         var provided = exchange.getRequest().getHeaders().getFirst(headerName);
-
-        if(provided != null && provided.equals(properties.getValue())){
+        int matched = provided == null ? -1 : matchingKey(provided);
+        if (matched >= 0) {
+            exchange.getAttributes().put(CLIENT_ATTR, "key:" + matched);
             return chain.filter(exchange);
         }
 
-        log.warn("API key promasen za path: {}; headerName: {}; provided: {}", path, headerName, provided);
+        logRejected(exchange, provided == null);
 
         var response = exchange.getResponse();
         response.setStatusCode(HttpStatus.UNAUTHORIZED);
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        var body = ("{\"error\":\"unauthorized\",\"message\":\"Missing or invalid API key\"}").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        response.getHeaders().setContentLength(UNAUTHORIZED_BODY.length);
+        // wrap ne kopira niz; telo se samo cita pa je deljenje bezbedno
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(UNAUTHORIZED_BODY)));
+    }
+
+    // redni broj kljuca koji se poklapa, -1 ako nijedan
+    private int matchingKey(String provided) {
+        // Netty dekodira header kao ISO-8859-1 (bajt = char), pa je ovo kopija bajtova sa zice, bez enkodera;
+        // poslat prvi argument: petlja u isEqual ide po njegovoj duzini, ne po duzini kljuca
+        byte[] bytes = provided.getBytes(StandardCharsets.ISO_8859_1);
+        int match = -1;
+        for (int i = 0; i < keys.length; i++) {
+            if (MessageDigest.isEqual(bytes, keys[i])) { // bez ranog izlaska
+                match = i;
+            }
+        }
+        return match;
+    }
+
+    // pod napadom bi WARN po zahtevu zagusio log; jedan WARN po intervalu + broj preskocenih, detalji na DEBUG
+    private void logRejected(ServerWebExchange exchange, boolean missing) {
+        if (log.isDebugEnabled()) {
+            log.debug("API key odbijen: path={} header={} missing={}",
+                    exchange.getRequest().getPath().value(), headerName, missing);
+        }
+        long now = System.nanoTime();
+        long next = nextRejectLog.get();
+        if (now - next < 0 || !nextRejectLog.compareAndSet(next, now + rejectLogIntervalNanos)) {
+            suppressedRejects.incrementAndGet();
+            return;
+        }
+        log.warn("API key promasen za path: {}; headerName: {}; kljuc {}; (jos {} odbijenih od prethodnog loga)",
+                exchange.getRequest().getPath().value(), headerName, missing ? "nedostaje" : "neispravan",
+                suppressedRejects.getAndSet(0));
+    }
 
-        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    // broj odbijenih zahteva koji nisu dobili svoj WARN log (za test / dijagnostiku)
+    long suppressedRejects() {
+        return suppressedRejects.get();
     }
 
     @Override
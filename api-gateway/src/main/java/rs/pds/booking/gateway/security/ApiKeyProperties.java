@@ -2,6 +2,7 @@ package rs.pds.booking.gateway.security;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,7 +11,12 @@ public class ApiKeyProperties {
     private boolean enabled = true;
     private String headerName = "X-API-Key";
     private String value =  "sifra123";
+    // dodatni kljucevi (npr. po klijentu ili stari + novi kljuc tokom rotacije), vaze uz 'value'
+    private List<String> values = new ArrayList<>();
+    // PathPattern-i: bez /** samo tacna putanja, sa /** putanja i sve ispod nje
     private List<String> whitelist = new ArrayList<>();
+    // najvise jedan WARN log za odbijene zahteve u ovom intervalu (ostali se samo broje)
+    private Duration rejectLogInterval = Duration.ofSeconds(10);
 
     //getter-i i setter-i
     public boolean isEnabled() {return enabled;}
@@ -19,6 +25,10 @@ public class ApiKeyProperties {
     public void setHeaderName(String headerName) {this.headerName = headerName;}
     public String getValue() {return value;}
     public void setValue(String value) {this.value = value;}
+    public List<String> getValues() {return values;}
+    public void setValues(List<String> values) {this.values = values;}
     public List<String> getWhitelist() {return whitelist;}
     public void setWhitelist(List<String> whitelist) {this.whitelist = whitelist;}
+    public Duration getRejectLogInterval() {return rejectLogInterval;}
+    public void setRejectLogInterval(Duration rejectLogInterval) {this.rejectLogInterval = rejectLogInterval;}
 }
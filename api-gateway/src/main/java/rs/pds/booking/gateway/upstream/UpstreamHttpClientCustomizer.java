@@ -0,0 +1,27 @@
+package rs.pds.booking.gateway.upstream;
+
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Protokol Reactor Netty klijenta kojim gateway prosledjuje zahteve (spring.cloud.gateway.httpclient nema h2c).
+ * Sa h2c pool drzi manje konekcija po instanci, a zahtevi idu kao paralelni stream-ovi (do
+ * max concurrent streams servisa); bez upgrade koraka, pa svi upstream servisi moraju da prihvate HTTP/2.
+ * Bira se pri startu, ne kroz @ConditionalOnProperty - uz -Paot bi uslov bio zamrznut pri build-u.
+ */
+@Component
+public class UpstreamHttpClientCustomizer implements HttpClientCustomizer {
+
+    private final UpstreamProperties properties;
+
+    public UpstreamHttpClientCustomizer(UpstreamProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public HttpClient customize(HttpClient httpClient) {
+        return properties.isH2c() ? httpClient.protocol(HttpProtocol.H2C) : httpClient;
+    }
+}
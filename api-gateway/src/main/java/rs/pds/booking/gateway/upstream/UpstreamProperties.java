@@ -0,0 +1,13 @@
+package rs.pds.booking.gateway.upstream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.upstream")
+public class UpstreamProperties {
+    // HTTP/2 bez TLS-a (prior knowledge) ka servisima iza lb:// ruta; false = HTTP/1.1 keep-alive
+    private boolean h2c = false;
+
+    //getter-i i setter-i
+    public boolean isH2c() {return h2c;}
+    public void setH2c(boolean h2c) {this.h2c = h2c;}
+}
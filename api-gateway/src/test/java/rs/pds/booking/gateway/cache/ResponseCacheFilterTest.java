@@ -0,0 +1,194 @@
+package rs.pds.booking.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.gateway.security.ApiKeyProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    SimpleMeterRegistry registry;
+    ResponseCacheFilter filter;
+    AtomicInteger upstreamCalls;
+
+    // "upstream": svaki poziv vraca novo telo, pa se vidi da li je odgovor dosao iz kesa
+    GatewayFilterChain upstream = exchange -> {
+        int n = upstreamCalls.incrementAndGet();
+        var response = exchange.getResponse();
+        if (exchange.getRequest().getMethod().matches("GET")) {
+            byte[] body = ("{\"call\":" + n + "}").getBytes(StandardCharsets.UTF_8);
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.setComplete();
+    };
+
+    @BeforeEach
+    void setUp() {
+        var props = new ResponseCacheProperties();
+        props.setMaxEntrySize(DataSize.ofBytes(64));
+        registry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(props, new ApiKeyProperties(), registry);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    private MockServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request) {
+        var exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, upstream).block();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> get(String uri, String apiKey) {
+        return MockServerHttpRequest.get(uri).header("X-API-Key", apiKey);
+    }
+
+    @Test
+    void secondGet_isServedFromCache_withEtag() {
+        var first = run(get("/api/bookings/1/details", "k1"));
+        var second = run(get("/api/bookings/1/details", "k1"));
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"call\":1}");
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isNotNull()
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+        assertThat(registry.get("gateway.response.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.get("gateway.response.cache.size").gauge().value()).isPositive();
+    }
+
+    @Test
+    void keyIncludesQueryAndApiKey() {
+        run(get("/api/bookings?userId=1", "k1"));
+        run(get("/api/bookings?userId=2", "k1"));
+        run(get("/api/bookings?userId=1", "k2"));
+
+        assertThat(upstreamCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void matchingIfNoneMatch_returns304WithoutBody() {
+        String etag = run(get("/api/users/7", "k1")).getResponse().getHeaders().getETag();
+
+        var revalidated = run(get("/api/users/7", "k1").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag));
+
+        assertThat(revalidated.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getResponse().getBodyAsString().block()).isEmpty();
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void writeToSameRoot_invalidatesCachedGets() {
+        run(get("/api/bookings/1/details", "k1"));
+        run(get("/api/users/1", "k1"));
+        run(MockServerHttpRequest.put("/api/bookings/1").header("X-API-Key", "k1"));
+
+        var booking = run(get("/api/bookings/1/details", "k1"));
+        var user = run(get("/api/users/1", "k1"));
+
+        assertThat(booking.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(user.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+    }
+
+    @Test
+    void writeToItem_keepsOtherItems_butInvalidatesCollectionQueries() {
+        run(get("/api/bookings/1", "k1"));
+        run(get("/api/bookings/2", "k1"));
+        run(get("/api/bookings/availability?resource=A", "k1"));
+        run(MockServerHttpRequest.delete("/api/bookings/1").header("X-API-Key", "k1"));
+
+        assertThat(run(get("/api/bookings/1", "k1")).getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER))
+                .isEqualTo("MISS");
+        assertThat(run(get("/api/bookings/2", "k1")).getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER))
+                .isEqualTo("HIT");
+        assertThat(run(get("/api/bookings/availability?resource=A", "k1")).getResponse().getHeaders()
+                .getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+    }
+
+    @Test
+    void writeToCollection_invalidatesWholeRoot() {
+        run(get("/api/bookings/2", "k1"));
+        run(MockServerHttpRequest.post("/api/bookings/bulk").header("X-API-Key", "k1"));
+
+        assertThat(run(get("/api/bookings/2", "k1")).getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER))
+                .isEqualTo("MISS");
+    }
+
+    @Test
+    void resourcePrefix() {
+        assertThat(ResponseCacheFilter.resource("/api/bookings/5/details")).isEqualTo("/api/bookings/5");
+        assertThat(ResponseCacheFilter.resource("/api/bookings/availability")).isEqualTo("/api/bookings");
+        assertThat(ResponseCacheFilter.resource("/api/bookings")).isEqualTo("/api/bookings");
+        assertThat(ResponseCacheFilter.resource("/api/users/")).isEqualTo("/api/users");
+    }
+
+    @Test
+    void chunkedAndStreamingResponses_passThroughUncached() {
+        GatewayFilterChain chunked = exchange -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+            return response.writeWith(Mono.just(response.bufferFactory().wrap("{}".getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(MockServerWebExchange.from(get("/api/users/3", "k1")), chunked).block();
+        var second = MockServerWebExchange.from(get("/api/users/3", "k1"));
+        filter.filter(second, chunked).block();
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{}");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isNull();
+
+        GatewayFilterChain ndjson = exchange -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            byte[] body = "{}\n{}\n".getBytes(StandardCharsets.UTF_8);
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+        filter.filter(MockServerWebExchange.from(get("/api/users", "k1")), ndjson).block();
+        filter.filter(MockServerWebExchange.from(get("/api/users", "k1")), ndjson).block();
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+    }
+
+    @Test
+    void noStoreAndOversizedResponses_areNotCached() {
+        GatewayFilterChain noStore = exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("no-store");
+            return upstream.filter(exchange);
+        };
+        filter.filter(MockServerWebExchange.from(get("/api/users/1", "k1")), noStore).block();
+        filter.filter(MockServerWebExchange.from(get("/api/users/1", "k1")), noStore).block();
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+
+        GatewayFilterChain big = exchange -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(100);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(new byte[100])));
+        };
+        filter.filter(MockServerWebExchange.from(get("/api/users/2", "k1")), big).block();
+        filter.filter(MockServerWebExchange.from(get("/api/users/2", "k1")), big).block();
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+    }
+}
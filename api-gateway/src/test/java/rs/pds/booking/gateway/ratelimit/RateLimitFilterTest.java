@@ -0,0 +1,140 @@
+package rs.pds.booking.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.gateway.security.ApiKeyFilter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private RateLimitProperties properties() {
+        var props = new RateLimitProperties();
+        props.setRoutes(Map.of("bookings-route", new RateLimitProperties.Limit(2, 3)));
+        props.setIdleTimeout(Duration.ofMinutes(1));
+        return props;
+    }
+
+    @Test
+    void bucket_allowsBurstThenRefillsAtReplenishRate() {
+        var backend = new LocalRateLimiterBackend(properties(), clock::get);
+        var limit = properties().getRoutes().get("bookings-route");
+
+        for (int i = 0; i < 3; i++) {
+            var d = backend.acquire("k", limit);
+            assertThat(d.allowed()).isTrue();
+            assertThat(d.remaining()).isEqualTo(2 - i);
+        }
+        var rejected = backend.acquire("k", limit);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfter()).isEqualTo(Duration.ofMillis(500)); // 2 tokena/s
+
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(backend.acquire("k", limit).allowed()).isTrue();
+        assertThat(backend.acquire("k", limit).allowed()).isFalse();
+
+        // dugo neaktivan bucket je opet pun (ne vise od burst-a)
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+        assertThat(backend.acquire("k", limit).remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void idleBuckets_areEvicted() {
+        var backend = new LocalRateLimiterBackend(properties(), clock::get);
+        var limit = properties().getRoutes().get("bookings-route");
+        for (int i = 0; i < 100; i++) {
+            backend.acquire("k" + i, limit);
+        }
+        assertThat(backend.bucketCount()).isEqualTo(100);
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertThat(backend.bucketCount()).isZero();
+    }
+
+    @Test
+    void filter_returns429WithRetryAfter_perApiKeyAndRoute() {
+        var filter = filter();
+        GatewayFilterChain chain = exchange -> Mono.empty();
+
+        var bookings = Route.async().id("bookings-route").uri("http://bookings").predicate(e -> true).build();
+        var users = Route.async().id("users-route").uri("http://users").predicate(e -> true).build();
+
+        for (int i = 0; i < 3; i++) {
+            var ok = exchange(bookings, "k1");
+            filter.filter(ok, chain).block();
+            assertThat(ok.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        var limited = exchange(bookings, "k1");
+        filter.filter(limited, chain).block();
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(limited.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+
+        // drugi kljuc ima svoj bucket, ruta bez limita se ne ogranicava
+        var otherKey = exchange(bookings, "k2");
+        filter.filter(otherKey, chain).block();
+        assertThat(otherKey.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        var unlimitedRoute = exchange(users, "k1");
+        filter.filter(unlimitedRoute, chain).block();
+        assertThat(unlimitedRoute.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // neprovereni kljucevi iz header-a (whitelist, provera iskljucena) ne dobijaju svoj bucket: broji se po IP-u
+    @Test
+    void filter_unvalidatedKeyHeader_isLimitedPerRemoteAddress() {
+        var filter = filter();
+        GatewayFilterChain chain = exchange -> Mono.empty();
+        var bookings = Route.async().id("bookings-route").uri("http://bookings").predicate(e -> true).build();
+
+        for (int i = 0; i < 3; i++) {
+            filter.filter(unvalidated(bookings, "izmisljen-" + i, "10.0.0.1"), chain).block();
+        }
+        var limited = unvalidated(bookings, "izmisljen-3", "10.0.0.1");
+        filter.filter(limited, chain).block();
+        var otherAddress = unvalidated(bookings, "izmisljen-3", "10.0.0.2");
+        filter.filter(otherAddress, chain).block();
+
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(otherAddress.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private RateLimitFilter filter() {
+        var props = properties();
+        var beans = new StaticListableBeanFactory();
+        beans.addBean("backend", new LocalRateLimiterBackend(props, clock::get));
+        return new RateLimitFilter(props, beans.getBeanProvider(RateLimiterBackend.class), new SimpleMeterRegistry());
+    }
+
+    // kao posle ApiKeyFilter-a: kljuc je proveren i zapisan u atribut
+    private static MockServerWebExchange exchange(Route route, String client) {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", client));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ApiKeyFilter.CLIENT_ATTR, "key:" + client);
+        return exchange;
+    }
+
+    private static MockServerWebExchange unvalidated(Route route, String apiKey, String address) {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/bookings/1")
+                .header("X-API-Key", apiKey)
+                .remoteAddress(new InetSocketAddress(address, 40000)));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
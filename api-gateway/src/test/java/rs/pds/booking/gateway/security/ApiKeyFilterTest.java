@@ -0,0 +1,134 @@
+package rs.pds.booking.gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiKeyFilterTest {
+
+    ApiKeyFilter filter;
+    AtomicInteger passed;
+    GatewayFilterChain chain = exchange -> {
+        passed.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    void setUp() {
+        var props = new ApiKeyProperties();
+        props.setValue("sifra123");
+        props.setValues(List.of("partner-kljuc", ""));
+        props.setWhitelist(List.of("/actuator/**", "/api/users/v3/api-docs/**"));
+        props.setRejectLogInterval(Duration.ofHours(1));
+        filter = new ApiKeyFilter(props);
+        passed = new AtomicInteger();
+    }
+
+    private MockServerWebExchange run(MockServerHttpRequest.BaseBuilder<?> request) {
+        var exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    @Test
+    void whitelistedPath_passesWithoutKey() {
+        run(MockServerHttpRequest.get("/actuator/health"));
+        run(MockServerHttpRequest.get("/api/users/v3/api-docs/swagger-config"));
+
+        assertThat(passed.get()).isEqualTo(2);
+    }
+
+    @Test
+    void anyConfiguredKey_passes() {
+        var first = run(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", "sifra123"));
+        var second = run(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", "partner-kljuc"));
+
+        assertThat(passed.get()).isEqualTo(2);
+        // RateLimitFilter broji po proverenom kljucu; atribut nosi redni broj kljuca, ne sam kljuc
+        assertThat((String) first.getAttribute(ApiKeyFilter.CLIENT_ATTR)).isEqualTo("key:0");
+        assertThat((String) second.getAttribute(ApiKeyFilter.CLIENT_ATTR)).isEqualTo("key:1");
+    }
+
+    @Test
+    void whitelistedPath_withAnyKey_isNotMarkedAsClient() {
+        var exchange = run(MockServerHttpRequest.get("/actuator/health").header("X-API-Key", "izmisljen"));
+
+        assertThat(passed.get()).isEqualTo(1);
+        assertThat((String) exchange.getAttribute(ApiKeyFilter.CLIENT_ATTR)).isNull();
+    }
+
+    @Test
+    void missingOrWrongKey_returns401WithJsonBody() {
+        var missing = run(MockServerHttpRequest.get("/api/bookings/1"));
+        var wrong = run(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", "sifra12"));
+        var longer = run(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", "sifra1234"));
+        var blank = run(MockServerHttpRequest.get("/api/bookings/1").header("X-API-Key", ""));
+
+        assertThat(passed.get()).isZero();
+        for (var exchange : List.of(missing, wrong, longer, blank)) {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+            assertThat(exchange.getResponse().getBodyAsString().block())
+                    .isEqualTo("{\"error\":\"unauthorized\",\"message\":\"Missing or invalid API key\"}");
+        }
+        // prvi odbijen zahtev se loguje, ostali u istom intervalu samo broje
+        assertThat(filter.suppressedRejects()).isEqualTo(3);
+    }
+
+    // whitelist iz pravog application*.yml; PathPattern: unos bez /** vazi samo za tacnu putanju (ni pod-putanje
+    // ni zavrsni '/'), a /** pokriva i samu putanju i sve ispod nje
+    @ParameterizedTest
+    @ValueSource(strings = {"application.yml", "application-docker.yml"})
+    void everyConfiguredWhitelistEntry_coversExactlyWhatItSays(String file) {
+        var yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource(file));
+        var props = new Binder(new MapConfigurationPropertySource(yaml.getObject()))
+                .bind("security.api-key", ApiKeyProperties.class).get();
+        assertThat(props.getWhitelist()).isNotEmpty();
+        filter = new ApiKeyFilter(props);
+
+        for (String entry : props.getWhitelist()) {
+            if (entry.endsWith("/**")) {
+                String base = entry.substring(0, entry.length() - 3);
+                assertPasses(base, base + "/", base + "/index.html", base + "/a/b");
+                assertRequiresKey(base + "-x", base + "x/index.html");
+            } else {
+                assertPasses(entry);
+                assertRequiresKey(entry + "/", entry + "/liveness", entry + "x");
+            }
+        }
+        assertRequiresKey("/api/users/1", "/api/bookings/1", "/api/users/v3", "/api/bookings/swagger");
+    }
+
+    private void assertPasses(String... paths) {
+        for (String path : paths) {
+            passed.set(0);
+            run(MockServerHttpRequest.get(path));
+            assertThat(passed.get()).as("bez kljuca: %s", path).isEqualTo(1);
+        }
+    }
+
+    private void assertRequiresKey(String... paths) {
+        for (String path : paths) {
+            passed.set(0);
+            var exchange = run(MockServerHttpRequest.get(path));
+            assertThat(passed.get()).as("trazi kljuc: %s", path).isZero();
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
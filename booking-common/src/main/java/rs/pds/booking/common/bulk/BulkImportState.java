@@ -0,0 +1,101 @@
+package rs.pds.booking.common.bulk;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BulkBookingResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Deo bulk importa koji ne zavisi od nacina upisa (JPA batch u bookings-service-u, R2DBC u reaktivnom):
+ * validacija reda, duplikati (userId, resourceName) u istom importu i korisnici vec provereni u ovom importu.
+ * Jedna instanca po importu; blokovi se obradjuju jedan za drugim, pa nije thread-safe.
+ * Indeksi u listama su pozicije u bloku, a rezultat reda nosi firstIndex + pozicija.
+ */
+public final class BulkImportState {
+
+    public static final String USERS_UNAVAILABLE = "Users servis nije dostupan, red nije upisan";
+
+    private final Validator validator;
+    private final Map<Long, Boolean> userExists = new HashMap<>();
+    private final Set<String> seenKeys = new HashSet<>();
+
+    public BulkImportState(Validator validator) {
+        this.validator = validator;
+    }
+
+    // 1) validacija i duplikati u okviru importa; odbijeni redovi dobijaju rezultat, vraca pozicije ispravnih
+    public List<Integer> screen(int firstIndex, List<BookingRequest> chunk, BulkBookingResult[] results) {
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BookingRequest row = chunk.get(i);
+            String error = validate(row);
+            if (error == null && !seenKeys.add(key(row.getUserId(), row.getResourceName()))) {
+                error = "Duplikat (userId, resourceName) u istom importu";
+            }
+            if (error != null) {
+                results[i] = BulkBookingResult.rejected(firstIndex + i, error);
+            } else {
+                valid.add(i);
+            }
+        }
+        return valid;
+    }
+
+    // 2) userId-evi ispravnih redova koji jos nisu provereni, redom iz ulaza
+    public Set<Long> uncheckedUserIds(List<BookingRequest> chunk, List<Integer> valid) {
+        return valid.stream()
+                .map(i -> chunk.get(i).getUserId())
+                .filter(id -> !userExists.containsKey(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    public void usersChecked(Collection<Long> checked, Set<Long> existing) {
+        checked.forEach(id -> userExists.put(id, existing.contains(id)));
+    }
+
+    // 3) redovi ciji user postoji; ostali dobijaju "User ne postoji", a redovi ciji user nije proveren
+    // (users-service nedostupan) FAILED - sledeci blok ih ponovo proverava
+    public List<Integer> withExistingUser(int firstIndex, List<BookingRequest> chunk, List<Integer> valid,
+                                          BulkBookingResult[] results) {
+        List<Integer> candidatesAt = new ArrayList<>();
+        for (int i : valid) {
+            Boolean exists = userExists.get(chunk.get(i).getUserId());
+            if (exists == null) {
+                results[i] = BulkBookingResult.failed(firstIndex + i, USERS_UNAVAILABLE);
+            } else if (exists) {
+                candidatesAt.add(i);
+            } else {
+                results[i] = BulkBookingResult.rejected(firstIndex + i, "User ne postoji");
+            }
+        }
+        return candidatesAt;
+    }
+
+    public static String key(Long userId, String resourceName) {
+        return userId + "|" + resourceName;
+    }
+
+    private String validate(BookingRequest row) {
+        if (row == null) {
+            return "Prazan red";
+        }
+        Set<ConstraintViolation<BookingRequest>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
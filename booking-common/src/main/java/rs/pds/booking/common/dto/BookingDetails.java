@@ -1,4 +1,4 @@
-package rs.pds.booking.bookings.dto;
+package rs.pds.booking.common.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
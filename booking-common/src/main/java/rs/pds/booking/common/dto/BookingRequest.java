@@ -1,4 +1,4 @@
-package rs.pds.booking.bookings.dto;
+package rs.pds.booking.common.dto;
 
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
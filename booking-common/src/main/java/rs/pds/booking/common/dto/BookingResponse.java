@@ -1,6 +1,4 @@
-package rs.pds.booking.bookings.dto;
-
-import rs.pds.booking.bookings.domain.Booking;
+package rs.pds.booking.common.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
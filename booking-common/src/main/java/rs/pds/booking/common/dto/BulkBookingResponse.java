@@ -0,0 +1,62 @@
+package rs.pds.booking.common.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkBookingResponse {
+    private int total;
+    private int created;
+    private int updated;
+    private int rejected;
+    private int failed;
+    private List<BulkBookingResult> results = new ArrayList<>();
+
+    public void add(BulkBookingResult result) {
+        results.add(result);
+        total++;
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case UPDATED -> updated++;
+            case REJECTED -> rejected++;
+            case FAILED -> failed++;
+        }
+    }
+
+    //getter-i i setter-i
+    public int getTotal() {
+        return total;
+    }
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    public int getCreated() {
+        return created;
+    }
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    public int getUpdated() {
+        return updated;
+    }
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    public int getRejected() {
+        return rejected;
+    }
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    public int getFailed() {
+        return failed;
+    }
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    public List<BulkBookingResult> getResults() {
+        return results;
+    }
+    public void setResults(List<BulkBookingResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,56 @@
+package rs.pds.booking.common.dto;
+
+// rezultat jednog reda iz bulk importa (index = redni broj reda u ulazu, od 0)
+// REJECTED = red nije ispravan ili je termin zauzet; FAILED = red nije upisan zbog greske (users-service, baza), moze ponovo
+public class BulkBookingResult {
+
+    public enum Status { CREATED, UPDATED, REJECTED, FAILED }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public BulkBookingResult() {}
+
+    public BulkBookingResult(int index, Status status, Long id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BulkBookingResult rejected(int index, String error) {
+        return new BulkBookingResult(index, Status.REJECTED, null, error);
+    }
+
+    public static BulkBookingResult failed(int index, String error) {
+        return new BulkBookingResult(index, Status.FAILED, null, error);
+    }
+
+    //getter-i i setter-i
+    public int getIndex() {
+        return index;
+    }
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    public Status getStatus() {
+        return status;
+    }
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getError() {
+        return error;
+    }
+    public void setError(String error) {
+        this.error = error;
+    }
+}
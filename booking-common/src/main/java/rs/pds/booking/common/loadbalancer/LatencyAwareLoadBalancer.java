@@ -0,0 +1,276 @@
+package rs.pds.booking.common.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Load balancer koji umesto round-robin-a bira instancu po latenciji i opterecenju (lb:// rute gateway-a,
+ * Feign klijenti bookings-service-a ka users-service-u).
+ * <ul>
+ *   <li>latencija: Peak EWMA - sporiji odgovor se uzima odmah, brzi spusta procenu postepeno (decay);
+ *   instanca bez svezeg uzorka (nova ili dugo nebirana) dobija prosek ostalih, pa se povremeno opet proba</li>
+ *   <li>cena = latencija x (zahtevi u toku + 1) / (1 - udeo gresaka); bira se bolja od dve nasumicne instance</li>
+ *   <li>greska = izuzetak ili 5xx; posle failure-threshold uzastopnih gresaka instanca je izbacena na ejection</li>
+ *   <li>zona: ako lokalna zona (spring.cloud.loadbalancer.zone / eureka.instance.metadata-map.zone) ima zdravu
+ *   instancu, biraju se samo instance iz nje</li>
+ * </ul>
+ * Uzorci dolaze kroz {@link LoadBalancerLifecycle} (ReactiveLoadBalancerClientFilter na gateway-u,
+ * FeignBlockingLoadBalancerClient u bookings-service-u - za svaki zahtev).
+ * Bean pravi LatencyAwareLoadBalancerConfig servisa (podesavanja iz gateway.load-balancing / users.load-balancing).
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    public record Settings(Duration decay, int failureThreshold, Duration ejection, boolean zoneAffinity) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    static final String ZONE_METADATA = "zone";
+    // tezina poslednjeg ishoda u udelu gresaka
+    static final double FAILURE_ALPHA = 0.2;
+    // instanca sa ~svim greskama i dalje ima konacnu cenu (kad su sve takve)
+    static final double MIN_SUCCESS_RATE = 0.05;
+    static final double DEFAULT_LATENCY_NANOS = 1_000_000;
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final Supplier<String> localZone;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    Supplier<String> localZone,
+                                    Settings settings) {
+        this(serviceId, supplierProvider, localZone, settings, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(String serviceId,
+                             ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                             Supplier<String> localZone,
+                             Settings settings,
+                             LongSupplier nanoClock) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.localZone = localZone;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (stats.size() > instances.size()) {
+            // instance koje su nestale iz registra
+            Set<String> live = instances.stream().map(LatencyAwareLoadBalancer::key).collect(Collectors.toSet());
+            stats.keySet().retainAll(live);
+        }
+        long now = nanoClock.getAsLong();
+
+        List<ServiceInstance> healthy = instances.stream().filter(i -> !stats(i).ejected(now)).toList();
+        // sve izbacene: bolje probati nego vratiti 503
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+        String zone = settings.zoneAffinity() ? localZone.get() : null;
+        if (zone != null && !zone.isBlank()) {
+            List<ServiceInstance> local = candidates.stream()
+                    .filter(i -> zone.equalsIgnoreCase(i.getMetadata().get(ZONE_METADATA)))
+                    .toList();
+            if (!local.isEmpty()) {
+                candidates = local;
+            }
+        }
+        return new DefaultResponse(pick(candidates, now));
+    }
+
+    // power of two choices: dve nasumicne instance, manja cena; ne salje sve na jednu "najbolju" instancu
+    private ServiceInstance pick(List<ServiceInstance> candidates, long now) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        double fallbackLatency = averageLatency(candidates, now);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return cost(a, now, fallbackLatency) <= cost(b, now, fallbackLatency) ? a : b;
+    }
+
+    private double cost(ServiceInstance instance, long now, double fallbackLatency) {
+        InstanceStats s = stats(instance);
+        double latency = s.latency(now, staleAfterNanos());
+        if (latency < 0) {
+            latency = fallbackLatency;
+        }
+        return latency * (s.inflight.get() + 1) / Math.max(MIN_SUCCESS_RATE, 1 - s.failureRate());
+    }
+
+    private double averageLatency(List<ServiceInstance> candidates, long now) {
+        double sum = 0;
+        int sampled = 0;
+        for (ServiceInstance instance : candidates) {
+            double latency = stats(instance).latency(now, staleAfterNanos());
+            if (latency >= 0) {
+                sum += latency;
+                sampled++;
+            }
+        }
+        return sampled == 0 ? DEFAULT_LATENCY_NANOS : sum / sampled;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(nanoClock.getAsLong());
+        }
+        if (lbResponse != null && lbResponse.hasServer()) {
+            stats(lbResponse.getServer()).inflight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        Response<ServiceInstance> lbResponse = context.getLoadBalancerResponse();
+        // DISCARD: instanca nije ni izabrana (onStartRequest nije pozvan)
+        if (context.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceStats s = stats(instance);
+        s.inflight.decrementAndGet();
+
+        long now = nanoClock.getAsLong();
+        ResponseData response = context.getClientResponse();
+        boolean failed = context.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        if (failed) {
+            if (s.failure(now, settings.failureThreshold(), settings.ejection().toNanos())) {
+                log.warn("{} {} izbacena na {} posle {} uzastopnih gresaka",
+                        serviceId, key(instance), settings.ejection(), settings.failureThreshold());
+            }
+            return;
+        }
+        Request<RequestDataContext> request = context.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() != 0) {
+            s.success(now - timed.getRequestStartTime(), now, settings.decay().toNanos());
+        }
+    }
+
+    boolean isEjected(ServiceInstance instance) {
+        return stats(instance).ejected(nanoClock.getAsLong());
+    }
+
+    private long staleAfterNanos() {
+        return settings.decay().toNanos();
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    // instanceId nije uvek postavljen (simple discovery), host:port jeste
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    static final class InstanceStats {
+        final AtomicInteger inflight = new AtomicInteger();
+
+        private boolean sampled;
+        private double latencyNanos;
+        private long sampledAt;
+        private double failureRate;
+        private int consecutiveFailures;
+        private boolean ejected;
+        private long ejectedUntil;
+
+        synchronized void success(long latency, long now, long decayNanos) {
+            consecutiveFailures = 0;
+            failureRate *= 1 - FAILURE_ALPHA;
+            if (!sampled || latency > latencyNanos) {
+                latencyNanos = latency;
+            } else {
+                double w = Math.exp(-(double) (now - sampledAt) / decayNanos);
+                latencyNanos = latencyNanos * w + latency * (1 - w);
+            }
+            sampled = true;
+            sampledAt = now;
+        }
+
+        // true kad je instanca upravo izbacena; greske dok je izbacena (kad su sve izbacene) ne produzavaju izbacivanje
+        synchronized boolean failure(long now, int threshold, long ejectionNanos) {
+            failureRate = failureRate * (1 - FAILURE_ALPHA) + FAILURE_ALPHA;
+            if (ejected(now) || ++consecutiveFailures < threshold) {
+                return false;
+            }
+            consecutiveFailures = 0;
+            ejected = true;
+            ejectedUntil = now + ejectionNanos;
+            return true;
+        }
+
+        // -1 kad nema svezeg uzorka
+        synchronized double latency(long now, long staleAfterNanos) {
+            return sampled && now - sampledAt < staleAfterNanos ? latencyNanos : -1;
+        }
+
+        synchronized double failureRate() {
+            return failureRate;
+        }
+
+        synchronized boolean ejected(long now) {
+            if (ejected && now - ejectedUntil >= 0) {
+                ejected = false;
+            }
+            return ejected;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package rs.pds.booking.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Lista instanci iz Eureka-e (iza LoadBalancer kesa) sa izmenama iz {@link RegistryOverlay}.
+ * Ide iznad kesa, pa se push izmena vidi na sledecem zahtevu, a ne tek kad kes istekne.
+ */
+public class OverlayServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final RegistryOverlay overlay;
+
+    public OverlayServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, RegistryOverlay overlay) {
+        super(delegate);
+        this.overlay = overlay;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(instances -> overlay.apply(getServiceId(), instances));
+    }
+}
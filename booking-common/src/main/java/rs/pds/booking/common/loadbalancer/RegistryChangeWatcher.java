@@ -0,0 +1,147 @@
+package rs.pds.booking.common.loadbalancer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Push izmena registra: long-poll na discovery-service GET /registry/changes, svaka izmena ide u {@link RegistryOverlay}.
+ * Nova instanca tako dobija zahteve cim se registruje, a odjavljena ispada odmah - bez cekanja na
+ * registry fetch (eureka.client.registry-fetch-interval-seconds) i LoadBalancer kes (spring.cloud.loadbalancer.cache.ttl).
+ * Posle reset-a (restart discovery-ja, propustene izmene) overlay se prazni i vazi samo Eureka lista.
+ * Bean (uz uslov registry-push.enabled) pravi RegistryPushConfig servisa.
+ */
+public class RegistryChangeWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistryChangeWatcher.class);
+
+    record Change(long seq, String type, String app, String instanceId, String host, int port, Map<String, String> metadata) {
+    }
+
+    record Changes(String epoch, long seq, boolean reset, List<Change> changes) {
+    }
+
+    private final RegistryOverlay overlay;
+    private final ObjectMapper objectMapper;
+    private final Duration wait;
+    private final Duration retryDelay;
+    private final URI changesUri;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private volatile boolean running;
+    private Thread thread;
+    private String epoch;
+    private long after = -1;
+
+    public RegistryChangeWatcher(RegistryOverlay overlay,
+                                 ObjectMapper objectMapper,
+                                 String url,
+                                 String defaultZone,
+                                 Duration wait,
+                                 Duration retryDelay) {
+        this.overlay = overlay;
+        this.objectMapper = objectMapper;
+        this.wait = wait;
+        this.retryDelay = retryDelay;
+        this.changesUri = URI.create(discoveryUrl(url, defaultZone) + "/registry/changes");
+    }
+
+    // prvi Eureka URL bez /eureka; registry-push.url servisa ima prednost
+    static String discoveryUrl(String url, String defaultZone) {
+        String base = url != null && !url.isBlank() ? url : defaultZone.split(",")[0].trim();
+        base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        return base.endsWith("/eureka") ? base.substring(0, base.length() - "/eureka".length()) : base;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "registry-push");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        boolean failing = false;
+        while (running) {
+            try {
+                apply(poll());
+                if (failing) {
+                    log.info("Push izmena registra ponovo radi ({})", changesUri);
+                    failing = false;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!failing) {
+                    log.warn("Push izmena registra nije dostupan ({}): {}; ponovo za {}", changesUri, e.toString(), retryDelay);
+                    failing = true;
+                }
+                sleep(retryDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Changes poll() throws IOException, InterruptedException {
+        long waitMs = wait.toMillis();
+        String query = "?after=" + after + "&waitMs=" + waitMs
+                + (epoch != null ? "&epoch=" + URLEncoder.encode(epoch, StandardCharsets.UTF_8) : "");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(changesUri + query))
+                .timeout(wait.plusSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        return objectMapper.readValue(response.body(), Changes.class);
+    }
+
+    void apply(Changes changes) {
+        if (changes.reset()) {
+            // propustene izmene: overlay bi mogao da drzi zastarelo stanje
+            overlay.clear();
+            log.info("Push izmena registra: reset (epoch {}), vazi samo Eureka lista", changes.epoch());
+        }
+        for (Change change : changes.changes()) {
+            if ("UP".equals(change.type()) && change.host() != null) {
+                overlay.up(change.app(), change.instanceId(), change.host(), change.port(),
+                        change.metadata() != null ? change.metadata() : Map.of());
+            } else {
+                overlay.down(change.app(), change.instanceId());
+            }
+            log.info("Registar: {} {} {}", change.app(), change.instanceId(), change.type());
+        }
+        epoch = changes.epoch();
+        after = changes.seq();
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package rs.pds.booking.common.loadbalancer;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Izmene registra primljene push-om (RegistryChangeWatcher), primenjene preko liste instanci iz Eureka fetch-a
+ * dok ta lista ne sustigne: nova UP instanca se dodaje odmah, odjavljena (DOWN) se odmah izbacuje.
+ * Svaka izmena vazi overlay-ttl, posle toga odlucuje samo Eureka lista.
+ * Bez push-a (registry-push.enabled=false u servisu) ostaje prazan i lista prolazi neizmenjena.
+ */
+public class RegistryOverlay {
+
+    // instance == null: instanca je DOWN / odjavljena
+    private record Entry(ServiceInstance instance, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    // app (velikim slovima, kao u Eureka-i) -> instanceId -> izmena
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Entry>> apps = new ConcurrentHashMap<>();
+
+    public RegistryOverlay(Duration overlayTtl) {
+        this(overlayTtl, System::nanoTime);
+    }
+
+    RegistryOverlay(Duration overlayTtl, LongSupplier nanoClock) {
+        this.ttlNanos = overlayTtl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void up(String app, String instanceId, String host, int port, Map<String, String> metadata) {
+        ServiceInstance instance = new DefaultServiceInstance(instanceId, app, host, port, false, metadata);
+        put(app, instanceId, instance);
+    }
+
+    public void down(String app, String instanceId) {
+        put(app, instanceId, null);
+    }
+
+    public void clear() {
+        apps.clear();
+    }
+
+    private void put(String app, String instanceId, ServiceInstance instance) {
+        apps.computeIfAbsent(app.toUpperCase(Locale.ROOT), a -> new ConcurrentHashMap<>())
+                .put(instanceId, new Entry(instance, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Eureka lista za serviceId sa primenjenim izmenama; bez izmena za taj servis vraca istu listu.
+     */
+    public List<ServiceInstance> apply(String serviceId, List<ServiceInstance> instances) {
+        Map<String, Entry> entries = apps.get(serviceId.toUpperCase(Locale.ROOT));
+        if (entries == null || entries.isEmpty()) {
+            return instances;
+        }
+        long now = nanoClock.getAsLong();
+        entries.values().removeIf(e -> now - e.expiresAt() >= 0);
+        if (entries.isEmpty()) {
+            return instances;
+        }
+
+        List<ServiceInstance> result = new ArrayList<>(instances.size() + entries.size());
+        for (ServiceInstance instance : instances) {
+            Entry entry = entries.get(instance.getInstanceId());
+            if (entry == null || entry.instance() != null) {
+                result.add(instance);
+            }
+        }
+        Set<String> present = instances.stream().map(ServiceInstance::getInstanceId).collect(Collectors.toSet());
+        entries.forEach((instanceId, entry) -> {
+            if (entry.instance() != null && !present.contains(instanceId)) {
+                result.add(entry.instance());
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package rs.pds.booking.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback TurboFilter (logback-spring.xml): budzet i uzorkovanje logova po kategoriji (prefiks imena logger-a).
+ * <ul>
+ *   <li>budgets "kategorija=max,..." - najvise max dogadjaja po intervalu; visak se odbacuje, a prvi dogadjaj
+ *   u sledecem intervalu povlaci jedan WARN sa brojem odbacenih (isti princip kao reject log na gateway-u)</li>
+ *   <li>samples "kategorija=N,..." - od dogadjaja ispod WARN prolazi svaki N-ti (npr. SQL kad se ukljuci DEBUG)</li>
+ * </ul>
+ * Vazi najduzi prefiks; resenje se pamti po logger-u. Pozivi ispod efektivnog nivoa (i isDebugEnabled())
+ * ne trose budzet. Broj odbacenih: {@link #droppedOverBudget()}, {@link #droppedBySampling()}.
+ */
+public class LogBudgetFilter extends TurboFilter {
+
+    static final String REPORT_LOGGER = "log.budget";
+
+    private static final AtomicLong DROPPED_OVER_BUDGET = new AtomicLong();
+    private static final AtomicLong DROPPED_BY_SAMPLING = new AtomicLong();
+
+    private final Map<String, Long> budgets = new LinkedHashMap<>();
+    private final Map<String, Long> samples = new LinkedHashMap<>();
+    private long intervalNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, Category> byLogger = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Category> categories = new ConcurrentHashMap<>();
+    private static final Category UNLIMITED = new Category("", 0, 0, 0);
+
+    public void setBudgets(String spec) {
+        budgets.putAll(parse(spec));
+    }
+
+    public void setSamples(String spec) {
+        samples.putAll(parse(spec));
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    public static long droppedOverBudget() {
+        return DROPPED_OVER_BUDGET.get();
+    }
+
+    public static long droppedBySampling() {
+        return DROPPED_BY_SAMPLING.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null: provera nivoa (isDebugEnabled), ne dogadjaj; ispod efektivnog nivoa se ionako ne loguje
+        if (format == null || !isStarted() || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Category category = byLogger.computeIfAbsent(logger.getName(), this::resolve);
+        return category == UNLIMITED || category.admit(level, logger.getLoggerContext()) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Category resolve(String loggerName) {
+        if (loggerName.equals(REPORT_LOGGER)) {
+            return UNLIMITED;
+        }
+        String budgetKey = longestPrefix(budgets, loggerName);
+        String sampleKey = longestPrefix(samples, loggerName);
+        if (budgetKey == null && sampleKey == null) {
+            return UNLIMITED;
+        }
+        // jedan Category po kategoriji (ne po logger-u), da budzet dele svi logger-i ispod prefiksa
+        String name = budgetKey != null ? budgetKey : sampleKey;
+        return categories.computeIfAbsent(name, n -> new Category(n,
+                budgetKey != null ? budgets.get(budgetKey) : 0,
+                sampleKey != null ? samples.get(sampleKey) : 0,
+                intervalNanos));
+    }
+
+    private static String longestPrefix(Map<String, Long> rules, String loggerName) {
+        String best = null;
+        for (String prefix : rules.keySet()) {
+            boolean matches = loggerName.equals(prefix) || loggerName.startsWith(prefix + ".");
+            if (matches && (best == null || prefix.length() > best.length())) {
+                best = prefix;
+            }
+        }
+        return best;
+    }
+
+    private static Map<String, Long> parse(String spec) {
+        Map<String, Long> rules = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Ocekivano kategorija=broj, dobijeno: " + entry.trim());
+            }
+            rules.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+        }
+        return rules;
+    }
+
+    private static final class Category {
+        final String name;
+        final long budget;
+        final long sampleEvery;
+        final long intervalNanos;
+
+        final AtomicLong windowEnd = new AtomicLong(System.nanoTime());
+        final AtomicLong used = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong seen = new AtomicLong();
+
+        Category(String name, long budget, long sampleEvery, long intervalNanos) {
+            this.name = name;
+            this.budget = budget;
+            this.sampleEvery = sampleEvery;
+            this.intervalNanos = intervalNanos;
+        }
+
+        boolean admit(Level level, LoggerContext context) {
+            if (sampleEvery > 1 && level.toInt() < Level.WARN_INT && seen.getAndIncrement() % sampleEvery != 0) {
+                DROPPED_BY_SAMPLING.incrementAndGet();
+                return false;
+            }
+            if (budget <= 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            long end = windowEnd.get();
+            if (now - end >= 0 && windowEnd.compareAndSet(end, now + intervalNanos)) {
+                used.set(0);
+                long over = dropped.getAndSet(0);
+                if (over > 0) {
+                    context.getLogger(REPORT_LOGGER).warn("[log-budget] {}: odbaceno {} dogadjaja preko budzeta od {} po {}ms",
+                            name, over, budget, TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+                }
+            }
+            if (used.incrementAndGet() > budget) {
+                dropped.incrementAndGet();
+                DROPPED_OVER_BUDGET.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+}
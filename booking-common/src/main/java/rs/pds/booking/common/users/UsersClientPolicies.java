@@ -0,0 +1,45 @@
+package rs.pds.booking.common.users;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.slf4j.Logger;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Deo UserGuard-a koji je isti u bookings-service-u (CompletableFuture) i bookings-reactive-service-u (Mono):
+ * ime Resilience4j instance, log retry-a i promene stanja CB-a, i sta klijent dobija kad poziv ne uspe.
+ * Same anotacije (Retry -> CircuitBreaker -> TimeLimiter -> Bulkhead) ostaju na metodama guard-a.
+ */
+public final class UsersClientPolicies {
+
+    public static final String USERS_CLIENT = "usersClient";
+
+    private UsersClientPolicies() {
+    }
+
+    public static void logEvents(RetryRegistry retryRegistry, CircuitBreakerRegistry cbRegistry, Logger log) {
+        retryRegistry.retry(USERS_CLIENT).getEventPublisher()
+                .onRetry(e -> log.warn("[RETRY][usersClient] attempt={} lastThrowable={}",
+                        e.getNumberOfRetryAttempts(),
+                        e.getLastThrowable() == null ? "n/a" : e.getLastThrowable().toString()));
+
+        cbRegistry.circuitBreaker(USERS_CLIENT).getEventPublisher()
+                .onStateTransition(e -> log.warn("[CB][usersClient] {} -> {}",
+                        e.getStateTransition().getFromState(), e.getStateTransition().getToState()));
+    }
+
+    // ResponseStatusException iz lanca prolazi kakav jeste; sve ostalo (timeout, pun bulkhead, otvoren CB,
+    // greska HTTP klijenta) -> 503
+    public static ResponseStatusException unavailable(Object userId, Throwable t, Logger log) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof ResponseStatusException rse) {
+            return rse;
+        }
+        log.warn("[usersGuard] userId={} users-service nije dostupan: {}", userId, cause.toString());
+        return new ResponseStatusException(SERVICE_UNAVAILABLE, "Users servis nije dostupan");
+    }
+}
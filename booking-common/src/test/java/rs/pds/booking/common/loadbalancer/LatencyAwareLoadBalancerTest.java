@@ -0,0 +1,136 @@
+package rs.pds.booking.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    final AtomicReference<String> zone = new AtomicReference<>();
+
+    final ServiceInstance fast = instance("fast", 8081, "a");
+    final ServiceInstance slow = instance("slow", 8082, "a");
+    final ServiceInstance remote = instance("remote", 8083, "b");
+
+    private LatencyAwareLoadBalancer balancer(ServiceInstance... instances) {
+        var settings = new LatencyAwareLoadBalancer.Settings(Duration.ofSeconds(10), 3, Duration.ofSeconds(10), true);
+        return new LatencyAwareLoadBalancer("users-service",
+                ServiceInstanceListSuppliers.toProvider("users-service", instances), zone::get, settings, clock::get);
+    }
+
+    private static ServiceInstance instance(String id, int port, String zone) {
+        var instance = new DefaultServiceInstance(id, "users-service", "localhost", port, false);
+        instance.getMetadata().put("zone", zone);
+        return instance;
+    }
+
+    private ServiceInstance choose(LatencyAwareLoadBalancer balancer) {
+        return balancer.choose(new DefaultRequest<>()).block().getServer();
+    }
+
+    // jedan zahtev kroz lifecycle kao u ReactiveLoadBalancerClientFilter-u: start, odgovor posle latency, status
+    private void call(LatencyAwareLoadBalancer balancer, ServiceInstance instance, Duration latency, HttpStatusCode status) {
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext(
+                new RequestData(HttpMethod.GET, URI.create("http://users-service/users/1"), new HttpHeaders(), null, new HashMap<>())));
+        Response<ServiceInstance> lbResponse = new DefaultResponse(instance);
+        balancer.onStartRequest(request, lbResponse);
+        clock.addAndGet(latency.toNanos());
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse,
+                new ResponseData(status, new HttpHeaders(), null, request.getContext().getClientRequest())));
+    }
+
+    private Map<String, Integer> distribution(LatencyAwareLoadBalancer balancer, int requests) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            counts.merge(choose(balancer).getInstanceId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void slowInstance_getsOnlyOccasionalProbeAfterBeingSampled() {
+        var balancer = balancer(fast, slow);
+        call(balancer, fast, Duration.ofMillis(2), HttpStatus.OK);
+        call(balancer, slow, Duration.ofMillis(100), HttpStatus.OK);
+
+        assertThat(distribution(balancer, 200)).containsEntry("fast", 200);
+
+        // posle decay-a bez uzorka spora instanca dobija prosecnu procenu i opet se proba
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        call(balancer, fast, Duration.ofMillis(2), HttpStatus.OK);
+        assertThat(distribution(balancer, 200)).containsKey("slow");
+    }
+
+    @Test
+    void inflightRequests_spillOverToSlowerInstance() {
+        var balancer = balancer(fast, slow);
+        call(balancer, fast, Duration.ofMillis(10), HttpStatus.OK);
+        call(balancer, slow, Duration.ofMillis(30), HttpStatus.OK);
+
+        // brza instanca sa 3+ zahteva u toku je "skuplja" od spore bez ijednog
+        Request<RequestDataContext> pending = new DefaultRequest<>();
+        for (int i = 0; i < 3; i++) {
+            balancer.onStartRequest(pending, new DefaultResponse(fast));
+        }
+        assertThat(choose(balancer)).isEqualTo(slow);
+    }
+
+    @Test
+    void consecutiveFailures_ejectInstanceUntilEjectionExpires() {
+        var balancer = balancer(fast, slow);
+        for (int i = 0; i < 3; i++) {
+            call(balancer, fast, Duration.ofMillis(1), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(balancer.isEjected(fast)).isTrue();
+        assertThat(distribution(balancer, 50)).containsOnlyKeys("slow");
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertThat(balancer.isEjected(fast)).isFalse();
+    }
+
+    @Test
+    void zoneAffinity_prefersLocalZoneWhileItHasHealthyInstance() {
+        zone.set("b");
+        var balancer = balancer(fast, remote);
+        // lokalna (b) je sporija, ali je zona jaca od latencije
+        call(balancer, fast, Duration.ofMillis(2), HttpStatus.OK);
+        call(balancer, remote, Duration.ofMillis(50), HttpStatus.OK);
+        assertThat(distribution(balancer, 50)).containsOnlyKeys("remote");
+
+        for (int i = 0; i < 3; i++) {
+            call(balancer, remote, Duration.ofMillis(1), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        assertThat(distribution(balancer, 50)).containsOnlyKeys("fast");
+    }
+
+    @Test
+    void noInstances_returnsEmptyResponse() {
+        var balancer = balancer();
+        assertThat(balancer.choose(new DefaultRequest<>()).block().hasServer()).isFalse();
+        assertThat(balancer.choose(List.of()).hasServer()).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package rs.pds.booking.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistryOverlayTest {
+
+    final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    final RegistryOverlay overlay = new RegistryOverlay(Duration.ofSeconds(30), clock::get);
+
+    final ServiceInstance a = new DefaultServiceInstance("localhost:users-service:8081", "USERS-SERVICE", "localhost", 8081, false);
+    final ServiceInstance b = new DefaultServiceInstance("localhost:users-service:8082", "USERS-SERVICE", "localhost", 8082, false);
+
+    private List<String> ids(List<ServiceInstance> instances) {
+        return instances.stream().map(ServiceInstance::getInstanceId).toList();
+    }
+
+    @Test
+    void pushedChanges_applyOverStaleEurekaList() {
+        overlay.up("USERS-SERVICE", "localhost:users-service:8083", "localhost", 8083, Map.of("zone", "a"));
+        overlay.down("USERS-SERVICE", b.getInstanceId());
+
+        // Eureka (kes) jos ne zna za 8083 i jos vraca 8082
+        var supplier = new OverlayServiceInstanceListSupplier(
+                ServiceInstanceListSuppliers.from("users-service", a, b), overlay);
+        List<ServiceInstance> instances = supplier.get().blockFirst();
+
+        assertThat(ids(instances)).containsExactly("localhost:users-service:8081", "localhost:users-service:8083");
+        assertThat(instances.get(1).getPort()).isEqualTo(8083);
+        assertThat(instances.get(1).getMetadata()).containsEntry("zone", "a");
+    }
+
+    @Test
+    void changes_expireAfterTtl_thenEurekaListWins() {
+        overlay.down("USERS-SERVICE", b.getInstanceId());
+        assertThat(ids(overlay.apply("users-service", List.of(a, b)))).containsExactly(a.getInstanceId());
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(overlay.apply("users-service", List.of(a, b))).containsExactly(a, b);
+    }
+
+    @Test
+    void reset_clearsOverlay() {
+        var watcher = new RegistryChangeWatcher(overlay, null, null, "http://localhost:8761/eureka",
+                Duration.ofSeconds(30), Duration.ofSeconds(5));
+        watcher.apply(new RegistryChangeWatcher.Changes("e1", 2, false, List.of(
+                new RegistryChangeWatcher.Change(1, "UP", "USERS-SERVICE", "localhost:users-service:8083", "localhost", 8083, null),
+                new RegistryChangeWatcher.Change(2, "DOWN", "USERS-SERVICE", a.getInstanceId(), null, 0, Map.of()))));
+        assertThat(ids(overlay.apply("USERS-SERVICE", List.of(a, b))))
+                .containsExactly(b.getInstanceId(), "localhost:users-service:8083");
+
+        watcher.apply(new RegistryChangeWatcher.Changes("e2", 0, true, List.of()));
+        assertThat(overlay.apply("USERS-SERVICE", List.of(a, b))).containsExactly(a, b);
+    }
+
+    @Test
+    void discoveryUrl_fromEurekaDefaultZone() {
+        assertThat(RegistryChangeWatcher.discoveryUrl(null, "http://discovery-service:8761/eureka/"))
+                .isEqualTo("http://discovery-service:8761");
+        assertThat(RegistryChangeWatcher.discoveryUrl("", "http://d1:8761/eureka,http://d2:8761/eureka"))
+                .isEqualTo("http://d1:8761");
+        assertThat(RegistryChangeWatcher.discoveryUrl("http://registry:9000", "http://d1:8761/eureka"))
+                .isEqualTo("http://registry:9000");
+    }
+}
@@ -0,0 +1,83 @@
+package rs.pds.booking.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogBudgetFilterTest {
+
+    LoggerContext context = new LoggerContext();
+    ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    LogBudgetFilter filter = new LogBudgetFilter();
+
+    @BeforeEach
+    void setUp() {
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+
+        filter.setContext(context);
+        filter.setBudgets("rs.pds.booking.bookings.service=3");
+        filter.setSamples("org.hibernate.SQL=10");
+        filter.setIntervalMillis(200);
+        filter.start();
+        context.addTurboFilter(filter);
+    }
+
+    @Test
+    void overBudget_dropsRestOfWindowAndReportsCountInNextWindow() throws InterruptedException {
+        // dva logger-a ispod iste kategorije dele budzet
+        Logger guard = context.getLogger("rs.pds.booking.bookings.service.UserGuard");
+        Logger bookings = context.getLogger("rs.pds.booking.bookings.service.BookingService");
+        long droppedBefore = LogBudgetFilter.droppedOverBudget();
+
+        for (int i = 0; i < 5; i++) {
+            guard.warn("fallback {}", i);
+            bookings.warn("details bez user-a {}", i);
+        }
+        assertThat(appender.list).hasSize(3);
+        assertThat(LogBudgetFilter.droppedOverBudget() - droppedBefore).isEqualTo(7);
+
+        Thread.sleep(250);
+        guard.warn("fallback posle");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).endsWith(
+                "[log-budget] rs.pds.booking.bookings.service: odbaceno 7 dogadjaja preko budzeta od 3 po 200ms",
+                "fallback posle");
+    }
+
+    @Test
+    void sampledCategory_passesEveryNthBelowWarn() {
+        Logger sql = context.getLogger("org.hibernate.SQL");
+        sql.setLevel(Level.DEBUG);
+
+        for (int i = 0; i < 30; i++) {
+            sql.debug("select {}", i);
+        }
+        sql.warn("sporo");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("select 0", "select 10", "select 20", "sporo");
+    }
+
+    @Test
+    void levelChecksAndOtherCategories_areNotCounted() {
+        Logger guard = context.getLogger("rs.pds.booking.bookings.service.UserGuard");
+        guard.setLevel(Level.INFO);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(guard.isDebugEnabled()).isFalse();
+            guard.debug("ispod nivoa");
+            context.getLogger("rs.pds.booking.bookings.controller.BookingController").info("van kategorije {}", i);
+        }
+        guard.warn("prvi u budzetu");
+
+        assertThat(appender.list).hasSize(11);
+    }
+}
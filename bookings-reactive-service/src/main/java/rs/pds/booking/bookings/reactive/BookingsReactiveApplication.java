@@ -0,0 +1,11 @@
+package rs.pds.booking.bookings.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class BookingsReactiveApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(BookingsReactiveApplication.class, args);
+    }
+}
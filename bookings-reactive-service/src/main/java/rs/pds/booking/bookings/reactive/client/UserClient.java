@@ -0,0 +1,40 @@
+package rs.pds.booking.bookings.reactive.client;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Collection;
+import java.util.Optional;
+
+// neblokirajuci users-service klijent; nit se ne drzi dok se ceka odgovor
+@Component
+public class UserClient {
+
+    private final WebClient webClient;
+
+    public UserClient(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.webClient = loadBalancedWebClientBuilder.baseUrl("http://users-service/users").build();
+    }
+
+    // GET /users/{id}; 404 je regularan odgovor -> Optional.empty()
+    public Mono<Optional<UserSummary>> getById(Long id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(UserSummary.class)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()));
+    }
+
+    // GET /users?ids=1&ids=2 - vraca samo postojece user-e
+    public Flux<UserSummary> getByIds(Collection<Long> ids) {
+        return webClient.get()
+                .uri(uri -> uri.queryParam("ids", ids.toArray()).build())
+                .retrieve()
+                .bodyToFlux(UserSummary.class);
+    }
+}
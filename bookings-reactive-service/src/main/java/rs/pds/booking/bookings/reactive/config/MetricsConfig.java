@@ -0,0 +1,24 @@
+package rs.pds.booking.bookings.reactive.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.pds.booking.common.logging.LogBudgetFilter;
+
+@Configuration
+public class MetricsConfig {
+
+    // dogadjaji koje je LogBudgetFilter (logback-spring.xml) odbacio: preko budzeta ili uzorkovanjem
+    @Bean
+    public MeterBinder logBudgetMetrics() {
+        return registry -> {
+            FunctionCounter.builder("logging.budget.dropped", LogBudgetFilter.class, c -> LogBudgetFilter.droppedOverBudget())
+                    .tag("reason", "budget")
+                    .register(registry);
+            FunctionCounter.builder("logging.budget.dropped", LogBudgetFilter.class, c -> LogBudgetFilter.droppedBySampling())
+                    .tag("reason", "sample")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package rs.pds.booking.bookings.reactive.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * r2dbc-h2 nije pravi neblokirajuci drajver: H2 je ugradjen, pa upit, commit i close rade sinhrono na niti
+ * koja se pretplatila - bez ovoga na Netty event loop-u. Dok jedan upit radi (ili ceka lock reda u H2),
+ * event loop ne prima nove zahteve ni odgovore sa users-service-a, pa na 1000 konekcija p99 ide u desetine sekundi.
+ * Zato se sve posle dobijanja konekcije iz pool-a prebacuje na poseban scheduler "r2dbc-h2"
+ * (po jedna nit na konekciju pool-a); event loop ostaje samo za HTTP. Sa mreznim drajverom (npr. r2dbc-postgresql)
+ * ovo ne bi trebalo.
+ */
+@Configuration
+public class R2dbcSchedulerConfig {
+
+    // static: BeanPostProcessor se pravi pre ostalih bean-ova ove konfiguracije
+    @Bean
+    static BeanPostProcessor r2dbcOffPoolThreads(Environment environment) {
+        int threads = environment.getProperty("spring.r2dbc.pool.max-size", Integer.class, 10);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof OffloadingConnectionFactory)) {
+                    return new OffloadingConnectionFactory(connectionFactory,
+                            Schedulers.newBoundedElastic(threads, Integer.MAX_VALUE, "r2dbc-h2"));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Konekcija se predaje na scheduler-u, pa Spring Data (DatabaseClient, R2dbcTransactionManager) ceo posao nad njom
+     * radi tu. Wrapped: actuator i dalje nalazi ConnectionPool za r2dbc.pool.* metrike.
+     * dispose (destroyMethod bean-a iz Boot-a): pool pa scheduler.
+     */
+    static final class OffloadingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+        private final ConnectionFactory delegate;
+        private final Scheduler scheduler;
+
+        OffloadingConnectionFactory(ConnectionFactory delegate, Scheduler scheduler) {
+            this.delegate = delegate;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.from(delegate.create()).publishOn(scheduler);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return delegate;
+        }
+
+        @Override
+        public void dispose() {
+            if (delegate instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+            scheduler.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return scheduler.isDisposed();
+        }
+    }
+}
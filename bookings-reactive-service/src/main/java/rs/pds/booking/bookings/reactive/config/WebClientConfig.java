@@ -0,0 +1,41 @@
+package rs.pds.booking.bookings.reactive.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+// WebClient sa Eureka load balancing-om (http://users-service/...); timeout-i kao Feign u bookings-service-u
+@Configuration
+public class WebClientConfig {
+
+    // kao HC5 pool ispod Feign-a: najvise maxConnections ka users-service-u, na slobodnu konekciju se ceka
+    // najvise 1s; podrazumevani Reactor Netty pool (16 konekcija, red od 32) bi vec na par stotina
+    // istovremenih lookup-a odbijao zahteve pre nego sto stignu do users-service-a
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider usersConnectionProvider(@Value("${users.client.max-connections:100}") int maxConnections) {
+        return ConnectionProvider.builder("users-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(ConnectionProvider usersConnectionProvider,
+                                                          @Value("${users.client.connect-timeout:2s}") Duration connectTimeout,
+                                                          @Value("${users.client.read-timeout:3s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(usersConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
@@ -0,0 +1,245 @@
+package rs.pds.booking.bookings.reactive.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+import rs.pds.booking.bookings.reactive.repository.BookingRepository;
+import rs.pds.booking.bookings.reactive.service.BookingImportService;
+import rs.pds.booking.bookings.reactive.service.BookingService;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.TimeSlot;
+import rs.pds.booking.common.web.KeysetCursor;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+// isti REST ugovor kao BookingController u bookings-service-u; nijedan handler ne blokira nit event loop-a
+@RestController
+@RequestMapping("/bookings")
+public class BookingController {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final BookingImportService importService;
+
+    public BookingController(BookingRepository bookingRepository,
+                             BookingService bookingService,
+                             BookingImportService importService) {
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.importService = importService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BookingResponse>> createOrUpdate(@Valid @RequestBody BookingRequest input,
+                                                                UriComponentsBuilder uriBuilder) {
+        LocalDateTime start = input.getStart();
+        LocalDateTime end = start.plusDays(7);
+
+        return bookingService.ensureUserExists(input.getUserId())
+                .then(bookingRepository.findByUserIdAndResourceName(input.getUserId(), input.getResourceName()))
+                .flatMap(existing -> {
+                    existing.setStart(start);
+                    existing.setEnd(end);
+                    existing.setPrice(input.getPrice());
+                    return bookingService.reserve(existing, false)
+                            .map(updated -> ResponseEntity.ok().eTag(etagOf(updated)).body(toResponse(updated)));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    Booking booking = new Booking();
+                    booking.setStart(start);
+                    booking.setEnd(end);
+                    booking.setUserId(input.getUserId());
+                    booking.setResourceName(input.getResourceName());
+                    booking.setPrice(input.getPrice());
+                    return bookingService.reserve(booking, false).map(saved -> {
+                        URI location = uriBuilder.path("/bookings/{id}").buildAndExpand(saved.getId()).toUri();
+                        return ResponseEntity.created(location).eTag(etagOf(saved)).body(toResponse(saved));
+                    });
+                }));
+    }
+
+    // POST /bookings/bulk - JSON niz ili NDJSON (jedan red po liniji); oba se dekodiraju u toku, red po red
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BulkBookingResponse>> bulk(@RequestBody Flux<BookingRequest> input) {
+        return importService.importAll(input)
+                .map(ResponseEntity::ok)
+                .onErrorMap(DecodingException.class,
+                        e -> new ResponseStatusException(BAD_REQUEST, "Neispravan JSON / NDJSON: " + e.getMessage()));
+    }
+
+    // GET /bookings/{id} -> ETag = verzija; If-None-Match koji se poklapa -> 304 bez tela
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookingResponse>> get(@PathVariable("id") Long id, ServerWebExchange exchange) {
+        return bookingService.findById(id)
+                .flatMap(b -> bookingService.ensureUserExists(b.getUserId()).thenReturn(b))
+                .map(b -> {
+                    String etag = etagOf(b);
+                    if (exchange.checkNotModified(etag)) {
+                        return ResponseEntity.status(NOT_MODIFIED).eTag(etag).<BookingResponse>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(toResponse(b));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // GET /bookings/availability?resource=X&from=..&to=.. -> slobodni prozori (upit po idx_bookings_resource_time)
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<List<TimeSlot>>> availability(@RequestParam("resource") String resource,
+                                                             @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Mono.error(new ResponseStatusException(BAD_REQUEST, "'from' mora biti pre 'to'"));
+        }
+        return bookingRepository.findInRange(resource, from, to)
+                .collectList()
+                .map(taken -> ResponseEntity.ok(freeSlots(taken, from, to)));
+    }
+
+    // GET /bookings/{id}/details
+    @GetMapping("/{id}/details")
+    public Mono<ResponseEntity<BookingDetails>> details(@PathVariable("id") Long id) {
+        return bookingService.getDetails(id).map(ResponseEntity::ok);
+    }
+
+    // GET /bookings?cursor=&limit=&userId=&resource= -> jedna keyset stranica (po id-ju)
+    // sledeca stranica: X-Next-Cursor header / Link rel="next"
+    @GetMapping
+    public Mono<ResponseEntity<List<BookingResponse>>> getAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                              @RequestParam(value = "userId", required = false) Long userId,
+                                                              @RequestParam(value = "resource", required = false) String resource,
+                                                              UriComponentsBuilder uriBuilder) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return bookingRepository.findPage(KeysetCursor.decode(cursor), userId, resource, size + 1)
+                .map(BookingController::toResponse)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    var out = hasNext ? rows.subList(0, size) : rows;
+
+                    var response = ResponseEntity.ok();
+                    if (hasNext) {
+                        String next = KeysetCursor.encode(out.get(size - 1).getId());
+                        URI nextUri = uriBuilder.path("/bookings")
+                                .queryParam("cursor", next)
+                                .queryParam("limit", size)
+                                .queryParamIfPresent("userId", Optional.ofNullable(userId))
+                                .queryParamIfPresent("resource", Optional.ofNullable(resource))
+                                .encode()
+                                .build()
+                                .toUri();
+                        response.header(KeysetCursor.NEXT_CURSOR_HEADER, next)
+                                .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+                    }
+                    return response.body(out);
+                });
+    }
+
+    // GET /bookings, Accept: application/x-ndjson -> cela tabela, red po red; sporiji klijent usporava i citanje iz baze
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingResponse> stream(@RequestParam(value = "userId", required = false) Long userId,
+                                        @RequestParam(value = "resource", required = false) String resource) {
+        return bookingRepository.streamAll(userId, resource).map(BookingController::toResponse);
+    }
+
+    // PUT /bookings/{id}
+    @PutMapping("/{id}")
+    // If-Match: "<verzija>" -> izmena samo ako niko nije menjao booking u medjuvremenu, inace 412
+    public Mono<ResponseEntity<BookingResponse>> update(@PathVariable("id") Long id,
+                                                        @Valid @RequestBody BookingRequest input,
+                                                        ServerWebExchange exchange) {
+        boolean conditional = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_MATCH) != null;
+        LocalDateTime start = input.getStart();
+        return bookingRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji")))
+                .doOnNext(existing -> checkIfMatch(existing, exchange))
+                .flatMap(existing -> bookingService.ensureUserExists(input.getUserId()).thenReturn(existing))
+                .flatMap(existing -> {
+                    existing.setUserId(input.getUserId());
+                    existing.setResourceName(input.getResourceName());
+                    existing.setPrice(input.getPrice());
+                    existing.setStart(start);
+                    existing.setEnd(start.plusDays(7));
+                    return bookingService.reserve(existing, conditional);
+                })
+                .map(updated -> ResponseEntity.ok().eTag(etagOf(updated)).body(toResponse(updated)));
+    }
+
+    // DELETE /bookings/{id}
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable("id") Long id, ServerWebExchange exchange) {
+        return bookingRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji")))
+                .doOnNext(existing -> checkIfMatch(existing, exchange))
+                .flatMap(existing -> bookingService.ensureUserExists(existing.getUserId())
+                        .then(bookingService.delete(existing)))
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    // jak ETag: verzija se menja na svakoj izmeni booking-a, a BookingResponse zavisi samo od booking-a
+    static String etagOf(Booking b) {
+        return "\"" + b.getVersion() + "\"";
+    }
+
+    // If-Match koji se ne poklapa sa trenutnom verzijom -> 412 (checkNotModified radi i proveru preduslova)
+    private static void checkIfMatch(Booking current, ServerWebExchange exchange) {
+        if (exchange.checkNotModified(etagOf(current))) {
+            throw new ResponseStatusException(PRECONDITION_FAILED, "Booking je izmenjen u medjuvremenu (ETag se ne poklapa)");
+        }
+    }
+
+    // slobodni prozori u [from, to) iz termina sortiranih po pocetku
+    static List<TimeSlot> freeSlots(List<Booking> taken, LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Booking b : taken) {
+            if (b.getStart().isAfter(cursor)) {
+                free.add(new TimeSlot(cursor, b.getStart()));
+            }
+            if (b.getEnd().isAfter(cursor)) {
+                cursor = b.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return free;
+    }
+
+    // helper
+    private static BookingResponse toResponse(Booking b) {
+        return new BookingResponse(
+                b.getId(),
+                b.getUserId(),
+                b.getResourceName(),
+                b.getStart(),
+                b.getEnd(),
+                b.getPrice()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package rs.pds.booking.bookings.reactive.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.pds.booking.bookings.reactive.service.UserLookupService;
+
+// interni endpoint (nije izlozen kroz gateway) - users-service javlja kad se user promeni
+@RestController
+@RequestMapping("/internal/users")
+public class UserCacheController {
+
+    private final UserLookupService userLookupService;
+
+    public UserCacheController(UserLookupService userLookupService) {
+        this.userLookupService = userLookupService;
+    }
+
+    // DELETE /internal/users/{id}/cache -> 204
+    @DeleteMapping("/{id}/cache")
+    public ResponseEntity<Void> evict(@PathVariable("id") Long id) {
+        userLookupService.evict(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,78 @@
+package rs.pds.booking.bookings.reactive.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// ista tabela kao JPA entitet u bookings-service-u; validacija je na BookingRequest-u
+@Table("bookings")
+public class Booking {
+
+    @Id
+    private Long id;
+
+    private Long userId;
+
+    private String resourceName;
+
+    @Column("start_time")
+    private LocalDateTime start;
+
+    @Column("end_time")
+    private LocalDateTime end;
+
+    private BigDecimal price;
+
+    // optimisticko zakljucavanje (UPDATE ... WHERE version = ?); ujedno i ETag resursa
+    @Version
+    private Long version;
+
+    //getter-i
+    public Long getId() {
+        return id;
+    }
+    public Long getUserId() {
+        return userId;
+    }
+    public String getResourceName() {
+        return resourceName;
+    }
+    public LocalDateTime getStart() {
+        return start;
+    }
+    public LocalDateTime getEnd() {
+        return end;
+    }
+    public BigDecimal getPrice() {
+        return price;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    //setter-i
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    public void setResourceName(String resourceName) {
+        this.resourceName = resourceName;
+    }
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,14 @@
+package rs.pds.booking.bookings.reactive.repository;
+
+import reactor.core.publisher.Flux;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+
+// upiti sa opcionim filterima: u SQL ulaze samo zadati filteri, da bi baza mogla da koristi indekse
+public interface BookingQueries {
+
+    // keyset stranica: id > afterId, sortirano po id-ju
+    Flux<Booking> findPage(long afterId, Long userId, String resource, int limit);
+
+    // cela tabela (uz filtere) red po red; brzina citanja prati demand pretplatnika (backpressure)
+    Flux<Booking> streamAll(Long userId, String resource);
+}
@@ -0,0 +1,42 @@
+package rs.pds.booking.bookings.reactive.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+
+class BookingQueriesImpl implements BookingQueries {
+
+    private final R2dbcEntityTemplate template;
+
+    BookingQueriesImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public Flux<Booking> findPage(long afterId, Long userId, String resource, int limit) {
+        Criteria where = filters(Criteria.where("id").greaterThan(afterId), userId, resource);
+        return template.select(Booking.class)
+                .matching(Query.query(where).sort(Sort.by("id")).limit(limit))
+                .all();
+    }
+
+    @Override
+    public Flux<Booking> streamAll(Long userId, String resource) {
+        return template.select(Booking.class)
+                .matching(Query.query(filters(Criteria.empty(), userId, resource)).sort(Sort.by("id")))
+                .all();
+    }
+
+    private static Criteria filters(Criteria where, Long userId, String resource) {
+        if (userId != null) {
+            where = where.and("userId").is(userId);
+        }
+        if (resource != null) {
+            where = where.and("resourceName").is(resource);
+        }
+        return where;
+    }
+}
@@ -0,0 +1,38 @@
+package rs.pds.booking.bookings.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface BookingRepository extends ReactiveCrudRepository<Booking, Long>, BookingQueries {
+
+    Mono<Booking> findByUserIdAndResourceName(Long userId, String resourceName);
+
+    // bulk import: postojeci booking-zi za vise korisnika jednim upitom (idx_bookings_user_resource)
+    Flux<Booking> findByUserIdIn(Collection<Long> userIds);
+
+    // prvi termin resursa (osim excludeId) koji se sece sa [start, end) - idx_bookings_resource_time
+    @Query("""
+            SELECT * FROM bookings
+            WHERE resource_name = :resource AND start_time < :end AND end_time > :start AND id <> :excludeId
+            LIMIT 1""")
+    Mono<Booking> findFirstOverlap(@Param("resource") String resource,
+                                   @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end,
+                                   @Param("excludeId") long excludeId);
+
+    // termini resursa koji se seku sa [from, to), po pocetku (za slobodne prozore)
+    @Query("""
+            SELECT * FROM bookings
+            WHERE resource_name = :resource AND start_time < :to AND end_time > :from
+            ORDER BY start_time""")
+    Flux<Booking> findInRange(@Param("resource") String resource,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+}
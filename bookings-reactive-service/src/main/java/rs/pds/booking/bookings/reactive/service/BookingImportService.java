@@ -0,0 +1,126 @@
+package rs.pds.booking.bookings.reactive.service;
+
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+import rs.pds.booking.bookings.reactive.repository.BookingRepository;
+import rs.pds.booking.common.bulk.BulkImportState;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResult;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import booking-a: ulaz je Flux (JSON niz ili NDJSON se dekodira u toku), redovi se obradjuju
+ * u blokovima od CHUNK_SIZE. Po bloku: jedan users-service poziv (kroz {@link UserGuard}) za nove userId-eve
+ * i jedan upit za postojece booking-e; upisi idu red po red kroz {@link BookingService#reserve} (R2DBC nema JDBC batch).
+ * Semantika reda je ista kao POST /bookings (upsert po userId + resourceName, trajanje 7 dana).
+ * Greska (users-service, baza) ne prekida import: redovi koji nisu upisani dobijaju FAILED, ostali idu dalje.
+ */
+@Service
+public class BookingImportService {
+
+    // users-service prima najvise 500 id-jeva po pozivu, pa blok od 500 redova staje u jedan poziv
+    static final int CHUNK_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(BookingImportService.class);
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final UserGuard userGuard;
+    private final Validator validator;
+
+    public BookingImportService(BookingRepository bookingRepository,
+                                BookingService bookingService,
+                                UserGuard userGuard,
+                                Validator validator) {
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.userGuard = userGuard;
+        this.validator = validator;
+    }
+
+    public Mono<BulkBookingResponse> importAll(Flux<BookingRequest> rows) {
+        var state = new BulkImportState(validator);
+        return rows.buffer(CHUNK_SIZE)
+                .index()
+                .concatMap(chunk -> importChunk((int) (chunk.getT1() * CHUNK_SIZE), chunk.getT2(), state))
+                .collect(BulkBookingResponse::new, BulkBookingResponse::add);
+    }
+
+    private Flux<BulkBookingResult> importChunk(int firstIndex, List<BookingRequest> chunk, BulkImportState state) {
+        BulkBookingResult[] results = new BulkBookingResult[chunk.size()];
+
+        // 1) validacija i duplikati u okviru importa
+        List<Integer> valid = state.screen(firstIndex, chunk, results);
+
+        // 2) svi novi userId-evi iz bloka jednim pozivom
+        Set<Long> unknown = state.uncheckedUserIds(chunk, valid);
+
+        return fetchExistingUserIds(unknown)
+                .flatMapMany(found -> {
+                    found.ifPresent(existing -> state.usersChecked(unknown, existing));
+                    List<Integer> candidatesAt = state.withExistingUser(firstIndex, chunk, valid, results);
+                    Set<Long> userIds = candidatesAt.stream().map(i -> chunk.get(i).getUserId()).collect(Collectors.toSet());
+
+                    // 3) postojeci booking-zi za upsert jednim upitom, pa 4) upis red po red (provera termina po resursu)
+                    return existingByKey(userIds)
+                            .flatMapMany(existing -> Flux.fromIterable(candidatesAt)
+                                    .concatMap(i -> upsert(firstIndex + i, chunk.get(i), existing)
+                                            .doOnNext(result -> results[i] = result)))
+                            .thenMany(Flux.fromArray(results));
+                });
+    }
+
+    private Mono<BulkBookingResult> upsert(int index, BookingRequest row, Map<String, Booking> existing) {
+        Booking b = existing.get(BulkImportState.key(row.getUserId(), row.getResourceName()));
+        boolean update = b != null;
+        if (!update) {
+            b = new Booking();
+            b.setUserId(row.getUserId());
+            b.setResourceName(row.getResourceName());
+        }
+        b.setStart(row.getStart());
+        b.setEnd(row.getStart().plusDays(7));
+        b.setPrice(row.getPrice());
+        return bookingService.reserve(b, false)
+                .map(saved -> new BulkBookingResult(index,
+                        update ? BulkBookingResult.Status.UPDATED : BulkBookingResult.Status.CREATED, saved.getId(), null))
+                .onErrorResume(ResponseStatusException.class, e -> Mono.just(BulkBookingResult.rejected(index, e.getReason())))
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("Bulk import: upis reda {} nije uspeo: {}", index, e.toString());
+                    return Mono.just(BulkBookingResult.failed(index, "Upis nije uspeo, red nije upisan"));
+                });
+    }
+
+    private Mono<Map<String, Booking>> existingByKey(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return bookingRepository.findByUserIdIn(userIds)
+                .collectMap(b -> BulkImportState.key(b.getUserId(), b.getResourceName()), Function.identity());
+    }
+
+    // empty = users-service nedostupan (fallback UserGuard-a je vec logovao); redovi tih user-a dobijaju FAILED
+    private Mono<Optional<Set<Long>>> fetchExistingUserIds(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.just(Optional.of(Set.of()));
+        }
+        return userGuard.loadAll(userIds)
+                .map(users -> Optional.of(users.stream().map(UserSummary::getId).collect(Collectors.toSet())))
+                .onErrorResume(ResponseStatusException.class, e -> Mono.just(Optional.empty()));
+    }
+}
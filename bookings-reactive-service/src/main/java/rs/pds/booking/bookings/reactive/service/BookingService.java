@@ -0,0 +1,105 @@
+package rs.pds.booking.bookings.reactive.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.bookings.reactive.domain.Booking;
+import rs.pds.booking.bookings.reactive.repository.BookingRepository;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+@Service
+public class BookingService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingService.class);
+
+    static final String DETAILS_TIMER = "bookings.details";
+
+    private final BookingRepository bookingRepository;
+    private final UserLookupService userLookupService;
+    private final ResourceWriteQueue writes = new ResourceWriteQueue();
+    private final Timer totalStage;
+
+    public BookingService(BookingRepository bookingRepository,
+                          UserLookupService userLookupService,
+                          MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.userLookupService = userLookupService;
+        this.totalStage = Timer.builder(DETAILS_TIMER)
+                .description("Trajanje faza GET /bookings/{id}/details")
+                .tag("stage", "total")
+                .register(meterRegistry);
+    }
+
+    public Mono<Booking> findById(Long bookingId) {
+        return bookingRepository.findById(bookingId);
+    }
+
+    // kes + UserGuard (retry, circuit breaker, bulkhead, time limiter); nedostupan users-service -> 503
+    public Mono<Void> ensureUserExists(Long userId) {
+        return userLookupService.findById(userId)
+                .flatMap(user -> user.isPresent()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ResponseStatusException(NOT_FOUND, "User ne postoji")));
+    }
+
+    /**
+     * Jedno citanje booking-a i jedan user lookup. Ako users-service nije dostupan,
+     * detalji se vracaju sa placeholder user-om (kao u bookings-service-u).
+     */
+    public Mono<BookingDetails> getDetails(Long bookingId) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return bookingRepository.findById(bookingId)
+                    .switchIfEmpty(Mono.error(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji")))
+                    .flatMap(b -> userLookupService.findById(b.getUserId())
+                            .map(user -> toDetails(b, user.orElseThrow(
+                                    () -> new ResponseStatusException(NOT_FOUND, "User ne postoji"))))
+                            .onErrorResume(e -> degraded(b, e)))
+                    .doFinally(s -> totalStage.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Provera preklapanja [start, end) i save, serijalizovano po resursu. Stari termin istog booking-a
+     * se ne racuna kao konflikt. Preklapanje -> 409; trka sa drugim upisom istog booking-a -> 412 (If-Match) / 409.
+     */
+    public Mono<Booking> reserve(Booking booking, boolean conditional) {
+        String resource = booking.getResourceName();
+        long excludeId = booking.getId() == null ? -1L : booking.getId();
+        return writes.run(resource, () -> bookingRepository
+                        .findFirstOverlap(resource, booking.getStart(), booking.getEnd(), excludeId)
+                        .flatMap(conflict -> Mono.<Booking>error(new ResponseStatusException(CONFLICT,
+                                "Termin je zauzet (resurs: " + resource + ", bookingId: " + conflict.getId() + ")")))
+                        .switchIfEmpty(Mono.defer(() -> bookingRepository.save(booking))))
+                .onErrorMap(OptimisticLockingFailureException.class, e -> new ResponseStatusException(
+                        conditional ? PRECONDITION_FAILED : CONFLICT, "Booking je izmenjen u medjuvremenu, pokusajte ponovo"));
+    }
+
+    public Mono<Void> delete(Booking booking) {
+        return bookingRepository.deleteById(booking.getId());
+    }
+
+    private Mono<BookingDetails> degraded(Booking b, Throwable ex) {
+        if (ex instanceof ResponseStatusException rse && rse.getStatusCode() == NOT_FOUND) {
+            return Mono.error(rse);
+        }
+        log.warn("Details bez user-a za bookingId: {}, cause: {}", b.getId(), ex.toString());
+        return Mono.just(toDetails(b, new UserSummary(null, "UNAVAILABLE", "unavailable@local")));
+    }
+
+    private static BookingDetails toDetails(Booking b, UserSummary user) {
+        return new BookingDetails(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd(), b.getPrice(), user);
+    }
+}
@@ -0,0 +1,35 @@
+package rs.pds.booking.bookings.reactive.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Upisi za isti resurs (provera preklapanja + save) idu jedan za drugim, bez lock-a i bez blokiranja niti:
+ * svaki upis se nadovezuje na future prethodnog upisa istog resursa. Razliciti resursi idu paralelno.
+ * Kao i in-memory indeks u bookings-service-u, vazi za jednu instancu servisa.
+ */
+final class ResourceWriteQueue {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    <T> Mono<T> run(String resource, Supplier<Mono<T>> write) {
+        return Mono.defer(() -> {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> previous = tails.put(resource, mine);
+            Mono<Void> turn = previous == null ? Mono.empty() : Mono.fromFuture(previous, true);
+            return turn.then(Mono.defer(write))
+                    .doFinally(signal -> {
+                        tails.remove(resource, mine);
+                        // i otkazan upis pusta sledeceg tek kad je prethodni zavrsio
+                        if (previous == null) {
+                            mine.complete(null);
+                        } else {
+                            previous.whenComplete((v, e) -> mine.complete(null));
+                        }
+                    });
+        });
+    }
+}
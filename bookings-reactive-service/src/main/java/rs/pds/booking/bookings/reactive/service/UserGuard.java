@@ -0,0 +1,79 @@
+package rs.pds.booking.bookings.reactive.service;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.bookings.reactive.client.UserClient;
+import rs.pds.booking.common.dto.UserSummary;
+import rs.pds.booking.common.users.UsersClientPolicies;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Jedino mesto gde se zove users-service. Iste politike instance "usersClient" kao u bookings-service-u
+ * (Retry -> CircuitBreaker -> TimeLimiter -> Bulkhead), samo sto ih Resilience4j primenjuje kao Reactor
+ * operatore nad Mono-om: timeout i retry ne drze nit, vec samo odlozen signal.
+ * Optional.empty() (404) je regularan odgovor, ne greska.
+ */
+@Component
+public class UserGuard {
+
+    public static final String USERS_CLIENT = UsersClientPolicies.USERS_CLIENT;
+
+    private static final Logger log = LoggerFactory.getLogger(UserGuard.class);
+
+    private final UserClient userClient;
+    private final RetryRegistry retryRegistry;
+    private final CircuitBreakerRegistry cbRegistry;
+
+    public UserGuard(UserClient userClient, RetryRegistry retryRegistry, CircuitBreakerRegistry cbRegistry) {
+        this.userClient = userClient;
+        this.retryRegistry = retryRegistry;
+        this.cbRegistry = cbRegistry;
+    }
+
+    @PostConstruct
+    public void wireResilienceLogging() {
+        UsersClientPolicies.logEvents(retryRegistry, cbRegistry, log);
+    }
+
+    @Retry(name = USERS_CLIENT, fallbackMethod = "loadFallback")
+    @CircuitBreaker(name = USERS_CLIENT)
+    @TimeLimiter(name = USERS_CLIENT)
+    @Bulkhead(name = USERS_CLIENT)
+    public Mono<Optional<UserSummary>> load(Long userId) {
+        return userClient.getById(userId);
+    }
+
+    // bulk import: vise id-jeva jednim pozivom, pod istim politikama (jedan poziv = jedna dozvola bulkhead-a)
+    @Retry(name = USERS_CLIENT, fallbackMethod = "loadAllFallback")
+    @CircuitBreaker(name = USERS_CLIENT)
+    @TimeLimiter(name = USERS_CLIENT)
+    @Bulkhead(name = USERS_CLIENT)
+    public Mono<List<UserSummary>> loadAll(Collection<Long> userIds) {
+        return userClient.getByIds(userIds).collectList();
+    }
+
+    // sve sto nije regularan odgovor (timeout, pun bulkhead, otvoren CB, greska WebClient-a) -> 503
+    // public: Resilience4j FallbackMethod za private metodu radi setAccessible(true/false) na deljenom Method-u,
+    // pa istovremeni fallback-ovi pucaju sa IllegalAccessException (500 umesto 503)
+    @SuppressWarnings("unused")
+    public Mono<Optional<UserSummary>> loadFallback(Long userId, Throwable t) {
+        return Mono.error(UsersClientPolicies.unavailable(userId, t, log));
+    }
+
+    @SuppressWarnings("unused")
+    public Mono<List<UserSummary>> loadAllFallback(Collection<Long> userIds, Throwable t) {
+        return Mono.error(UsersClientPolicies.unavailable(userIds.size() + " id-jeva", t, log));
+    }
+}
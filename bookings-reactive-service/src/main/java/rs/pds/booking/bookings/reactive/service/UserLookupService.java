@@ -0,0 +1,51 @@
+package rs.pds.booking.bookings.reactive.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Lokalni kes korisnika ispred users-service-a (Caffeine AsyncCache, u mapi je samo future).
+ * Optional.empty() (404) se takodje kesira (negativni kes); neuspeo future Caffeine sam izbacuje.
+ * Istovremeni promasaji za isti id dele jedan poziv kroz {@link UserGuard}.
+ */
+@Service
+public class UserLookupService {
+
+    public static final String USERS_CACHE = "users";
+
+    private final UserGuard userGuard;
+    private final AsyncCache<Long, Optional<UserSummary>> cache;
+
+    public UserLookupService(UserGuard userGuard,
+                             MeterRegistry meterRegistry,
+                             @Value("${users.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${users.cache.ttl:60s}") Duration ttl) {
+        this.userGuard = userGuard;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // odrzavanje kesa (eviction) ide na niti pozivaoca: sa event loop-a nema prebacivanja na ForkJoinPool
+                .executor(Runnable::run)
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, USERS_CACHE);
+    }
+
+    public Mono<Optional<UserSummary>> findById(Long userId) {
+        // otkazan zahtev ne otkazuje zajednicki future (na njega mogu da cekaju i drugi)
+        return Mono.fromFuture(cache.get(userId, (id, executor) -> userGuard.load(id).toFuture()), true);
+    }
+
+    public void evict(Long userId) {
+        cache.synchronous().invalidate(userId);
+    }
+}
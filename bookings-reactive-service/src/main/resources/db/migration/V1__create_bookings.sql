@@ -0,0 +1,17 @@
+-- ista tabela kao u bookings-service-u (V1..V3); R2DBC nema pooled sekvence, pa id ide iz IDENTITY kolone
+CREATE TABLE bookings (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT         NOT NULL,
+    resource_name VARCHAR(50)    NOT NULL,
+    start_time    TIMESTAMP(6)   NOT NULL,
+    end_time      TIMESTAMP(6)   NOT NULL,
+    price         NUMERIC(10, 2) NOT NULL,
+    -- @Version: optimisticko zakljucavanje i ETag
+    version       BIGINT         DEFAULT 0 NOT NULL
+);
+
+-- POST /bookings: findByUserIdAndResourceName na svakom upisu
+CREATE INDEX idx_bookings_user_resource ON bookings (user_id, resource_name);
+
+-- provera preklapanja i dostupnost idu upitom po resursu i vremenskom opsegu (nema in-memory indeksa)
+CREATE INDEX idx_bookings_resource_time ON bookings (resource_name, start_time, end_time);
@@ -0,0 +1,201 @@
+package rs.pds.booking.bookings.reactive.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import rs.pds.booking.bookings.reactive.repository.BookingRepository;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.web.KeysetCursor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reaktivni bookings preko pravog HTTP-a (Netty) i R2DBC/H2, sa lokalnim stub-om users-service-a:
+ * postoje user-i 1..99, ostali vracaju 404.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "resilience4j.timelimiter.instances.usersClient.timeoutDuration=5s"
+})
+class BookingControllerTest {
+
+    static HttpServer stub;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/users", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getQuery();
+            String body;
+            int status = 200;
+            if (path.equals("/users")) {
+                // GET /users?ids=1&ids=2
+                body = "[" + String.join(",", Arrays.stream(query.split("&"))
+                        .map(p -> Long.parseLong(p.substring(p.indexOf('=') + 1)))
+                        .filter(id -> id < 100)
+                        .map(BookingControllerTest::userJson)
+                        .toList()) + "]";
+            } else {
+                long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+                body = id < 100 ? userJson(id) : "{}";
+                status = id < 100 ? 200 : 404;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    static String userJson(long id) {
+        return "{\"id\":" + id + ",\"name\":\"User" + id + "\",\"email\":\"u" + id + "@example.com\"}";
+    }
+
+    @DynamicPropertySource
+    static void usersServiceUri(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.users-service[0].uri",
+                () -> "http://localhost:" + stub.getAddress().getPort());
+    }
+
+    @Autowired WebTestClient client;
+    @Autowired BookingRepository bookingRepository;
+    @LocalServerPort int port;
+
+    private WebTestClient.ResponseSpec post(long userId, String resource, String start) {
+        return client.post().uri("/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("userId", userId, "resourceName", resource, "start", start, "price", 10))
+                .exchange();
+    }
+
+    @Test
+    void create_get_etag_details_and_conflicts() {
+        var created = post(1, "Sala A", "2030-01-01T10:00:00")
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches("Location", ".*/bookings/\\d+")
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody(BookingResponse.class).returnResult().getResponseBody();
+        long id = created.getId();
+
+        client.get().uri("/bookings/{id}", id).header("If-None-Match", "\"0\"")
+                .exchange().expectStatus().isNotModified().expectBody().isEmpty();
+
+        client.get().uri("/bookings/{id}/details", id).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.user.name").isEqualTo("User1");
+
+        // drugi user, isti resurs, preklapanje -> 409; nepostojeci user -> 404
+        post(2, "Sala A", "2030-01-03T10:00:00").expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        post(404, "Sala B", "2030-01-03T10:00:00").expectStatus().isNotFound();
+
+        // upsert istog (userId, resourceName) -> 200 i nova verzija; stari If-Match -> 412
+        post(1, "Sala A", "2030-01-02T10:00:00").expectStatus().isOk().expectHeader().valueEquals("ETag", "\"1\"");
+        client.delete().uri("/bookings/{id}", id).header("If-Match", "\"0\"")
+                .exchange().expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.delete().uri("/bookings/{id}", id).header("If-Match", "\"1\"")
+                .exchange().expectStatus().isNoContent();
+        client.get().uri("/bookings/{id}", id).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void databaseWork_runsOnR2dbcScheduler_notOnEventLoop() {
+        String thread = bookingRepository.count()
+                .map(count -> Thread.currentThread().getName())
+                .block(Duration.ofSeconds(5));
+
+        assertThat(thread).startsWith("r2dbc-h2-");
+    }
+
+    @Test
+    void concurrentOverlappingCreates_onlyOneWins() {
+        // 20 istovremenih zahteva (neblokirajuci klijent), razliciti user-i, isti termin istog resursa
+        WebClient http = WebClient.create("http://localhost:" + port);
+        List<HttpStatusCode> statuses = Flux.range(10, 20)
+                .flatMap(userId -> http.post().uri("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("userId", userId, "resourceName", "Sala C", "start", "2030-02-01T10:00:00", "price", 10))
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(statuses).hasSize(20);
+        assertThat(statuses).filteredOn(s -> s == HttpStatus.CREATED).hasSize(1);
+        assertThat(statuses).filteredOn(s -> s == HttpStatus.CONFLICT).hasSize(19);
+    }
+
+    @Test
+    void bulkNdjson_thenKeysetPages() {
+        String ndjson = """
+                {"userId":50,"resourceName":"Sala D","start":"2030-03-01T10:00:00","price":10}
+                {"userId":51,"resourceName":"Sala E","start":"2030-03-01T10:00:00","price":10}
+                {"userId":52,"resourceName":"Sala F","start":"2030-03-01T10:00:00","price":10}
+                {"userId":500,"resourceName":"Sala G","start":"2030-03-01T10:00:00","price":10}
+                {"userId":53,"resourceName":"Sala D","start":"2030-03-02T10:00:00","price":10}
+                """;
+        var result = client.post().uri("/bookings/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkBookingResponse.class).returnResult().getResponseBody();
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getResults().get(3).getError()).isEqualTo("User ne postoji");
+        assertThat(result.getResults().get(4).getError()).startsWith("Termin je zauzet");
+
+        var first = client.get().uri("/bookings?userId=50&limit=1").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookingResponse.class).hasSize(1)
+                .returnResult();
+        assertThat(first.getResponseHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER)).isNull();
+
+        var page = client.get().uri("/bookings?resource=Sala D&limit=1").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookingResponse.class).returnResult();
+        assertThat(page.getResponseBody()).extracting(BookingResponse::getUserId).containsExactly(50L);
+
+        client.get().uri("/bookings/availability?resource=Sala D&from=2030-03-01T00:00:00&to=2030-03-20T00:00:00")
+                .exchange().expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].start").isEqualTo("2030-03-08T10:00:00");
+
+        List<BookingResponse> streamed = client.get().uri("/bookings?userId=51").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookingResponse.class).getResponseBody()
+                .collectList().block(Duration.ofSeconds(5));
+        assertThat(streamed).extracting(BookingResponse::getResourceName).containsExactly("Sala E");
+    }
+}
@@ -2,10 +2,18 @@ package rs.pds.booking.bookings;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import rs.pds.booking.bookings.loadbalancer.LatencyAwareLoadBalancerConfig;
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "rs.pds.booking.bookings.client")
+@EnableCaching
+@EnableScheduling
+// Feign ka users-service-u: izbor instance po latenciji / opterecenju / zoni umesto round-robin-a
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
 public class BookingsServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(BookingsServiceApplication.class, args);
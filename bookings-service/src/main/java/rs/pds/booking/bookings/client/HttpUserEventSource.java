@@ -0,0 +1,22 @@
+package rs.pds.booking.bookings.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import rs.pds.booking.bookings.dto.UserEvents;
+
+// povlaci dogadjaje iz users-service outbox-a preko HTTP-a (Feign + discovery)
+@Component
+@ConditionalOnProperty(name = "users.replication.source", havingValue = "http", matchIfMissing = true)
+public class HttpUserEventSource implements UserEventSource {
+
+    private final UserEventsClient client;
+
+    public HttpUserEventSource(UserEventsClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public UserEvents fetch(long after, int limit) {
+        return client.events(after, limit);
+    }
+}
@@ -0,0 +1,167 @@
+package rs.pds.booking.bookings.client;
+
+import feign.FeignException;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextScheduledExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rs.pds.booking.bookings.support.SingleFlight;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Skuplja pojedinacne lookup-e po userId koji stignu unutar kratkog prozora
+ * i salje ih kao jedan {@link UserClient#getByIds} poziv (DataLoader princip).
+ * Isti id u istom prozoru deli jedan future. Prozor 0 = svaki lookup odmah ide kao poseban getById.
+ * Future se uvek zavrsava na drugoj niti, pa pozivalac (UserGuard) moze da ga ogranici timeout-om.
+ * Povrh prozora, lookup id-ja za koji je poziv vec poslat i jos traje ne pravi novi poziv
+ * ({@link SingleFlight}), bez obzira na prozor.
+ * Trace kontekst (Observation) prelazi na niti loader-a: batch poziv je u trace-u zahteva koji je otvorio prozor.
+ */
+@Component
+public class UserBatchLoader {
+
+    private final UserClient userClient;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final SingleFlight<Long, Optional<UserSummary>> inFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, CompletableFuture<Optional<UserSummary>>> pending = new HashMap<>();
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final ScheduledExecutorService scheduler = ContextScheduledExecutorService.wrap(
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "user-batch-loader");
+                t.setDaemon(true);
+                return t;
+            }), SNAPSHOTS::captureAll);
+    private final ExecutorService dispatcher = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), SNAPSHOTS::captureAll);
+
+    public UserBatchLoader(UserClient userClient,
+                           @Value("${users.batch.window:5ms}") Duration window,
+                           @Value("${users.batch.max-size:100}") int maxBatchSize,
+                           MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.inFlight = new SingleFlight<>("user", meterRegistry);
+    }
+
+    public CompletableFuture<Optional<UserSummary>> load(Long userId) {
+        return inFlight.loadAsync(userId, () -> enqueue(userId));
+    }
+
+    private CompletableFuture<Optional<UserSummary>> enqueue(Long userId) {
+        if (window.isZero()) {
+            var single = new HashMap<Long, CompletableFuture<Optional<UserSummary>>>();
+            single.put(userId, new CompletableFuture<>());
+            dispatch(single);
+            return single.get(userId);
+        }
+
+        CompletableFuture<Optional<UserSummary>> future;
+        Map<Long, CompletableFuture<Optional<UserSummary>>> full = null;
+        lock.lock();
+        try {
+            future = pending.get(userId);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(userId, future);
+                // pun batch ide odmah (i kad je max-size 1), inace prvi id u prozoru zakazuje flush
+                if (pending.size() >= maxBatchSize) {
+                    full = takePending();
+                } else if (pending.size() == 1) {
+                    scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    // bulk import: vec spojeni id-jevi idu jednim GET /users?ids=... odmah, bez prozora i SingleFlight-a
+    public CompletableFuture<List<UserSummary>> loadAll(Collection<Long> userIds) {
+        return CompletableFuture.supplyAsync(() -> userClient.getByIds(userIds), dispatcher);
+    }
+
+    // user je izmenjen: novi lookup-i ne cekaju poziv koji je poslat pre izmene
+    public void forget(Long userId) {
+        inFlight.forget(userId);
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Optional<UserSummary>>> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<UserSummary>>> takePending() {
+        var batch = pending;
+        pending = new HashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<UserSummary>>> batch) {
+        dispatcher.execute(() -> {
+            try {
+                if (batch.size() == 1) {
+                    var entry = batch.entrySet().iterator().next();
+                    entry.getValue().complete(fetchOne(entry.getKey()));
+                    return;
+                }
+                Map<Long, UserSummary> found = userClient.getByIds(batch.keySet())
+                        .stream()
+                        .collect(Collectors.toMap(UserSummary::getId, Function.identity(), (a, b) -> a));
+                batch.forEach((id, f) -> f.complete(Optional.ofNullable(found.get(id))));
+            } catch (RuntimeException e) {
+                batch.values().forEach(f -> f.completeExceptionally(e));
+            }
+        });
+    }
+
+    private Optional<UserSummary> fetchOne(Long userId) {
+        try {
+            return Optional.of(userClient.getById(userId));
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+    }
+}
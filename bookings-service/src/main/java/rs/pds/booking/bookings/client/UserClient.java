@@ -3,11 +3,20 @@ package rs.pds.booking.bookings.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import rs.pds.booking.bookings.dto.UserSummary;
+import org.springframework.web.bind.annotation.RequestParam;
+import rs.pds.booking.common.dto.UserSummary;
 
-@FeignClient(name = "users-service", path = "/users")
+import java.util.Collection;
+import java.util.List;
+
+// odgovori u Smile-u ili JSON-u (users.http.format, UserClientConfig)
+@FeignClient(name = "users-service", path = "/users", configuration = UserClientConfig.class)
 public interface UserClient {
 
     @GetMapping("/{id}")
     public UserSummary getById(@PathVariable("id") Long id);
+
+    // GET /users?ids=1&ids=2 - vraca samo postojece user-e
+    @GetMapping
+    public List<UserSummary> getByIds(@RequestParam("ids") Collection<Long> ids);
 }
@@ -0,0 +1,27 @@
+package rs.pds.booking.bookings.client;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Feign konfiguracija samo za {@link UserClient} (@FeignClient(configuration = ...)).
+ * Namerno bez @Configuration: ne sme u component scan glavnog konteksta, vazi samo u kontekstu klijenta.
+ * users.http.format=smile: trazi Smile (binarni JSON, isti model kao JSON, bez parsiranja teksta), uz JSON kao
+ * rezervu (q=0.9) - users-service bez Smile converter-a i dalje odgovara JSON-om. SpringDecoder bira converter po
+ * Content-Type odgovora.
+ */
+public class UserClientConfig {
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    @Bean
+    public RequestInterceptor userWireFormat(@Value("${users.http.format:json}") String format) {
+        String accept = "smile".equalsIgnoreCase(format)
+                ? SMILE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9"
+                : MediaType.APPLICATION_JSON_VALUE;
+        return template -> template.removeHeader(HttpHeaders.ACCEPT).header(HttpHeaders.ACCEPT, accept);
+    }
+}
@@ -0,0 +1,14 @@
+package rs.pds.booking.bookings.client;
+
+import rs.pds.booking.bookings.dto.UserEvents;
+
+/**
+ * Odakle replika cita dogadjaje user-a (transport). Podrazumevano HTTP feed users-service outbox-a
+ * ({@link HttpUserEventSource}, users.replication.source=http); broker ili in-process izvor (testovi)
+ * su druge implementacije istog interfejsa.
+ */
+public interface UserEventSource {
+
+    // najvise limit dogadjaja sa seq > after, po redu, uz epoch i head toka
+    UserEvents fetch(long after, int limit);
+}
@@ -0,0 +1,14 @@
+package rs.pds.booking.bookings.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import rs.pds.booking.bookings.dto.UserEvents;
+
+// interni tok izmena user-a (outbox) - nije izlozen kroz gateway
+@FeignClient(name = "users-service", contextId = "userEventsClient", path = "/internal/users")
+public interface UserEventsClient {
+
+    @GetMapping("/events")
+    UserEvents events(@RequestParam("after") long after, @RequestParam("limit") int limit);
+}
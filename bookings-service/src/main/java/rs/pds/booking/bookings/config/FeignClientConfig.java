@@ -0,0 +1,64 @@
+package rs.pds.booking.bookings.config;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * HTTP klijent ispod Feign-a (UserClient, UserEventsClient) ka users-service-u.
+ * <ul>
+ *   <li>podrazumevano: Apache HC5 pool sa keep-alive konekcijama (spring.cloud.openfeign.httpclient.*), po
+ *   instanci users-service-a najvise max-connections-per-route; popunjenost pool-a ide u
+ *   httpcomponents.httpclient.pool.* metrike</li>
+ *   <li>users.http.h2c=true: JDK HttpClient sa HTTP/2 bez TLS-a (h2c upgrade na prvom zahtevu), svi pozivi ka
+ *   jednoj instanci idu kao stream-ovi jedne konekcije; users-service mora imati server.http2.enabled</li>
+ * </ul>
+ * Bira se pri startu, ne kroz @ConditionalOnProperty - uz -Paot bi uslov bio zamrznut pri build-u.
+ */
+@Configuration
+public class FeignClientConfig {
+
+    @Bean
+    public Client feignClient(@Value("${users.http.h2c:false}") boolean h2c,
+                              CloseableHttpClient httpClient5,
+                              FeignHttpClientProperties properties,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers) {
+        Client delegate = h2c
+                ? new Http2Client(HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofMillis(properties.getConnectionTimeout()))
+                        .followRedirects(HttpClient.Redirect.NEVER)
+                        .build())
+                : new ApacheHttp5Client(httpClient5);
+        return new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient, loadBalancerClientFactory, transformers);
+    }
+
+    // zauzete / slobodne konekcije i zahtevi koji cekaju konekciju (pending > 0 = pool je premali)
+    @Bean
+    public MeterBinder feignPoolMetrics(HttpClientConnectionManager connectionManager) {
+        return registry -> {
+            if (connectionManager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "users-service").bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package rs.pds.booking.bookings.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.pds.booking.common.logging.LogBudgetFilter;
+
+@Configuration
+public class MetricsConfig {
+
+    // Eureka klijent (RestTemplate) bi upisivao heartbeat-e kao http.client.requests sa instance id-jem i
+    // lastDirtyTimestamp-om u uri tagu -> nova serija na svaku promenu; registracija se prati kroz discovery-service
+    @Bean
+    public MeterFilter denyEurekaClientRequests() {
+        return MeterFilter.deny(id -> "http.client.requests".equals(id.getName())
+                && id.getTag("uri") != null && id.getTag("uri").startsWith("/eureka/"));
+    }
+
+    // dogadjaji koje je LogBudgetFilter (logback-spring.xml) odbacio: preko budzeta ili uzorkovanjem
+    @Bean
+    public MeterBinder logBudgetMetrics() {
+        return registry -> {
+            FunctionCounter.builder("logging.budget.dropped", LogBudgetFilter.class, c -> LogBudgetFilter.droppedOverBudget())
+                    .tag("reason", "budget")
+                    .register(registry);
+            FunctionCounter.builder("logging.budget.dropped", LogBudgetFilter.class, c -> LogBudgetFilter.droppedBySampling())
+                    .tag("reason", "sample")
+                    .register(registry);
+        };
+    }
+}
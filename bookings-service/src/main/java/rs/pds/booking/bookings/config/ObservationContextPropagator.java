@@ -0,0 +1,42 @@
+package rs.pds.booking.bookings.config;
+
+import io.github.resilience4j.core.ContextPropagator;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Prenosi kontekst zahteva (trace / observation, MDC) na Resilience4j scheduled executor
+ * (resilience4j.scheduled.executor): na njemu se cekaju retry pauze i TimeLimiter timeout-i,
+ * pa bi ponovljen poziv ka users-service-u inace krenuo bez trace-a.
+ * Instancira ga Resilience4j (prazan konstruktor); copy i clear se zovu na istoj niti.
+ */
+public class ObservationContextPropagator implements ContextPropagator<ContextSnapshot> {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+    private static final ThreadLocal<ContextSnapshot.Scope> SCOPE = new ThreadLocal<>();
+
+    @Override
+    public Supplier<Optional<ContextSnapshot>> retrieve() {
+        return () -> Optional.of(SNAPSHOTS.captureAll());
+    }
+
+    @Override
+    public Consumer<Optional<ContextSnapshot>> copy() {
+        return snapshot -> snapshot.ifPresent(s -> SCOPE.set(s.setThreadLocals()));
+    }
+
+    @Override
+    public Consumer<Optional<ContextSnapshot>> clear() {
+        return snapshot -> {
+            ContextSnapshot.Scope scope = SCOPE.get();
+            if (scope != null) {
+                SCOPE.remove();
+                scope.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package rs.pds.booking.bookings.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kes korisnika radi u async modu: sync=true kod obicnog Caffeine kesa poziva loader (users-service)
+ * unutar ConcurrentHashMap.compute, tj. unutar synchronized bloka, sto na virtuelnoj niti "pinuje"
+ * carrier nit za vreme celog mreznog poziva. U async modu se u mapu upisuje samo future, loader
+ * ide na virtuelnu nit, a pozivalac ceka na join() bez pinovanja.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    // loader nosi trace kontekst zahteva, pa poziv ka users-service-u ostaje u istom trace-u.
+    // Nije @Bean(destroyMethod = "close"): bilo koji Executor bean gasi Boot-ov applicationTaskExecutor
+    // (@ConditionalOnMissingBean(Executor.class)), a na njemu rade MVC async i NDJSON StreamingResponseBody.
+    private final ExecutorService loaderExecutor = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), ContextSnapshotFactory.builder().build()::captureAll);
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> asyncCaffeineCacheMode(CacheProperties cacheProperties) {
+        return cacheManager -> {
+            String spec = cacheProperties.getCaffeine().getSpec();
+            cacheManager.setCaffeine((spec != null ? Caffeine.from(spec) : Caffeine.newBuilder()).executor(loaderExecutor));
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+
+    // close() ceka loader-e koji su u toku (najvise do timeout-a poziva ka users-service-u)
+    @PreDestroy
+    public void closeLoaderExecutor() {
+        loaderExecutor.close();
+    }
+
+    ExecutorService loaderExecutor() {
+        return loaderExecutor;
+    }
+}
@@ -1,104 +1,77 @@
 package rs.pds.booking.bookings.controller;
 
-import feign.FeignException;
-import jakarta.annotation.PostConstruct;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker; // anotacija
-import io.github.resilience4j.retry.annotation.Retry;                  // anotacija
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import io.github.resilience4j.retry.RetryRegistry;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
-import rs.pds.booking.bookings.client.UserClient;
 import rs.pds.booking.bookings.domain.Booking;
-import rs.pds.booking.bookings.dto.BookingDetails;
-import rs.pds.booking.bookings.dto.BookingRequest;
-import rs.pds.booking.bookings.dto.BookingResponse;
 import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.bookings.service.BookingImportService;
+import rs.pds.booking.bookings.service.BookingIntervalIndex;
 import rs.pds.booking.bookings.service.BookingService;
+import rs.pds.booking.bookings.service.UserLookupService;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.TimeSlot;
+import rs.pds.booking.common.web.KeysetCursor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
-import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 @RestController
 @RequestMapping("/bookings")
 public class BookingController {
 
-    private static final Logger log = LoggerFactory.getLogger(BookingController.class);
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
 
     private final BookingRepository bookingRepository;
     private final BookingService bookingService;
-    private final UserClient usersClient;
-
-    private final RetryRegistry retryRegistry;
-    private final CircuitBreakerRegistry cbRegistry;
+    private final UserLookupService userLookupService;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingImportService importService;
+    private final ObjectMapper objectMapper;
 
     public BookingController(BookingRepository bookingRepository,
                              BookingService bookingService,
-                             UserClient usersClient,
-                             RetryRegistry retryRegistry,
-                             CircuitBreakerRegistry cbRegistry) {
+                             UserLookupService userLookupService,
+                             BookingIntervalIndex intervalIndex,
+                             BookingImportService importService,
+                             ObjectMapper objectMapper) {
         this.bookingRepository = bookingRepository;
         this.bookingService = bookingService;
-        this.usersClient = usersClient;
-        this.retryRegistry = retryRegistry;
-        this.cbRegistry = cbRegistry;
-    }
-
-    @PostConstruct
-    public void wireResilienceLogging() {
-        io.github.resilience4j.retry.Retry retry = retryRegistry.retry("usersClient");
-        retry.getEventPublisher()
-                .onRetry(e -> log.warn("[RETRY][usersClient] attempt={} lastThrowable={}",
-                        e.getNumberOfRetryAttempts(),
-                        e.getLastThrowable() == null ? "n/a" : e.getLastThrowable().toString()))
-                .onError(e -> log.error("[RETRY][usersClient][ERROR] {}", e))
-                .onSuccess(e -> log.info("[RETRY][usersClient][SUCCESS] {}", e));
-
-        io.github.resilience4j.circuitbreaker.CircuitBreaker cb = cbRegistry.circuitBreaker("usersClient");
-        cb.getEventPublisher()
-                .onStateTransition(e -> log.warn("[CB][usersClient] {} -> {} (eventType={})",
-                        e.getStateTransition().getFromState(), e.getStateTransition().getToState(), e.getEventType()))
-                .onError(e -> log.error("[CB][usersClient][ERROR] duration={}ms throwable={}",
-                        e.getElapsedDuration() == null ? "n/a" : e.getElapsedDuration().toMillis(),
-                        e.getThrowable() == null ? "n/a" : e.getThrowable().toString()))
-                .onCallNotPermitted(e -> log.warn("[CB][usersClient] CALL_NOT_PERMITTED (OPEN)"));
-
-        log.info("[Resilience] listeners wired in BookingController for 'usersClient'");
-    }
-
-    @Retry(name = "usersClient")
-    @CircuitBreaker(name = "usersClient", fallbackMethod = "ensureUserExistsFallback")
-    private void ensureUserExists(Long userId) {
-        log.info("[usersGuard] checking userId={} ...", userId);
-        try {
-            usersClient.getById(userId); // 404/greške bacaju FeignException
-            log.info("[usersGuard] userId={} EXISTS", userId);
-        } catch (FeignException.NotFound e) {
-            log.warn("[usersGuard] userId={} NOT FOUND (404 from users-service)", userId);
-            throw new ResponseStatusException(NOT_FOUND, "User ne postoji");
-        } catch (FeignException e) {
-            log.error("[usersGuard] users-service error for userId={}, status={}", userId, e.status(), e);
-            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Users servis nije dostupan");
-        }
+        this.userLookupService = userLookupService;
+        this.intervalIndex = intervalIndex;
+        this.importService = importService;
+        this.objectMapper = objectMapper;
     }
 
-    @SuppressWarnings("unused")
-    private void ensureUserExistsFallback(Long userId, Throwable t) {
-        log.error("[usersGuard][FALLBACK] userId={} cause={}", userId, t.toString(), t);
-        if (t instanceof ResponseStatusException rse && rse.getStatusCode().value() == 404) {
-            throw rse; // zadrži 404 ako user realno ne postoji
+    // kes + UserGuard (retry, circuit breaker, bulkhead, time limiter); nedostupan users-service -> 503
+    private void ensureUserExists(Long userId) {
+        if (userLookupService.findById(userId).isEmpty()) {
+            throw new ResponseStatusException(NOT_FOUND, "User ne postoji");
         }
-        throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Users servis nije dostupan (fallback)");
     }
 
     @PostMapping
@@ -114,11 +87,13 @@ public class BookingController {
 
         if (maybeExisting.isPresent()) {
             Booking existing = maybeExisting.get();
-            existing.setStart(start);
-            existing.setEnd(end);
-            existing.setPrice(input.getPrice());
-            Booking updated = bookingRepository.save(existing);
-            return ResponseEntity.ok(toResponse(updated));
+            Booking updated = intervalIndex.reserve(existing.getId(), existing.getResourceName(), start, end, () -> {
+                existing.setStart(start);
+                existing.setEnd(end);
+                existing.setPrice(input.getPrice());
+                return saveVersioned(existing, false);
+            });
+            return ResponseEntity.ok().eTag(etagOf(updated)).body(toResponse(updated));
         }
 
         Booking booking = new Booking();
@@ -128,75 +103,190 @@ public class BookingController {
         booking.setResourceName(input.getResourceName());
         booking.setPrice(input.getPrice());
 
-        Booking saved = bookingRepository.save(booking);
+        Booking saved = intervalIndex.reserve(null, booking.getResourceName(), start, end,
+                () -> bookingRepository.save(booking));
         URI location = uriBuilder.path("/bookings/{id}").buildAndExpand(saved.getId()).toUri();
-        return ResponseEntity.created(location).body(toResponse(saved));
+        return ResponseEntity.created(location).eTag(etagOf(saved)).body(toResponse(saved));
     }
 
-    // GET /bookings/{id}
+    // POST /bookings/bulk - JSON niz; rezultat po redu (CREATED / UPDATED / REJECTED) + zbir
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkBookingResponse> bulk(@RequestBody List<BookingRequest> input) {
+        return ResponseEntity.ok(importService.importAll(input.iterator()));
+    }
+
+    // POST /bookings/bulk, Content-Type: application/x-ndjson - jedan red po liniji, cita se u toku
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkBookingResponse> bulkStream(InputStream body) throws IOException {
+        try (MappingIterator<BookingRequest> rows = objectMapper.readerFor(BookingRequest.class).readValues(body)) {
+            return ResponseEntity.ok(importService.importAll(rows));
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new ResponseStatusException(BAD_REQUEST, "Neispravan NDJSON: " + io.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    // GET /bookings/{id} -> ETag = verzija; If-None-Match koji se poklapa -> 304 bez tela (DTO se ni ne pravi)
     @GetMapping("/{id}")
-    public ResponseEntity<BookingResponse> get(@PathVariable("id") Long id) {
-        return bookingRepository.findById(id)
-                .map(b -> {
-                    ensureUserExists(b.getUserId());
-                    return ResponseEntity.ok(toResponse(b));
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<BookingResponse> get(@PathVariable("id") Long id, WebRequest request) {
+        var maybe = bookingService.findById(id);
+        if (maybe.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Booking b = maybe.get();
+        ensureUserExists(b.getUserId());
+        String etag = etagOf(b);
+        if (request.checkNotModified(etag)) {
+            return null; // 304 je vec postavljen
+        }
+        return ResponseEntity.ok().eTag(etag).body(toResponse(b));
+    }
+
+    // GET /bookings/availability?resource=X&from=..&to=.. -> slobodni prozori iz in-memory indeksa
+    @GetMapping("/availability")
+    public ResponseEntity<List<TimeSlot>> availability(@RequestParam("resource") String resource,
+                                                       @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(BAD_REQUEST, "'from' mora biti pre 'to'");
+        }
+        return ResponseEntity.ok(intervalIndex.freeSlots(resource, from, to));
     }
 
     // GET /bookings/{id}/details
     @GetMapping("/{id}/details")
     public ResponseEntity<BookingDetails> details(@PathVariable("id") Long id) {
-        var booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji"));
-
-        ensureUserExists(booking.getUserId());
-        var details = bookingService.getDetails(id);
-        return ResponseEntity.ok(details);
+        // jedno citanje booking-a i jedan user lookup (postojanje user-a proverava getDetails)
+        return ResponseEntity.ok(bookingService.getDetails(id));
     }
 
-    // GET /bookings
+    // GET /bookings?cursor=&limit=&userId=&resource= -> jedna keyset stranica (po id-ju)
+    // sledeca stranica: X-Next-Cursor header / Link rel="next"
     @GetMapping
-    public ResponseEntity<List<BookingResponse>> getAll() {
-        var out = bookingRepository.findAll()
-                .stream()
+    public ResponseEntity<List<BookingResponse>> getAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                        @RequestParam(value = "userId", required = false) Long userId,
+                                                        @RequestParam(value = "resource", required = false) String resource,
+                                                        UriComponentsBuilder uriBuilder) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        var rows = bookingRepository.findPage(KeysetCursor.decode(cursor), userId, resource, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        var out = rows.stream()
+                .limit(size)
                 .map(BookingController::toResponse)
                 .toList();
-        return ResponseEntity.ok(out);
+
+        var response = ResponseEntity.ok();
+        if (hasNext) {
+            String next = KeysetCursor.encode(out.get(size - 1).getId());
+            URI nextUri = uriBuilder.path("/bookings")
+                    .queryParam("cursor", next)
+                    .queryParam("limit", size)
+                    .queryParamIfPresent("userId", Optional.ofNullable(userId))
+                    .queryParamIfPresent("resource", Optional.ofNullable(resource))
+                    .encode()
+                    .build()
+                    .toUri();
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, next)
+                    .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(out);
+    }
+
+    // GET /bookings, Accept: application/x-ndjson -> cela tabela, red po red sa JDBC kursora
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(value = "userId", required = false) Long userId,
+                                                        @RequestParam(value = "resource", required = false) String resource) {
+        var writer = objectMapper.writerFor(BookingResponse.class);
+        StreamingResponseBody body = out -> {
+            bookingRepository.forEachResponse(userId, resource, b -> {
+                try {
+                    out.write(writer.writeValueAsBytes(b));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     // PUT /bookings/{id}
     @PutMapping("/{id}")
+    // If-Match: "<verzija>" -> izmena samo ako niko nije menjao booking u medjuvremenu, inace 412
     public ResponseEntity<BookingResponse> update(@PathVariable("id") Long id,
-                                                  @Valid @RequestBody BookingRequest input) {
+                                                  @Valid @RequestBody BookingRequest input,
+                                                  WebRequest request) {
         var existing = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji"));
+        checkIfMatch(existing, request);
 
         ensureUserExists(input.getUserId());
 
-        existing.setUserId(input.getUserId());
-        existing.setResourceName(input.getResourceName());
-        existing.setPrice(input.getPrice());
-        existing.setStart(input.getStart());
-        existing.setEnd(input.getStart().plusDays(7));
-
-        var updated = bookingRepository.save(existing);
-        return ResponseEntity.ok(toResponse(updated));
+        LocalDateTime start = input.getStart();
+        LocalDateTime end = start.plusDays(7);
+        var updated = intervalIndex.reserve(id, input.getResourceName(), start, end, () -> {
+            existing.setUserId(input.getUserId());
+            existing.setResourceName(input.getResourceName());
+            existing.setPrice(input.getPrice());
+            existing.setStart(start);
+            existing.setEnd(end);
+            return saveVersioned(existing, request.getHeader(HttpHeaders.IF_MATCH) != null);
+        });
+        return ResponseEntity.ok().eTag(etagOf(updated)).body(toResponse(updated));
     }
 
     // DELETE /bookings/{id}
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
+    public ResponseEntity<Void> delete(@PathVariable("id") Long id, WebRequest request) {
         var existing = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji"));
+        checkIfMatch(existing, request);
 
         ensureUserExists(existing.getUserId());
-        bookingRepository.deleteById(id);
+        boolean conditional = request.getHeader(HttpHeaders.IF_MATCH) != null;
+        // brise se verzija koja je proverena: izmena posle checkIfMatch ostavlja booking -> 412 (If-Match) / 409
+        intervalIndex.release(existing, () -> {
+            if (bookingRepository.deleteByIdAndVersion(id, existing.getVersion()) == 0) {
+                throw new ResponseStatusException(conditional ? PRECONDITION_FAILED : CONFLICT,
+                        "Booking je izmenjen u medjuvremenu, pokusajte ponovo");
+            }
+        });
+        bookingService.forget(id);
         return ResponseEntity.noContent().build();
     }
 
-    // helper
-    private static BookingResponse toResponse(Booking b) {
+    // jak ETag: verzija se menja na svakoj izmeni booking-a, a BookingResponse zavisi samo od booking-a
+    static String etagOf(Booking b) {
+        return "\"" + b.getVersion() + "\"";
+    }
+
+    // If-Match koji se ne poklapa sa trenutnom verzijom -> 412 (checkNotModified radi i proveru preduslova)
+    private static void checkIfMatch(Booking current, WebRequest request) {
+        if (request.checkNotModified(etagOf(current))) {
+            throw new ResponseStatusException(PRECONDITION_FAILED, "Booking je izmenjen u medjuvremenu (ETag se ne poklapa)");
+        }
+    }
+
+    // booking je detached: save radi merge sa proverom verzije; trka sa drugim upisom -> 412 (If-Match) / 409.
+    // flush odmah: upis ide u transakciji rezervacije, pa bi se provera verzije inace desila tek na commit-u
+    private Booking saveVersioned(Booking booking, boolean conditional) {
+        try {
+            Booking saved = bookingRepository.saveAndFlush(booking);
+            bookingService.forget(saved.getId()); // GET koji stigne posle upisa ne deli citanje zapoceto pre njega
+            return saved;
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(conditional ? PRECONDITION_FAILED : CONFLICT,
+                    "Booking je izmenjen u medjuvremenu, pokusajte ponovo");
+        }
+    }
+
+    // helper (package-private zbog JMH benchmark-a u perf modulu)
+    static BookingResponse toResponse(Booking b) {
         return new BookingResponse(
                 b.getId(),
                 b.getUserId(),
@@ -10,8 +10,10 @@ import java.time.LocalDateTime;
 @Table(name = "bookings")
 public class Booking {
 
+    // pooled sekvenca: IDENTITY iskljucuje JDBC batch insert
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -37,6 +39,11 @@ public class Booking {
     @Digits(integer = 8, fraction = 2)
     private BigDecimal price;
 
+    // optimisticko zakljucavanje; ujedno i ETag resursa (GET If-None-Match, PUT/DELETE If-Match)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     //getter-i
     public Long getId() {
         return id;
@@ -56,6 +63,9 @@ public class Booking {
     public BigDecimal getPrice() {
         return price;
     }
+    public Long getVersion() {
+        return version;
+    }
     //setter-i
     public void setId(Long id) {
         this.id = id;
@@ -75,4 +85,7 @@ public class Booking {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
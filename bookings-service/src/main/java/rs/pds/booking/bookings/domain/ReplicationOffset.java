@@ -0,0 +1,43 @@
+package rs.pds.booking.bookings.domain;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "replication_offset")
+public class ReplicationOffset {
+
+    @Id
+    @Column(length = 50)
+    private String stream;
+
+    @Column(nullable = false)
+    private long position;
+
+    // epoch toka kome position pripada (users-service outbox)
+    @Column(length = 36)
+    private String epoch;
+
+    protected ReplicationOffset() {}
+
+    public ReplicationOffset(String stream, long position) {
+        this.stream = stream;
+        this.position = position;
+    }
+
+    //getter-i i setter-i
+    public String getStream() {
+        return stream;
+    }
+    public long getPosition() {
+        return position;
+    }
+    public void setPosition(long position) {
+        this.position = position;
+    }
+    public String getEpoch() {
+        return epoch;
+    }
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+}
@@ -0,0 +1,47 @@
+package rs.pds.booking.bookings.domain;
+
+import jakarta.persistence.*;
+
+// kopija user-a iz users-service-a (samo polja koja bookings koristi), puni je UserReplicator
+@Entity
+@Table(name = "user_replica")
+public class UserReplica {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String name;
+
+    @Column(nullable = false, length = 30)
+    private String email;
+
+    private Long version;
+
+    //getter-i
+    public Long getId() {
+        return id;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    //setter-i
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,60 @@
+package rs.pds.booking.bookings.dto;
+
+// dogadjaj iz users-service outbox-a (GET /internal/users/events); type: CREATED | UPDATED | DELETED
+public class UserEvent {
+    private Long seq;
+    private String type;
+    private Long userId;
+    private String name;
+    private String email;
+    private Long version;
+
+    public UserEvent() {}
+
+    public UserEvent(Long seq, String type, Long userId, String name, String email, Long version) {
+        this.seq = seq;
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+    }
+
+    //getter-i i setter-i
+    public Long getSeq() {
+        return seq;
+    }
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+    public String getType() {
+        return type;
+    }
+    public void setType(String type) {
+        this.type = type;
+    }
+    public Long getUserId() {
+        return userId;
+    }
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
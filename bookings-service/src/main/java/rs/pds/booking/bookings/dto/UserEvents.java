@@ -0,0 +1,10 @@
+package rs.pds.booking.bookings.dto;
+
+import java.util.List;
+
+/**
+ * Blok toka izmena user-a (GET /internal/users/events): dogadjaji, epoch toka i poslednji dodeljeni seq (head).
+ * reset = offset je stariji od dogadjaja koje je users-service vec obrisao (OutboxRetention).
+ */
+public record UserEvents(String epoch, long head, boolean reset, List<UserEvent> events) {
+}
@@ -0,0 +1,51 @@
+package rs.pds.booking.bookings.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerZoneConfig;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import rs.pds.booking.common.loadbalancer.LatencyAwareLoadBalancer;
+import rs.pds.booking.common.loadbalancer.OverlayServiceInstanceListSupplier;
+import rs.pds.booking.common.loadbalancer.RegistryOverlay;
+
+/**
+ * Konfiguracija LoadBalancer konteksta po servisu (@LoadBalancerClients u BookingsServiceApplication).
+ * Namerno bez @Configuration: ne sme u component scan glavnog konteksta, vazi samo u kontekstu servisa.
+ * Zona se cita pri svakom izboru - Eureka je postavlja iz metadata-map posle kreiranja bean-a.
+ * Lista instanci: Eureka -> LoadBalancer kes -> izmene primljene push-om ({@link RegistryOverlay}).
+ * Kontekst servisa nema Boot konverzije, pa se trajanja ("10s") parsiraju rucno.
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "users.load-balancing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory clientFactory,
+                                                             LoadBalancerZoneConfig zoneConfig,
+                                                             @Value("${users.load-balancing.decay:10s}") String decay,
+                                                             @Value("${users.load-balancing.failure-threshold:3}") int failureThreshold,
+                                                             @Value("${users.load-balancing.ejection:10s}") String ejection,
+                                                             @Value("${users.load-balancing.zone-affinity:true}") boolean zoneAffinity) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(serviceId,
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                zoneConfig::getZone,
+                new LatencyAwareLoadBalancer.Settings(DurationStyle.detectAndParse(decay), failureThreshold,
+                        DurationStyle.detectAndParse(ejection), zoneAffinity));
+    }
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   RegistryOverlay overlay) {
+        return ServiceInstanceListSupplier.builder()
+                .withBlockingDiscoveryClient()
+                .withCaching()
+                .with((ctx, delegate) -> new OverlayServiceInstanceListSupplier(delegate, overlay))
+                .build(context);
+    }
+}
@@ -0,0 +1,32 @@
+package rs.pds.booking.bookings.loadbalancer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rs.pds.booking.common.loadbalancer.RegistryChangeWatcher;
+import rs.pds.booking.common.loadbalancer.RegistryOverlay;
+
+import java.time.Duration;
+
+// push izmena registra za Feign pozive ka users-service-u (users.registry-push); overlay postoji uvek, prazan kad je push ugasen
+@Configuration
+public class RegistryPushConfig {
+
+    @Bean
+    public RegistryOverlay registryOverlay(@Value("${users.registry-push.overlay-ttl:30s}") Duration overlayTtl) {
+        return new RegistryOverlay(overlayTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "users.registry-push", name = "enabled", havingValue = "true")
+    public RegistryChangeWatcher registryChangeWatcher(RegistryOverlay overlay,
+                                                       ObjectMapper objectMapper,
+                                                       @Value("${users.registry-push.url:}") String url,
+                                                       @Value("${eureka.client.service-url.defaultZone:http://localhost:8761/eureka}") String defaultZone,
+                                                       @Value("${users.registry-push.wait:30s}") Duration wait,
+                                                       @Value("${users.registry-push.retry-delay:5s}") Duration retryDelay) {
+        return new RegistryChangeWatcher(overlay, objectMapper, url, defaultZone, wait, retryDelay);
+    }
+}
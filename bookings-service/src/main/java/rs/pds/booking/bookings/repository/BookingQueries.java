@@ -0,0 +1,31 @@
+package rs.pds.booking.bookings.repository;
+
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// upiti sa opcionim filterima: u SQL ulaze samo zadati filteri, da bi baza mogla da koristi indekse
+public interface BookingQueries {
+
+    // keyset stranica: id > afterId, sortirano po id-ju
+    List<Booking> findPage(long afterId, Long userId, String resource, int limit);
+
+    // id prvog termina resursa (osim excludeId) koji se sece sa [start, end) - idx_bookings_resource_time
+    Optional<Long> findFirstOverlap(String resource, LocalDateTime start, LocalDateTime end, long excludeId);
+
+    // svi termini resursa koji se seku sa [from, to), id -> termin (jedan upit za ceo blok importa)
+    Map<Long, TimeSlot> findOverlapping(String resource, LocalDateTime from, LocalDateTime to);
+
+    // zakljucava redove resursa u booking_resource_locks do kraja tekuce transakcije (mora postojati)
+    void lockResources(Collection<String> resources);
+
+    // projekcija direktno u DTO -> nista se ne kaci na persistence context dok se strimuje
+    Stream<BookingResponse> streamResponses(Long userId, String resource);
+}
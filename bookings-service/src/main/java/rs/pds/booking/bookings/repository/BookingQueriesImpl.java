@@ -0,0 +1,100 @@
+package rs.pds.booking.bookings.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+class BookingQueriesImpl implements BookingQueries {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findPage(long afterId, Long userId, String resource, int limit) {
+        var params = new LinkedHashMap<String, Object>();
+        params.put("afterId", afterId);
+        String where = where(params, userId, resource);
+        TypedQuery<Booking> query = entityManager.createQuery(
+                "select b from Booking b where b.id > :afterId" + where + " order by b.id", Booking.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Optional<Long> findFirstOverlap(String resource, LocalDateTime start, LocalDateTime end, long excludeId) {
+        return entityManager.createQuery("""
+                select b.id from Booking b
+                where b.resourceName = :resource and b.start < :end and b.end > :start and b.id <> :excludeId""", Long.class)
+                .setParameter("resource", resource)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("excludeId", excludeId)
+                .setMaxResults(1)
+                // lista, ne stream: van transakcije bi stream citao posle zatvaranja konekcije
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Map<Long, TimeSlot> findOverlapping(String resource, LocalDateTime from, LocalDateTime to) {
+        var slots = new LinkedHashMap<Long, TimeSlot>();
+        entityManager.createQuery("""
+                select b.id, b.start, b.end from Booking b
+                where b.resourceName = :resource and b.start < :to and b.end > :from""", Object[].class)
+                .setParameter("resource", resource)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .forEach(row -> slots.put((Long) row[0], new TimeSlot((LocalDateTime) row[1], (LocalDateTime) row[2])));
+        return slots;
+    }
+
+    @Override
+    public void lockResources(Collection<String> resources) {
+        // uvek istim redosledom, da se dve instance ne zakljucaju medjusobno; MERGE upisuje red ako ga nema
+        // i drzi row lock do commit-a, pa druga transakcija na istom resursu ceka
+        resources.stream().distinct().sorted().forEach(resource -> entityManager.createNativeQuery(
+                        "MERGE INTO booking_resource_locks (resource_name) KEY (resource_name) VALUES (:resource)")
+                .setParameter("resource", resource)
+                .executeUpdate());
+    }
+
+    @Override
+    public Stream<BookingResponse> streamResponses(Long userId, String resource) {
+        var params = new LinkedHashMap<String, Object>();
+        String where = where(params, userId, resource);
+        TypedQuery<BookingResponse> query = entityManager.createQuery("""
+                select new rs.pds.booking.common.dto.BookingResponse(b.id, b.userId, b.resourceName, b.start, b.end, b.price)
+                from Booking b where 1 = 1""" + where + " order by b.id", BookingResponse.class);
+        params.forEach(query::setParameter);
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE).getResultStream();
+    }
+
+    private static String where(Map<String, Object> params, Long userId, String resource) {
+        var where = new StringBuilder();
+        if (userId != null) {
+            where.append(" and b.userId = :userId");
+            params.put("userId", userId);
+        }
+        if (resource != null) {
+            where.append(" and b.resourceName = :resource");
+            params.put("resource", resource);
+        }
+        return where.toString();
+    }
+}
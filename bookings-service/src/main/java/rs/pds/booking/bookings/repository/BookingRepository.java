@@ -1,10 +1,35 @@
 package rs.pds.booking.bookings.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.common.dto.BookingResponse;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueries {
     Optional<Booking> findByUserIdAndResourceName(Long userId, String resourceName);
+
+    // bulk import: postojeci booking-zi za vise korisnika jednim upitom (idx_bookings_user_resource)
+    List<Booking> findByUserIdIn(Collection<Long> userIds);
+
+    // brisanje samo ako je verzija ista kao pri citanju (provera i brisanje su jedan upit); 0 = izmenjen ili obrisan
+    @Transactional
+    @Modifying
+    @Query("delete from Booking b where b.id = :id and b.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Transactional(readOnly = true)
+    default void forEachResponse(Long userId, String resource, Consumer<BookingResponse> sink) {
+        try (Stream<BookingResponse> rows = streamResponses(userId, resource)) {
+            rows.forEach(sink);
+        }
+    }
 }
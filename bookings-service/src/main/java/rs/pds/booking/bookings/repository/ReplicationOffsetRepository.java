@@ -0,0 +1,7 @@
+package rs.pds.booking.bookings.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import rs.pds.booking.bookings.domain.ReplicationOffset;
+
+public interface ReplicationOffsetRepository extends JpaRepository<ReplicationOffset, String> {
+}
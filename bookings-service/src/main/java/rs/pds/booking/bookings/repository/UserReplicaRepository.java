@@ -0,0 +1,7 @@
+package rs.pds.booking.bookings.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import rs.pds.booking.bookings.domain.UserReplica;
+
+public interface UserReplicaRepository extends JpaRepository<UserReplica, Long> {
+}
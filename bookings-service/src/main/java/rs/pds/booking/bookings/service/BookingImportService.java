@@ -0,0 +1,202 @@
+package rs.pds.booking.bookings.service;
+
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.common.bulk.BulkImportState;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResult;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import booking-a (partnerski import): redovi se obradjuju u blokovima od CHUNK_SIZE.
+ * Po bloku: jedan users-service poziv (kroz {@link UserGuard}) za nove userId-eve kojih nema u lokalnoj replici,
+ * jedan upit za postojece booking-e i jedan batch upis (Hibernate JDBC batching) pod lock-ovima interval indeksa.
+ * Semantika reda je ista kao POST /bookings (upsert po userId + resourceName, trajanje 7 dana).
+ * Svaki blok je svoja transakcija, pa greska (users-service, baza) ne prekida import posle vec upisanih blokova:
+ * redovi koji nisu upisani dobijaju FAILED u rezultatu, a ostali blokovi se obradjuju dalje.
+ */
+@Service
+public class BookingImportService {
+
+    // users-service prima najvise 500 id-jeva po pozivu, pa blok od 500 redova staje u jedan poziv
+    static final int CHUNK_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(BookingImportService.class);
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final UserGuard userGuard;
+    private final UserReplicator replicator;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingImportService(BookingRepository bookingRepository,
+                                BookingIntervalIndex intervalIndex,
+                                UserGuard userGuard,
+                                UserReplicator replicator,
+                                Validator validator,
+                                TransactionTemplate transactionTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.intervalIndex = intervalIndex;
+        this.userGuard = userGuard;
+        this.replicator = replicator;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public BulkBookingResponse importAll(Iterator<BookingRequest> rows) {
+        var response = new BulkBookingResponse();
+        var state = new BulkImportState(validator);
+        List<BookingRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(index, chunk, state).forEach(response::add);
+                index += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(index, chunk, state).forEach(response::add);
+        }
+        return response;
+    }
+
+    private List<BulkBookingResult> importChunk(int firstIndex, List<BookingRequest> chunk, BulkImportState state) {
+        BulkBookingResult[] results = new BulkBookingResult[chunk.size()];
+
+        // 1) validacija i duplikati u okviru importa
+        List<Integer> valid = state.screen(firstIndex, chunk, results);
+
+        // 2) svi novi userId-evi iz bloka: prvo lokalna replika, ostatak jednim pozivom
+        Set<Long> unknown = state.uncheckedUserIds(chunk, valid);
+        if (!unknown.isEmpty()) {
+            Set<Long> local = replicator.findLocalIds(unknown);
+            state.usersChecked(local, local);
+            unknown.removeAll(local);
+        }
+        if (!unknown.isEmpty()) {
+            Set<Long> existing = fetchExistingUserIds(unknown);
+            if (existing != null) {
+                state.usersChecked(unknown, existing);
+            }
+        }
+        List<Integer> candidatesAt = state.withExistingUser(firstIndex, chunk, valid, results);
+
+        // 3) postojeci booking-zi za upsert jednim upitom; (userId, resurs) nema unique indeks (npr. PUT promeni resurs),
+        // pa kod duplikata upsert azurira najstariji umesto da toMap baci IllegalStateException
+        Set<Long> userIds = candidatesAt.stream().map(i -> chunk.get(i).getUserId()).collect(Collectors.toSet());
+        Map<String, Long> existingIds = userIds.isEmpty() ? Map.of() : bookingRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(b -> BulkImportState.key(b.getUserId(), b.getResourceName()), Booking::getId, Math::min));
+        Set<Long> updatedIds = new HashSet<>(existingIds.values());
+
+        List<Booking> candidates = new ArrayList<>(candidatesAt.size());
+        for (int i : candidatesAt) {
+            BookingRequest row = chunk.get(i);
+            LocalDateTime start = row.getStart();
+            Booking b = new Booking();
+            b.setId(existingIds.get(BulkImportState.key(row.getUserId(), row.getResourceName())));
+            b.setUserId(row.getUserId());
+            b.setResourceName(row.getResourceName());
+            b.setStart(start);
+            b.setEnd(start.plusDays(7));
+            b.setPrice(row.getPrice());
+            candidates.add(b);
+        }
+
+        // 4) provera termina + batch upis
+        List<String> rejections;
+        try {
+            rejections = candidates.isEmpty() ? List.of() : intervalIndex.reserveAll(candidates, this::persistAll);
+        } catch (DataAccessException | TransactionException e) {
+            // transakcija bloka je vracena: nijedan red iz bloka nije upisan
+            log.warn("Bulk import: upis bloka od reda {} nije uspeo: {}", firstIndex, e.toString());
+            for (int i : candidatesAt) {
+                results[i] = BulkBookingResult.failed(firstIndex + i, "Upis nije uspeo, red nije upisan");
+            }
+            return List.of(results);
+        }
+        for (int c = 0; c < candidates.size(); c++) {
+            int i = candidatesAt.get(c);
+            Booking b = candidates.get(c);
+            results[i] = rejections.get(c) != null
+                    ? BulkBookingResult.rejected(firstIndex + i, rejections.get(c))
+                    : new BulkBookingResult(firstIndex + i,
+                            updatedIds.contains(b.getId()) ? BulkBookingResult.Status.UPDATED : BulkBookingResult.Status.CREATED,
+                            b.getId(), null);
+        }
+        return List.of(results);
+    }
+
+    // jedna transakcija po bloku: novi redovi se persist-uju (id iz pooled sekvence), postojeci se
+    // ucitaju po PK i menjaju kao managed entiteti - flush salje i insert-e i update-e u JDBC batch-evima
+    private List<Booking> persistAll(List<Booking> accepted) {
+        return transactionTemplate.execute(tx -> {
+            Map<Long, Booking> managed = bookingRepository.findAllById(accepted.stream()
+                            .map(Booking::getId)
+                            .filter(id -> id != null)
+                            .toList())
+                    .stream()
+                    .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+            List<Booking> toSave = new ArrayList<>(accepted.size());
+            for (Booking b : accepted) {
+                if (b.getId() == null) {
+                    toSave.add(b);
+                    continue;
+                }
+                Booking existing = managed.get(b.getId());
+                if (existing == null) {
+                    b.setId(null); // obrisan u medjuvremenu -> upisuje se kao nov
+                    toSave.add(b);
+                    continue;
+                }
+                existing.setStart(b.getStart());
+                existing.setEnd(b.getEnd());
+                existing.setPrice(b.getPrice());
+                toSave.add(existing);
+            }
+            List<Booking> saved = bookingRepository.saveAll(toSave);
+            // id-jevi novih redova nazad u kandidate (za rezultat po redu)
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).setId(saved.get(i).getId());
+            }
+            return saved;
+        });
+    }
+
+    // null = users-service nedostupan (fallback UserGuard-a je vec logovao); redovi tih user-a dobijaju FAILED
+    private Set<Long> fetchExistingUserIds(Set<Long> userIds) {
+        try {
+            return userGuard.loadAll(userIds).join().stream()
+                    .map(UserSummary::getId)
+                    .collect(Collectors.toSet());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ResponseStatusException) {
+                return null;
+            }
+            throw e;
+        }
+    }
+}
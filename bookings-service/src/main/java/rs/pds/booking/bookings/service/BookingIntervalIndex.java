@@ -0,0 +1,330 @@
+package rs.pds.booking.bookings.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.common.dto.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+/**
+ * In-memory indeks termina po resursu: za svaki resurs TreeMap (start -> termin)
+ * sa disjunktnim intervalima [start, end), pa je provera preklapanja O(log n).
+ * <p>
+ * Upis (provera + save u bazu + azuriranje indeksa) ide pod write lock-om resursa,
+ * tako da dva istovremena zahteva za isti resurs ne mogu oba da prodju.
+ * Indeks se gradi iz baze na startu i vazi za jednu instancu servisa; termine koje su upisale
+ * druge instance ne vidi (ni GET /availability), pa se pre save-a isti interval proverava i u bazi
+ * (idx_bookings_resource_time), u istoj transakciji sa upisom i pod row lock-om resursa u
+ * booking_resource_locks - dve instance ne mogu istovremeno da prodju proveru za isti resurs.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, ResourceTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slotsById = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository, TransactionTemplate transactionTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // userId se cuva samo kao hint za details pipeline (user fetch moze da krene pre citanja iz baze)
+    record Slot(long bookingId, long userId, String resource, LocalDateTime start, LocalDateTime end) {}
+
+    static final class ResourceTimeline {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final TreeMap<LocalDateTime, Slot> byStart = new TreeMap<>();
+
+        // prvi termin (osim excludeId) koji se sece sa [start, end), ili null
+        Slot findConflict(LocalDateTime start, LocalDateTime end, Long excludeId) {
+            var candidate = byStart.lowerEntry(end);
+            // intervali su disjunktni: posle preskakanja sopstvenog termina dovoljan je jos jedan korak
+            for (int i = 0; i < 2 && candidate != null; i++) {
+                Slot slot = candidate.getValue();
+                if (!slot.end().isAfter(start)) {
+                    return null;
+                }
+                if (excludeId == null || slot.bookingId() != excludeId) {
+                    return slot;
+                }
+                candidate = byStart.lowerEntry(slot.start());
+            }
+            return null;
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        timelines.clear();
+        slotsById.clear();
+        var skipped = new AtomicInteger();
+        bookingRepository.forEachResponse(null, null, b -> {
+            var slot = new Slot(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd());
+            var timeline = timeline(slot.resource());
+            if (timeline.findConflict(slot.start(), slot.end(), null) != null) {
+                skipped.incrementAndGet();
+                log.warn("Booking {} se preklapa sa postojecim terminom za '{}', nije indeksiran", slot.bookingId(), slot.resource());
+                return;
+            }
+            put(timeline, slot);
+        });
+        log.info("Interval indeks izgradjen: {} termina, {} resursa, {} preskoceno", slotsById.size(), timelines.size(), skipped.get());
+    }
+
+    /**
+     * Rezervise [start, end) za resurs i pod lock-om poziva persist (save u bazu).
+     * bookingId je id postojeceg booking-a koji se menja (null za novi) - njegov stari termin
+     * se ne racuna kao konflikt. Ako se termin preklapa -> 409 CONFLICT.
+     */
+    public Booking reserve(Long bookingId, String resource, LocalDateTime start, LocalDateTime end,
+                           Supplier<Booking> persist) {
+        while (true) {
+            Slot previous = bookingId == null ? null : slotsById.get(bookingId);
+            var locked = writeLockAll(Stream.of(resource, previous == null ? null : previous.resource()));
+            try {
+                if (bookingId != null && slotsById.get(bookingId) != previous) {
+                    continue; // neko je u medjuvremenu pomerio isti booking, probaj ponovo
+                }
+                var timeline = timeline(resource);
+                Slot conflict = timeline.findConflict(start, end, bookingId);
+                if (conflict != null) {
+                    throw conflict(resource, conflict.bookingId());
+                }
+
+                // provera u bazi i save u jednoj transakciji, pod lock-om resursa u bazi (druge instance)
+                Booking saved = transactionTemplate.execute(tx -> {
+                    bookingRepository.lockResources(List.of(resource));
+                    bookingRepository.findFirstOverlap(resource, start, end, bookingId == null ? -1L : bookingId)
+                            .ifPresent(persisted -> {
+                                throw conflict(resource, persisted);
+                            });
+                    return persist.get();
+                });
+
+                if (previous != null) {
+                    remove(timeline(previous.resource()), previous);
+                }
+                put(timeline, slotOf(saved));
+                return saved;
+            } finally {
+                locked.forEach(t -> t.lock.writeLock().unlock());
+            }
+        }
+    }
+
+    /**
+     * Bulk varijanta {@link #reserve}: zakljucava sve resurse iz batch-a odjednom, proverava svaki red
+     * prema indeksu, prema bazi i prema vec prihvacenim redovima istog batch-a, a prihvacene upisuje jednim
+     * persistAll pozivom (vraca sacuvane booking-e istim redosledom). Baza se cita jednim upitom po resursu
+     * (od najranijeg pocetka do najkasnijeg kraja u batch-u), a preklapanja se traze u memoriji.
+     * Vraca razlog odbijanja za svaki ulazni red (null = prihvacen).
+     */
+    public List<String> reserveAll(List<Booking> candidates, UnaryOperator<List<Booking>> persistAll) {
+        while (true) {
+            Map<Long, Slot> previous = new HashMap<>();
+            for (Booking c : candidates) {
+                Slot slot = c.getId() == null ? null : slotsById.get(c.getId());
+                if (slot != null) {
+                    previous.put(c.getId(), slot);
+                }
+            }
+            var locked = writeLockAll(Stream.concat(
+                    candidates.stream().map(Booking::getResourceName),
+                    previous.values().stream().map(Slot::resource)));
+            try {
+                boolean moved = candidates.stream()
+                        .anyMatch(c -> c.getId() != null && slotsById.get(c.getId()) != previous.get(c.getId()));
+                if (moved) {
+                    continue;
+                }
+
+                List<String> rejections = new ArrayList<>(candidates.size());
+                // indeks se menja tek posle commit-a: neuspesan upis ga ostavlja netaknutim
+                List<Booking> saved = transactionTemplate.execute(tx -> {
+                    Map<String, ResourceTimeline> persisted = persistedTimelines(candidates);
+                    List<Booking> accepted = new ArrayList<>();
+                    Map<String, ResourceTimeline> batch = new HashMap<>();
+                    for (Booking c : candidates) {
+                        Slot conflict = timeline(c.getResourceName()).findConflict(c.getStart(), c.getEnd(), c.getId());
+                        var own = batch.computeIfAbsent(c.getResourceName(), r -> new ResourceTimeline());
+                        if (conflict == null) {
+                            conflict = persisted.get(c.getResourceName()).findConflict(c.getStart(), c.getEnd(), c.getId());
+                        }
+                        if (conflict != null) {
+                            rejections.add(conflict(c.getResourceName(), conflict.bookingId()).getReason());
+                        } else if (own.findConflict(c.getStart(), c.getEnd(), null) != null) {
+                            rejections.add("Termin se preklapa sa drugim redom iz istog importa");
+                        } else {
+                            own.byStart.put(c.getStart(), new Slot(-1, c.getUserId(), c.getResourceName(), c.getStart(), c.getEnd()));
+                            accepted.add(c);
+                            rejections.add(null);
+                        }
+                    }
+
+                    return accepted.isEmpty() ? List.<Booking>of() : persistAll.apply(accepted);
+                });
+
+                for (Booking b : saved) {
+                    Slot old = previous.get(b.getId());
+                    if (old != null) {
+                        remove(timeline(old.resource()), old);
+                    }
+                    put(timeline(b.getResourceName()), slotOf(b));
+                }
+                return rejections;
+            } finally {
+                locked.forEach(t -> t.lock.writeLock().unlock());
+            }
+        }
+    }
+
+    // brise booking i izbacuje ga iz indeksa; zakljucava resurs booking-a i resurs iz indeksa (razlikuju se
+    // ako je booking u medjuvremenu premesten), pa delete ne moze da se preplete sa upisom ni na jednom od njih
+    public void release(Booking booking, Runnable delete) {
+        while (true) {
+            Slot slot = slotsById.get(booking.getId());
+            var locked = writeLockAll(Stream.of(booking.getResourceName(), slot == null ? null : slot.resource()));
+            try {
+                if (slotsById.get(booking.getId()) != slot) {
+                    continue; // premesten izmedju citanja i lock-a, probaj ponovo
+                }
+                delete.run();
+                if (slot != null) {
+                    remove(timeline(slot.resource()), slot);
+                }
+                return;
+            } finally {
+                locked.forEach(t -> t.lock.writeLock().unlock());
+            }
+        }
+    }
+
+    // userId booking-a iz indeksa (bez citanja iz baze), null ako booking nije indeksiran
+    public Long userIdOf(long bookingId) {
+        Slot slot = slotsById.get(bookingId);
+        return slot == null ? null : slot.userId();
+    }
+
+    public boolean isFree(String resource, LocalDateTime start, LocalDateTime end) {
+        var timeline = timelines.get(resource);
+        if (timeline == null) {
+            return true;
+        }
+        timeline.lock.readLock().lock();
+        try {
+            return timeline.findConflict(start, end, null) == null;
+        } finally {
+            timeline.lock.readLock().unlock();
+        }
+    }
+
+    // slobodni prozori za resurs u [from, to): prolazi samo kroz termine iz opsega (O(log n + k))
+    public List<TimeSlot> freeSlots(String resource, LocalDateTime from, LocalDateTime to) {
+        var timeline = timelines.get(resource); // citanje ne pravi nove timeline-ove
+        if (timeline == null) {
+            return List.of(new TimeSlot(from, to));
+        }
+        timeline.lock.readLock().lock();
+        try {
+            // termin koji pocinje pre from moze i dalje da pokriva pocetak opsega
+            LocalDateTime first = Objects.requireNonNullElse(timeline.byStart.lowerKey(from), from);
+            List<TimeSlot> free = new ArrayList<>();
+            LocalDateTime cursor = from;
+            for (Slot slot : timeline.byStart.subMap(first, true, to, false).values()) {
+                if (slot.start().isAfter(cursor)) {
+                    free.add(new TimeSlot(cursor, slot.start()));
+                }
+                if (slot.end().isAfter(cursor)) {
+                    cursor = slot.end();
+                }
+            }
+            if (cursor.isBefore(to)) {
+                free.add(new TimeSlot(cursor, to));
+            }
+            return free;
+        } finally {
+            timeline.lock.readLock().unlock();
+        }
+    }
+
+    // termini iz baze (i oni koje su upisale druge instance) za resurse iz batch-a: zakljucava resurse u bazi,
+    // pa jedan upit po resursu za opseg [najraniji start, najkasniji end); poziva se pod write lock-ovima resursa
+    private Map<String, ResourceTimeline> persistedTimelines(List<Booking> candidates) {
+        Map<String, LocalDateTime> from = new HashMap<>();
+        Map<String, LocalDateTime> to = new HashMap<>();
+        for (Booking c : candidates) {
+            from.merge(c.getResourceName(), c.getStart(), (a, b) -> a.isBefore(b) ? a : b);
+            to.merge(c.getResourceName(), c.getEnd(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        bookingRepository.lockResources(from.keySet());
+        Map<String, ResourceTimeline> persisted = new HashMap<>();
+        from.forEach((resource, start) -> {
+            var timeline = new ResourceTimeline();
+            // termini u bazi su disjunktni (svaki upis prolazi ovu proveru), pa je jedan po pocetku dovoljan
+            bookingRepository.findOverlapping(resource, start, to.get(resource)).forEach((id, slot) ->
+                    timeline.byStart.putIfAbsent(slot.getStart(), new Slot(id, -1, resource, slot.getStart(), slot.getEnd())));
+            persisted.put(resource, timeline);
+        });
+        return persisted;
+    }
+
+    private static ResponseStatusException conflict(String resource, long bookingId) {
+        return new ResponseStatusException(CONFLICT, "Termin je zauzet (resurs: " + resource + ", bookingId: " + bookingId + ")");
+    }
+
+    ResourceTimeline timeline(String resource) {
+        return timelines.computeIfAbsent(resource, r -> new ResourceTimeline());
+    }
+
+    // lock-ovi se uzimaju uvek istim redosledom (po imenu resursa) da ne bi doslo do deadlock-a
+    private List<ResourceTimeline> writeLockAll(Stream<String> resources) {
+        var locked = resources
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.naturalOrder())
+                .map(this::timeline)
+                .toList();
+        locked.forEach(t -> t.lock.writeLock().lock());
+        return locked;
+    }
+
+    private static Slot slotOf(Booking b) {
+        return new Slot(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd());
+    }
+
+    private void put(ResourceTimeline timeline, Slot slot) {
+        timeline.byStart.put(slot.start(), slot);
+        slotsById.put(slot.bookingId(), slot);
+    }
+
+    private void remove(ResourceTimeline timeline, Slot slot) {
+        timeline.byStart.remove(slot.start(), slot);
+        slotsById.remove(slot.bookingId(), slot);
+    }
+}
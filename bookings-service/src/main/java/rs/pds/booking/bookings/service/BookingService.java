@@ -1,50 +1,141 @@
 package rs.pds.booking.bookings.service;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import rs.pds.booking.bookings.client.UserClient;
+import org.springframework.web.server.ResponseStatusException;
 import rs.pds.booking.bookings.domain.Booking;
-import rs.pds.booking.bookings.dto.BookingDetails;
-import rs.pds.booking.bookings.dto.UserSummary;
 import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.bookings.support.SingleFlight;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @Service
 public class BookingService {
 
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
 
+    static final String DETAILS_TIMER = "bookings.details";
+
     private final BookingRepository bookingRepository;
-    private final UserClient userClient;
+    private final UserLookupService userLookupService;
+    private final BookingIntervalIndex intervalIndex;
+
+    private final Timer bookingStage;
+    private final Timer userStage;
+    private final Timer totalStage;
+
+    // user fetch nosi trace / MDC kontekst zahteva (kao loader u UserCacheConfig)
+    private final ExecutorService fanOut = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), ContextSnapshotFactory.builder().build()::captureAll);
+    private final SingleFlight<Long, Optional<Booking>> bookingReads;
 
-    public BookingService(BookingRepository bookingRepository, UserClient userClient) {
+    public BookingService(BookingRepository bookingRepository,
+                          UserLookupService userLookupService,
+                          BookingIntervalIndex intervalIndex,
+                          MeterRegistry meterRegistry) {
         this.bookingRepository = bookingRepository;
-        this.userClient = userClient;
+        this.userLookupService = userLookupService;
+        this.intervalIndex = intervalIndex;
+        this.bookingStage = stageTimer(meterRegistry, "booking");
+        this.userStage = stageTimer(meterRegistry, "user");
+        this.totalStage = stageTimer(meterRegistry, "total");
+        this.bookingReads = new SingleFlight<>("booking", meterRegistry);
     }
 
-    @CircuitBreaker(name="usersClient", fallbackMethod = "getDetailsFallback")
-    @Retry(name="usersClient")
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder(DETAILS_TIMER)
+                .description("Trajanje faza GET /bookings/{id}/details")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    /**
+     * Booking se cita jednom, user se dohvata jednom. userId se uzima iz interval indeksa,
+     * pa user fetch (users-service / kes) ide paralelno sa citanjem iz baze; ako booking
+     * nije u indeksu ili je u medjuvremenu promenio korisnika, user se dohvata posle citanja.
+     * Resilience politike vaze na samom user lookup-u ({@link UserGuard}); ako users-service
+     * nije dostupan, detalji se vracaju sa placeholder user-om.
+     */
     public BookingDetails getDetails(Long bookingId){
-        Booking b =  bookingRepository.findById(bookingId).orElseThrow(() -> new IllegalArgumentException("Booking po ID-ju nije nadjen (ID: "+bookingId+")"));
+        return totalStage.record(() -> {
+            Long hintedUserId = intervalIndex.userIdOf(bookingId);
+            CompletableFuture<Optional<UserSummary>> userFuture = hintedUserId == null ? null
+                    : CompletableFuture.supplyAsync(() -> fetchUser(hintedUserId), fanOut);
 
-        UserSummary user = userClient.getById(b.getUserId());
+            Booking b = bookingStage.record(() -> findById(bookingId))
+                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Booking ne postoji"));
 
-        return new BookingDetails(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd(), b.getPrice(), user);
+            Optional<UserSummary> user;
+            try {
+                user = b.getUserId().equals(hintedUserId)
+                        ? join(userFuture)
+                        : fetchUser(b.getUserId());
+            } catch (RuntimeException e) {
+                return degraded(b, e);
+            }
+
+            return toDetails(b, user.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "User ne postoji")));
+        });
     }
 
-    public BookingDetails getDetailsFallback(Long bookingId, Throwable ex) {
-        log.warn("Fallback trigerovan za bookingId: {}, cause: {}",
-                bookingId, ex != null ? ex.toString() : "n/a");
+    /**
+     * Citanje za GET: istovremeni zahtevi za isti id dele jedan upit. Vraceni Booking je detached i
+     * deljen izmedju zahteva, pa se samo cita (izmene idu preko bookingRepository.findById).
+     */
+    public Optional<Booking> findById(Long bookingId) {
+        return bookingReads.load(bookingId, () -> bookingRepository.findById(bookingId));
+    }
 
-        Booking b = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking " + bookingId + " nije pronadjen."));
+    // posle upisa / brisanja booking-a
+    public void forget(Long bookingId) {
+        bookingReads.forget(bookingId);
+    }
 
-        UserSummary user = new UserSummary(null, "UNAVAILABLE", "unavailable@local");
+    // close() ceka user fetch-eve koji su u toku
+    @PreDestroy
+    public void closeFanOut() {
+        fanOut.close();
+    }
 
-        return new BookingDetails(
-                b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd(), b.getPrice(), user
-        );
+    private Optional<UserSummary> fetchUser(Long userId) {
+        return userStage.record(() -> userLookupService.findById(userId));
+    }
+
+    // greska iz paralelne faze se vraca kao originalni izuzetak
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private BookingDetails degraded(Booking b, RuntimeException ex) {
+        if (ex instanceof ResponseStatusException rse && rse.getStatusCode() == NOT_FOUND) {
+            throw rse;
+        }
+        log.warn("Details bez user-a za bookingId: {}, cause: {}", b.getId(), ex.toString());
+        return toDetails(b, new UserSummary(null, "UNAVAILABLE", "unavailable@local"));
+    }
+
+    private static BookingDetails toDetails(Booking b, UserSummary user) {
+        return new BookingDetails(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd(), b.getPrice(), user);
     }
 }
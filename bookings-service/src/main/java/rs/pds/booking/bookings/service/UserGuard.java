@@ -0,0 +1,85 @@
+package rs.pds.booking.bookings.service;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import rs.pds.booking.bookings.client.UserBatchLoader;
+import rs.pds.booking.common.dto.UserSummary;
+import rs.pds.booking.common.users.UsersClientPolicies;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Jedino mesto gde bookings-service zove users-service za lookup korisnika.
+ * Poziv je async (future iz {@link UserBatchLoader}), pa preko Spring proxy-ja vaze sve politike
+ * instance "usersClient", redom spolja ka unutra: Retry -> CircuitBreaker -> TimeLimiter -> Bulkhead.
+ * Sporo users-service-u se zato ne ceka do Feign readTimeout-a: TimeLimiter prekida cekanje,
+ * pun Bulkhead odmah odbija, a otvoren CircuitBreaker ne pusti poziv uopste.
+ * Optional.empty() (404) je regularan odgovor, ne greska.
+ */
+@Component
+public class UserGuard {
+
+    public static final String USERS_CLIENT = UsersClientPolicies.USERS_CLIENT;
+
+    private static final Logger log = LoggerFactory.getLogger(UserGuard.class);
+
+    private final UserBatchLoader userBatchLoader;
+    private final RetryRegistry retryRegistry;
+    private final CircuitBreakerRegistry cbRegistry;
+
+    public UserGuard(UserBatchLoader userBatchLoader, RetryRegistry retryRegistry, CircuitBreakerRegistry cbRegistry) {
+        this.userBatchLoader = userBatchLoader;
+        this.retryRegistry = retryRegistry;
+        this.cbRegistry = cbRegistry;
+    }
+
+    @PostConstruct
+    public void wireResilienceLogging() {
+        UsersClientPolicies.logEvents(retryRegistry, cbRegistry, log);
+    }
+
+    @Retry(name = USERS_CLIENT, fallbackMethod = "loadFallback")
+    @CircuitBreaker(name = USERS_CLIENT)
+    @TimeLimiter(name = USERS_CLIENT)
+    @Bulkhead(name = USERS_CLIENT)
+    public CompletableFuture<Optional<UserSummary>> load(Long userId) {
+        return userBatchLoader.load(userId);
+    }
+
+    // bulk import: vise id-jeva jednim pozivom, pod istim politikama (jedan poziv = jedna dozvola bulkhead-a)
+    @Retry(name = USERS_CLIENT, fallbackMethod = "loadAllFallback")
+    @CircuitBreaker(name = USERS_CLIENT)
+    @TimeLimiter(name = USERS_CLIENT)
+    @Bulkhead(name = USERS_CLIENT)
+    public CompletableFuture<List<UserSummary>> loadAll(Collection<Long> userIds) {
+        return userBatchLoader.loadAll(userIds);
+    }
+
+    public void forget(Long userId) {
+        userBatchLoader.forget(userId);
+    }
+
+    // sve sto nije regularan odgovor (timeout, pun bulkhead, otvoren CB, Feign greska) -> 503
+    // public: Resilience4j FallbackMethod za private metodu radi setAccessible(true/false) na deljenom Method-u,
+    // pa istovremeni fallback-ovi pucaju sa IllegalAccessException (500 umesto 503)
+    @SuppressWarnings("unused")
+    public CompletableFuture<Optional<UserSummary>> loadFallback(Long userId, Throwable t) {
+        return CompletableFuture.failedFuture(UsersClientPolicies.unavailable(userId, t, log));
+    }
+
+    @SuppressWarnings("unused")
+    public CompletableFuture<List<UserSummary>> loadAllFallback(Collection<Long> userIds, Throwable t) {
+        return CompletableFuture.failedFuture(UsersClientPolicies.unavailable(userIds.size() + " id-jeva", t, log));
+    }
+}
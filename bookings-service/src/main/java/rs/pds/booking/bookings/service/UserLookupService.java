@@ -0,0 +1,52 @@
+package rs.pds.booking.bookings.service;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Lokalni kes korisnika ispred users-service-a.
+ * Optional.empty() (404) se takodje kesira (negativni kes), ostale Feign greske ne.
+ * Promasaji kesa prvo gledaju lokalnu repliku ({@link UserReplicator}); tek ako user nije u replici,
+ * poziv ide kroz {@link UserGuard} (resilience politike) i batch loader, pa se istovremeni
+ * lookup-i spajaju u jedan poziv. Pogoci iz kesa i replike ne zavise od stanja users-service-a.
+ */
+@Service
+public class UserLookupService {
+
+    public static final String USERS_CACHE = "users";
+
+    private final UserGuard userGuard;
+    private final UserReplicator replicator;
+
+    public UserLookupService(UserGuard userGuard, UserReplicator replicator) {
+        this.userGuard = userGuard;
+        this.replicator = replicator;
+    }
+
+    @Cacheable(cacheNames = USERS_CACHE, key = "#p0", sync = true)
+    public Optional<UserSummary> findById(Long userId) {
+        var local = replicator.findLocal(userId);
+        if (local.isPresent()) {
+            return local;
+        }
+        try {
+            return userGuard.load(userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#p0")
+    public void evict(Long userId) {
+        // izbacuje iz kesa; lookup koji je vec u toku se ne deli sa novim zahtevima
+        userGuard.forget(userId);
+    }
+}
@@ -0,0 +1,210 @@
+package rs.pds.booking.bookings.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.pds.booking.bookings.client.UserEventSource;
+import rs.pds.booking.bookings.domain.ReplicationOffset;
+import rs.pds.booking.bookings.domain.UserReplica;
+import rs.pds.booking.bookings.dto.UserEvent;
+import rs.pds.booking.bookings.dto.UserEvents;
+import rs.pds.booking.bookings.repository.ReplicationOffsetRepository;
+import rs.pds.booking.bookings.repository.UserReplicaRepository;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lokalna replika user-a: periodicno povlaci dogadjaje iz users-service outbox-a ({@link UserEventSource})
+ * i primenjuje ih na tabelu user_replica. Dogadjaji bloka i novi offset se upisuju u istoj transakciji,
+ * pa posle restarta replika nastavlja tacno gde je stala.
+ * Dok replika prvi put ne stigne do kraja toka (ready), lookup-i idu na users-service kao ranije;
+ * posle toga postojeci user-i se nalaze lokalno, i kad users-service nije dostupan.
+ * Lokalni promasaj (npr. user napravljen pre par ms, dogadjaj jos nije stigao) i dalje ide na users-service.
+ * Kad se epoch toka promeni (nova baza users-service-a), offset je veci od head-a ili je users-service vec obrisao
+ * dogadjaje posle offset-a, replika se brise i tok se cita od 0 (reset).
+ */
+@Component
+public class UserReplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(UserReplicator.class);
+
+    static final String STREAM = "users";
+
+    private final UserEventSource source;
+    private final UserReplicaRepository replicaRepository;
+    private final ReplicationOffsetRepository offsetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final Counter applied;
+    private volatile long position = -1; // -1 = jos nije ucitan iz baze
+    private volatile String epoch;
+    private volatile boolean ready;
+    private volatile long lastSyncNanos = System.nanoTime();
+    private volatile boolean failing;
+
+    public UserReplicator(UserEventSource source,
+                          UserReplicaRepository replicaRepository,
+                          ReplicationOffsetRepository offsetRepository,
+                          TransactionTemplate transactionTemplate,
+                          CacheManager cacheManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${users.replication.enabled:true}") boolean enabled,
+                          @Value("${users.replication.batch-size:500}") int batchSize) {
+        this.source = source;
+        this.replicaRepository = replicaRepository;
+        this.offsetRepository = offsetRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.applied = Counter.builder("users.replication.events").description("Primenjeni dogadjaji user-a").register(meterRegistry);
+        Gauge.builder("users.replication.position", this, r -> Math.max(0, r.position)).register(meterRegistry);
+        Gauge.builder("users.replication.staleness", this, r -> r.stalenessSeconds())
+                .baseUnit("seconds")
+                .description("Vreme od poslednjeg uspesnog citanja toka")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${users.replication.poll-interval-ms:200}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sync();
+            if (failing) {
+                log.info("[replication] users tok ponovo dostupan, position={}", position);
+                failing = false;
+            }
+        } catch (RuntimeException e) {
+            // loguje se samo prelaz u gresku, ne svaki neuspeli poll
+            if (!failing) {
+                log.warn("[replication] citanje users toka nije uspelo (lokalna replika ostaje kakva jeste): {}", e.toString());
+                failing = true;
+            }
+        }
+    }
+
+    // cita dok ne stigne do kraja toka; vraca broj primenjenih dogadjaja
+    int sync() {
+        if (position < 0) {
+            var offset = offsetRepository.findById(STREAM);
+            epoch = offset.map(ReplicationOffset::getEpoch).orElse(null);
+            position = offset.map(ReplicationOffset::getPosition).orElse(0L);
+        }
+        int total = 0;
+        while (true) {
+            UserEvents feed = source.fetch(position, batchSize);
+            if (position > 0 && (feed.reset() || !Objects.equals(epoch, feed.epoch()) || position > feed.head())) {
+                reset(feed);
+                continue;
+            }
+            epoch = feed.epoch();
+            List<UserEvent> events = feed.events();
+            if (!events.isEmpty()) {
+                apply(events);
+                total += events.size();
+            }
+            if (events.size() < batchSize) {
+                lastSyncNanos = System.nanoTime();
+                ready = true;
+                return total;
+            }
+        }
+    }
+
+    private void apply(List<UserEvent> events) {
+        long last = events.get(events.size() - 1).getSeq();
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (UserEvent e : events) {
+                if ("DELETED".equals(e.getType())) {
+                    replicaRepository.deleteById(e.getUserId());
+                } else {
+                    UserReplica u = new UserReplica();
+                    u.setId(e.getUserId());
+                    u.setName(e.getName());
+                    u.setEmail(e.getEmail());
+                    u.setVersion(e.getVersion());
+                    replicaRepository.save(u);
+                }
+            }
+            var offset = offsetRepository.findById(STREAM).orElseGet(() -> new ReplicationOffset(STREAM, 0));
+            offset.setPosition(last);
+            offset.setEpoch(epoch);
+            offsetRepository.save(offset);
+        });
+        position = last;
+        applied.increment(events.size());
+
+        // kes ispred lookup-a ne sme da vraca staro stanje izmenjenog user-a
+        Cache cache = cacheManager.getCache(UserLookupService.USERS_CACHE);
+        if (cache != null) {
+            events.forEach(e -> cache.evict(e.getUserId()));
+        }
+    }
+
+    // replika i offset ispocetka; do kraja ponovnog citanja lookup-i idu na users-service
+    private void reset(UserEvents feed) {
+        log.warn("[replication] users tok resetovan (epoch {} -> {}, position={}, head={}), replika se puni od 0",
+                epoch, feed.epoch(), position, feed.head());
+        ready = false;
+        transactionTemplate.executeWithoutResult(tx -> {
+            replicaRepository.deleteAllInBatch();
+            var offset = offsetRepository.findById(STREAM).orElseGet(() -> new ReplicationOffset(STREAM, 0));
+            offset.setPosition(0);
+            offset.setEpoch(feed.epoch());
+            offsetRepository.save(offset);
+        });
+        position = 0;
+        epoch = feed.epoch();
+        Cache cache = cacheManager.getCache(UserLookupService.USERS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Lokalni lookup; Optional.empty() znaci "nije poznato lokalno" (replika nije spremna ili user
+     * nije u replici), ne i "ne postoji" - to i dalje odlucuje users-service.
+     */
+    public Optional<UserSummary> findLocal(Long userId) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        return replicaRepository.findById(userId).map(u -> new UserSummary(u.getId(), u.getName(), u.getEmail()));
+    }
+
+    // id-jevi iz datog skupa koji postoje u replici (prazno dok replika nije spremna)
+    public Set<Long> findLocalIds(Collection<Long> userIds) {
+        if (!isReady()) {
+            return Set.of();
+        }
+        return replicaRepository.findAllById(userIds).stream().map(UserReplica::getId).collect(Collectors.toSet());
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    private double stalenessSeconds() {
+        return (System.nanoTime() - lastSyncNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
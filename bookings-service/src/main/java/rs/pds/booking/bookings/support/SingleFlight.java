@@ -0,0 +1,99 @@
+package rs.pds.booking.bookings.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Spaja istovremena citanja istog kljuca: prvi pozivalac ("leader") radi ucitavanje, a svi koji stignu
+ * dok je ono u toku dobijaju isti rezultat (ili isti izuzetak). Nista se ne kesira - kad se ucitavanje
+ * zavrsi, sledeci poziv ide ponovo do izvora.
+ * Metrike: singleflight.calls{name, result=leader|coalesced} i singleflight.in.flight{name}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry registry) {
+        this.leaders = Counter.builder("singleflight.calls").tag("name", name).tag("result", "leader")
+                .description("Ucitavanja koja su stvarno otisla do izvora").register(registry);
+        this.coalesced = Counter.builder("singleflight.calls").tag("name", name).tag("result", "coalesced")
+                .description("Pozivi koji su dobili rezultat ucitavanja koje je vec bilo u toku").register(registry);
+        Gauge.builder("singleflight.in.flight", inFlight, ConcurrentHashMap::size).tag("name", name).register(registry);
+    }
+
+    // blokirajuca varijanta: leader ucitava na svojoj niti, ostali cekaju njegov rezultat
+    public V load(K key, Supplier<V> loader) {
+        var mine = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        leaders.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t); // i Error, da oni koji cekaju ne vise zauvek
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Async varijanta: svi dele jedno ucitavanje, ali svako dobija svoju kopiju future-a,
+     * pa cancel / timeout jednog pozivaoca (npr. TimeLimiter) ne obara ostale.
+     */
+    public CompletableFuture<V> loadAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        var mine = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+        leaders.increment();
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(key, mine);
+                if (error != null) {
+                    mine.completeExceptionally(error);
+                } else {
+                    mine.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine.copy();
+    }
+
+    /**
+     * Posle upisa: zahtevi koji stignu od sada ne smeju da dobiju rezultat citanja koje je pocelo pre upisa.
+     * Citanje koje je u toku se zavrsava normalno, samo mu se vise niko ne prikljucuje.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
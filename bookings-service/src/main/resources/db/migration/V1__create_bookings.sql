@@ -0,0 +1,15 @@
+-- sema bookings-service-a (umesto ddl-auto: update)
+CREATE TABLE bookings (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT         NOT NULL,
+    resource_name VARCHAR(50)    NOT NULL,
+    start_time    TIMESTAMP(6)   NOT NULL,
+    end_time      TIMESTAMP(6)   NOT NULL,
+    price         NUMERIC(10, 2) NOT NULL
+);
+
+-- POST /bookings: findByUserIdAndResourceName na svakom upisu
+CREATE INDEX idx_bookings_user_resource ON bookings (user_id, resource_name);
+
+-- upiti po resursu i vremenskom opsegu (listanje po resursu, preklapanja, dostupnost)
+CREATE INDEX idx_bookings_resource_time ON bookings (resource_name, start_time, end_time);
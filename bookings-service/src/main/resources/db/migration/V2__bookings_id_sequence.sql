@@ -0,0 +1,2 @@
+-- id iz pooled sekvence (allocationSize = 50) umesto IDENTITY, da bi Hibernate mogao da batch-uje insert-e
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
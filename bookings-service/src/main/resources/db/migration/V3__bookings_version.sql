@@ -0,0 +1,2 @@
+-- @Version kolona: optimisticko zakljucavanje i ETag za GET/PUT/DELETE /bookings/{id}
+ALTER TABLE bookings ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,13 @@
+-- lokalna replika user-a iz users-service outbox toka (UserReplicator) - lookup-i bez mreznog poziva
+CREATE TABLE user_replica (
+    id      BIGINT       PRIMARY KEY,
+    name    VARCHAR(20)  NOT NULL,
+    email   VARCHAR(30)  NOT NULL,
+    version BIGINT
+);
+
+-- dokle je replika stigla u toku dogadjaja (seq poslednjeg primenjenog dogadjaja)
+CREATE TABLE replication_offset (
+    stream   VARCHAR(50) PRIMARY KEY,
+    position BIGINT      NOT NULL
+);
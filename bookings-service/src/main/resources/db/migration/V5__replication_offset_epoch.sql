@@ -0,0 +1,2 @@
+-- epoch toka uz offset: posle restarta / nove baze users-service-a seq krece ispocetka, pa stari offset ne vazi
+ALTER TABLE replication_offset ADD COLUMN epoch VARCHAR(36);
@@ -0,0 +1,5 @@
+-- jedan red po resursu: upis termina zakljucava red resursa (MERGE) do kraja transakcije,
+-- pa dve instance ne mogu istovremeno da provere i upisu preklapajuce termine za isti resurs
+CREATE TABLE booking_resource_locks (
+    resource_name VARCHAR(50) PRIMARY KEY
+);
@@ -0,0 +1,86 @@
+package rs.pds.booking.bookings.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class UserBatchLoaderTest {
+
+    UserClient userClient = Mockito.mock(UserClient.class);
+    UserBatchLoader loader;
+
+    private UserBatchLoader loader(Duration window, int maxBatchSize) {
+        loader = new UserBatchLoader(userClient, window, maxBatchSize, new SimpleMeterRegistry());
+        return loader;
+    }
+
+    @AfterEach
+    void shutdown() {
+        loader.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Long> batchIds() {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userClient, timeout(2000)).getByIds(ids.capture());
+        return ids.getValue();
+    }
+
+    @Test
+    void lookupsInsideWindow_goAsOneBatchCall() throws Exception {
+        Mockito.when(userClient.getByIds(anyCollection())).thenReturn(List.of(
+                new UserSummary(1L, "Ana", "ana@example.com"),
+                new UserSummary(2L, "Marko", "marko@example.com")));
+        loader(Duration.ofMillis(200), 100);
+
+        var first = loader.load(1L);
+        var second = loader.load(2L);
+        var missing = loader.load(3L);
+
+        assertThat(batchIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(first.get(2, TimeUnit.SECONDS)).map(UserSummary::getName).contains("Ana");
+        assertThat(second.get(2, TimeUnit.SECONDS)).map(UserSummary::getName).contains("Marko");
+        assertThat(missing.get(2, TimeUnit.SECONDS)).isEmpty();
+        verify(userClient, never()).getById(anyLong());
+    }
+
+    @Test
+    void fullBatch_isSentWithoutWaitingForWindow() throws Exception {
+        Mockito.when(userClient.getByIds(anyCollection())).thenReturn(List.of());
+        loader(Duration.ofMinutes(1), 3);
+
+        List<CompletableFuture<Optional<UserSummary>>> futures = List.of(loader.load(1L), loader.load(2L), loader.load(3L));
+
+        assertThat(batchIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        for (var f : futures) {
+            assertThat(f.get(2, TimeUnit.SECONDS)).isEmpty();
+        }
+    }
+
+    @Test
+    void maxSizeOne_sendsEachLookupImmediately() throws Exception {
+        Mockito.when(userClient.getById(7L)).thenReturn(new UserSummary(7L, "Ana", "ana@example.com"));
+        loader(Duration.ofMinutes(1), 1);
+
+        assertThat(loader.load(7L).get(2, TimeUnit.SECONDS)).map(UserSummary::getId).contains(7L);
+        verify(userClient, never()).getByIds(any());
+    }
+}
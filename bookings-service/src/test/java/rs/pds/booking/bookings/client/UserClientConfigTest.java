@@ -0,0 +1,57 @@
+package rs.pds.booking.bookings.client;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserClientConfigTest {
+
+    private final UserClientConfig config = new UserClientConfig();
+
+    @Test
+    void smileFormat_requestsSmileWithJsonFallback() {
+        RequestTemplate template = new RequestTemplate().header("Accept", "application/json");
+        config.userWireFormat("smile").apply(template);
+        assertThat(template.headers().get("Accept"))
+                .containsExactly("application/x-jackson-smile, application/json;q=0.9");
+
+        RequestTemplate json = new RequestTemplate();
+        config.userWireFormat("json").apply(json);
+        assertThat(json.headers().get("Accept")).containsExactly("application/json");
+    }
+
+    // isti put kao u radu: Feign SpringDecoder sa Boot-ovim converter-ima bira Smile po Content-Type odgovora
+    @Test
+    void smileResponse_isDecodedBySpringDecoder() throws Exception {
+        byte[] body = Jackson2ObjectMapperBuilder.smile().build()
+                .writeValueAsBytes(new UserSummary(7L, "Ana", "ana@example.com"));
+        Response response = Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(Map.of("Content-Type", List.of(UserClientConfig.SMILE)))
+                .body(body)
+                .request(Request.create(Request.HttpMethod.GET, "http://users-service/users/7", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .build();
+
+        SpringDecoder decoder = new SpringDecoder(HttpMessageConverters::new,
+                new DefaultListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class));
+        UserSummary user = (UserSummary) decoder.decode(response, UserSummary.class);
+
+        assertThat(user.getId()).isEqualTo(7L);
+        assertThat(user.getEmail()).isEqualTo("ana@example.com");
+    }
+}
@@ -0,0 +1,45 @@
+package rs.pds.booking.bookings.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheConfigTest {
+
+    @Configuration
+    @EnableCaching
+    static class CachingOn {
+    }
+
+    final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class, TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(CachingOn.class, UserCacheConfig.class)
+            .withPropertyValues("spring.cache.type=caffeine", "spring.cache.cache-names=users");
+
+    @Test
+    void loaderExecutor_isClosedWithContext_andBootTaskExecutorStays() {
+        AtomicReference<ExecutorService> loader = new AtomicReference<>();
+
+        runner.run(context -> {
+            // getAsyncCache baca IllegalStateException ako kes nije u async modu
+            assertThat(((CaffeineCache) context.getBean(CaffeineCacheManager.class).getCache("users")).getAsyncCache())
+                    .isNotNull();
+            assertThat(context).hasBean("applicationTaskExecutor");
+            loader.set(context.getBean(UserCacheConfig.class).loaderExecutor());
+            assertThat(loader.get().isShutdown()).isFalse();
+        });
+
+        assertThat(loader.get().isShutdown()).isTrue();
+    }
+}
@@ -0,0 +1,84 @@
+package rs.pds.booking.bookings.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.bookings.service.BookingImportService;
+import rs.pds.booking.bookings.service.BookingIntervalIndex;
+import rs.pds.booking.bookings.service.BookingService;
+import rs.pds.booking.bookings.service.UserLookupService;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * DELETE /bookings/{id}: brise se samo verzija koja je procitana (i proverena If-Match-om);
+ * izmena izmedju citanja i brisanja -> 412 sa If-Match, 409 bez njega.
+ */
+class BookingControllerDeleteTest {
+
+    BookingRepository repo = Mockito.mock(BookingRepository.class);
+    BookingService bookingService = Mockito.mock(BookingService.class);
+    UserLookupService userLookupService = Mockito.mock(UserLookupService.class);
+    BookingIntervalIndex intervalIndex = Mockito.mock(BookingIntervalIndex.class);
+    MockMvc mvc = MockMvcBuilders.standaloneSetup(new BookingController(repo, bookingService, userLookupService,
+            intervalIndex, Mockito.mock(BookingImportService.class), new ObjectMapper())).build();
+
+    @BeforeEach
+    void setUp() {
+        Booking b = new Booking();
+        b.setId(5L);
+        b.setUserId(7L);
+        b.setResourceName("Sala A");
+        b.setVersion(3L);
+        when(repo.findById(5L)).thenReturn(Optional.of(b));
+        when(userLookupService.findById(7L)).thenReturn(Optional.of(new UserSummary(7L, "Ana", "ana@example.com")));
+        // index samo izvrsava brisanje
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return null;
+        }).when(intervalIndex).release(any(), any());
+    }
+
+    @Test
+    void matchingIfMatch_deletesThatVersion() throws Exception {
+        when(repo.deleteByIdAndVersion(5L, 3L)).thenReturn(1);
+
+        mvc.perform(delete("/bookings/5").header(HttpHeaders.IF_MATCH, "\"3\"")).andExpect(status().isNoContent());
+
+        verify(repo).deleteByIdAndVersion(5L, 3L);
+        verify(bookingService).forget(5L);
+    }
+
+    @Test
+    void staleIfMatch_isRejectedBeforeDelete() throws Exception {
+        mvc.perform(delete("/bookings/5").header(HttpHeaders.IF_MATCH, "\"2\"")).andExpect(status().isPreconditionFailed());
+
+        verify(repo, never()).deleteByIdAndVersion(any(), any());
+    }
+
+    @Test
+    void changedAfterCheck_returns412WithIfMatch_409Without() throws Exception {
+        when(repo.deleteByIdAndVersion(eq(5L), eq(3L))).thenReturn(0);
+
+        mvc.perform(delete("/bookings/5").header(HttpHeaders.IF_MATCH, "\"3\"")).andExpect(status().isPreconditionFailed());
+        mvc.perform(delete("/bookings/5")).andExpect(status().isConflict());
+
+        verify(bookingService, never()).forget(5L);
+    }
+}
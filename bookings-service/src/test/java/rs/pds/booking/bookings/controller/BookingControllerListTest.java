@@ -0,0 +1,107 @@
+package rs.pds.booking.bookings.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.bookings.service.BookingImportService;
+import rs.pds.booking.bookings.service.BookingIntervalIndex;
+import rs.pds.booking.bookings.service.BookingService;
+import rs.pds.booking.bookings.service.UserLookupService;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.web.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /bookings: keyset stranice (X-Next-Cursor / Link) i NDJSON tok. Standalone MockMvc -
+ * @WebMvcTest bi podigao i Feign klijente sa @EnableFeignClients.
+ */
+class BookingControllerListTest {
+
+    BookingRepository repo = Mockito.mock(BookingRepository.class);
+    MockMvc mvc = MockMvcBuilders.standaloneSetup(new BookingController(repo,
+                    Mockito.mock(BookingService.class),
+                    Mockito.mock(UserLookupService.class),
+                    Mockito.mock(BookingIntervalIndex.class),
+                    Mockito.mock(BookingImportService.class),
+                    // kao Spring Boot: datumi kao ISO string
+                    Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build()))
+            .build();
+
+    private static Booking booking(long id) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setUserId(7L);
+        b.setResourceName("Sala A");
+        b.setStart(LocalDateTime.of(2030, 1, 1, 10, 0).plusDays(id));
+        b.setEnd(LocalDateTime.of(2030, 1, 1, 11, 0).plusDays(id));
+        b.setPrice(BigDecimal.TEN);
+        return b;
+    }
+
+    @Test
+    void page_withFilters_returnsNextCursorAndLink_thenLastPage() throws Exception {
+        // limit + 1 red: postoji sledeca stranica
+        Mockito.when(repo.findPage(0L, 7L, "Sala A", 3)).thenReturn(List.of(booking(1), booking(2), booking(3)));
+        String next = KeysetCursor.encode(2);
+
+        mvc.perform(get("/bookings").param("limit", "2").param("userId", "7").param("resource", "Sala A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER, next))
+                .andExpect(header().string("Link",
+                        "<http://localhost/bookings?cursor=" + next + "&limit=2&userId=7&resource=Sala%20A>; rel=\"next\""));
+
+        Mockito.when(repo.findPage(2L, 7L, "Sala A", 3)).thenReturn(List.of(booking(3)));
+        mvc.perform(get("/bookings").param("cursor", next).param("limit", "2").param("userId", "7").param("resource", "Sala A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void page_limitIsClampedAndCursorValidated() throws Exception {
+        mvc.perform(get("/bookings").param("limit", "100000")).andExpect(status().isOk());
+        Mockito.verify(repo).findPage(0L, null, null, BookingController.MAX_PAGE_SIZE + 1);
+
+        mvc.perform(get("/bookings").param("cursor", "nije-broj")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ndjson_streamsOneBookingPerLine() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Consumer<BookingResponse> sink = inv.getArgument(2);
+            sink.accept(BookingController.toResponse(booking(1)));
+            sink.accept(BookingController.toResponse(booking(2)));
+            return null;
+        }).when(repo).forEachResponse(Mockito.eq(7L), Mockito.isNull(), Mockito.any(Consumer.class));
+
+        MvcResult started = mvc.perform(get("/bookings").param("userId", "7").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"id":1,"userId":7,"resourceName":"Sala A","start":"2030-01-02T10:00:00","end":"2030-01-02T11:00:00","price":10}
+                        {"id":2,"userId":7,"resourceName":"Sala A","start":"2030-01-03T10:00:00","end":"2030-01-03T11:00:00","price":10}
+                        """));
+    }
+}
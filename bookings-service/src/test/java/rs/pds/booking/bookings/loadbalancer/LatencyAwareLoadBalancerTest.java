@@ -0,0 +1,156 @@
+package rs.pds.booking.bookings.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.FeignException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import rs.pds.booking.bookings.client.UserClient;
+import rs.pds.booking.common.loadbalancer.LatencyAwareLoadBalancer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cetiri lokalne users-service instance kroz simple discovery: brza, spora (250ms) i neispravna (500 posle zagrevanja) u zoni "a",
+ * brza u zoni "b". Feign pozivi iz zone "a" treba da idu na brzu lokalnu instancu; spora dobija samo prve probe,
+ * neispravna se izbacuje posle failure-threshold gresaka, a udaljena zona se ne koristi dok "a" ima zdravu instancu.
+ * Sa round-robin-om bi svaka dobila cetvrtinu poziva.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "users.replication.enabled=false",
+        "spring.cloud.loadbalancer.zone=a",
+        "users.load-balancing.decay=500ms"
+})
+class LatencyAwareLoadBalancerTest {
+
+    static final int THREADS = 4;
+    static final int CALLS_PER_THREAD = 100;
+
+    static final List<Stub> stubs = new ArrayList<>();
+    static Stub fast;
+    static Stub slow;
+    static Stub failing;
+    static Stub remote;
+
+    record Stub(HttpServer server, String zone, AtomicInteger status, AtomicInteger calls) {
+        String uri() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+    }
+
+    static {
+        // bez Nagle-a na stub-u: inace svaki odgovor ceka ~40ms na delayed ACK i brza instanca nije brza
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    static Stub stub(String zone, Duration delay, int status) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger currentStatus = new AtomicInteger(status);
+        server.createContext("/users", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+                byte[] body = "{\"id\":1,\"name\":\"Ana\",\"email\":\"ana@example.com\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(currentStatus.get(), body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        Stub stub = new Stub(server, zone, currentStatus, calls);
+        stubs.add(stub);
+        return stub;
+    }
+
+    @BeforeAll
+    static void startStubs() throws IOException {
+        fast = stub("a", Duration.ofMillis(2), 200);
+        slow = stub("a", Duration.ofMillis(250), 200);
+        failing = stub("a", Duration.ZERO, 200);
+        remote = stub("b", Duration.ofMillis(2), 200);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        stubs.forEach(s -> s.server().stop(0));
+    }
+
+    @DynamicPropertySource
+    static void usersServiceInstances(DynamicPropertyRegistry registry) {
+        for (int i = 0; i < 4; i++) {
+            int index = i;
+            String prefix = "spring.cloud.discovery.client.simple.instances.users-service[" + i + "].";
+            registry.add(prefix + "uri", () -> stubs.get(index).uri());
+            registry.add(prefix + "metadata.zone", () -> stubs.get(index).zone());
+        }
+    }
+
+    @Autowired UserClient userClient;
+    @Autowired ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+
+    private int callConcurrently(int threads, int callsPerThread) {
+        AtomicInteger failed = new AtomicInteger();
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < callsPerThread; i++) {
+                        try {
+                            userClient.getById(1L);
+                        } catch (FeignException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                }, pool));
+            }
+            workers.forEach(CompletableFuture::join);
+        }
+        return failed.get();
+    }
+
+    @Test
+    void feignCalls_preferFastHealthyLocalInstance() throws InterruptedException {
+        assertThat(loadBalancerFactory.getInstance("users-service")).isInstanceOf(LatencyAwareLoadBalancer.class);
+
+        // zagrevanje (Feign, konekcije, JIT): prvi pozivi su spori na svim instancama, a Peak EWMA ih pamti do decay-a;
+        // posle decay-a bez poziva procene vise nisu sveze i merenje krece od iste procene za sve
+        callConcurrently(THREADS, 25);
+        Thread.sleep(600);
+        stubs.forEach(s -> s.calls().set(0));
+        failing.status().set(500);
+
+        int failed = callConcurrently(THREADS, CALLS_PER_THREAD);
+
+        int total = THREADS * CALLS_PER_THREAD;
+        assertThat(remote.calls().get()).isZero();
+        // probe na pocetku i posle svakog decay-a bez uzorka, + prelivanje kad brza ima vise poziva u toku
+        assertThat(slow.calls().get()).isLessThan(total / 10);
+        // izbacena posle 3 uzastopne greske; poneki poziv moze biti vec u toku
+        assertThat(failing.calls().get()).isBetween(3, 3 + THREADS);
+        assertThat(failed).isEqualTo(failing.calls().get());
+        assertThat(fast.calls().get()).isGreaterThan(total * 8 / 10);
+    }
+}
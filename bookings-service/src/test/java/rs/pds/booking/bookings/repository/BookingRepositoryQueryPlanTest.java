@@ -0,0 +1,208 @@
+package rs.pds.booking.bookings.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hvata SQL koji Hibernate generise za svaki repository upit i proverava
+ * H2 EXPLAIN plan: upit mora da ide kroz indeks, ne kroz tableScan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "rs.pds.booking.bookings.repository.BookingRepositoryQueryPlanTest$SqlCapture")
+class BookingRepositoryQueryPlanTest {
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    static final LocalDateTime SEED_START = LocalDateTime.parse("2026-01-01T10:00:00");
+
+    @Autowired BookingRepository repo;
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    JdbcTemplate jdbc;
+
+    // na praznoj tabeli H2 uvek bira tableScan, pa punimo realan broj redova; ANALYZE radi implicitni commit,
+    // zato seed ide van transakcije testa (jednom po klasi) i brise se na kraju, da ne ostane u kesiranom kontekstu
+    @BeforeAll
+    static void seed(@Autowired DataSource dataSource) {
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.batchUpdate(
+                "INSERT INTO bookings (user_id, resource_name, start_time, end_time, price) VALUES (?, ?, ?, ?, 10.00)",
+                IntStream.range(0, 5000).mapToObj(i -> new Object[]{
+                        (long) (i % 500), "Sala " + (i / 500), SEED_START.plusDays(i), SEED_START.plusDays(i + 7)}).toList());
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void cleanUp(@Autowired DataSource dataSource) {
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("DELETE FROM bookings");
+        jdbc.update("DELETE FROM booking_resource_locks");
+        jdbc.execute("ANALYZE");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    // poziva repository metodu, uzima poslednji SELECT i vraca njegov EXPLAIN (params redom zamenjuju '?')
+    private String planOf(Runnable repositoryCall, Object... params) {
+        SqlCapture.statements.clear();
+        repositoryCall.run();
+        String sql = SqlCapture.statements.stream()
+                .filter(s -> s.trim().toLowerCase().startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        var explain = new StringBuilder("EXPLAIN ");
+        int p = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                Object value = params[p++];
+                explain.append(switch (value) {
+                    case String str -> "'" + str + "'";
+                    case LocalDateTime time -> "TIMESTAMP '" + Timestamp.valueOf(time) + "'";
+                    default -> String.valueOf(value);
+                });
+            } else {
+                explain.append(c);
+            }
+        }
+        assertThat(p).as("broj parametara za: " + sql).isEqualTo(params.length);
+        return jdbc.queryForObject(explain.toString(), String.class);
+    }
+
+    @Test
+    void findByUserIdAndResourceName_usesUserResourceIndex() {
+        String plan = planOf(() -> repo.findByUserIdAndResourceName(1L, "Sala 1"), 1L, "Sala 1");
+        assertThat(plan).contains("IDX_BOOKINGS_USER_RESOURCE").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findById_usesPrimaryKey() {
+        String plan = planOf(() -> repo.findById(4242L), 4242L);
+        assertThat(plan).contains("PRIMARY_KEY").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findPage_keysetUsesPrimaryKey() {
+        String plan = planOf(() -> repo.findPage(100L, null, null, 51), 100L, 51);
+        assertThat(plan).contains("PRIMARY_KEY").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findPage_byUser_usesUserResourceIndex() {
+        String plan = planOf(() -> repo.findPage(100L, 7L, null, 51), 100L, 7L, 51);
+        assertThat(plan).contains("IDX_BOOKINGS_USER_RESOURCE").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findPage_byResource_usesResourceTimeIndex() {
+        String plan = planOf(() -> repo.findPage(100L, null, "Sala 7", 51), 100L, "Sala 7", 51);
+        assertThat(plan).contains("IDX_BOOKINGS_RESOURCE_TIME").doesNotContain("tableScan");
+    }
+
+    @Test
+    void streamResponses_usesIndexes() {
+        assertThat(planOf(() -> repo.forEachResponse(null, null, b -> {})))
+                .contains("PRIMARY_KEY").doesNotContain("tableScan");
+        assertThat(planOf(() -> repo.forEachResponse(7L, null, b -> {}), 7L))
+                .contains("IDX_BOOKINGS_USER_RESOURCE").doesNotContain("tableScan");
+        assertThat(planOf(() -> repo.forEachResponse(null, "Sala 7", b -> {}), "Sala 7"))
+                .contains("IDX_BOOKINGS_RESOURCE_TIME").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findFirstOverlap_usesResourceTimeIndex() {
+        LocalDateTime from = SEED_START.plusDays(3600);
+        LocalDateTime to = from.plusDays(1);
+        String plan = planOf(() -> repo.findFirstOverlap("Sala 7", from, to, -1L), "Sala 7", to, from, -1L, 1);
+        assertThat(plan).contains("IDX_BOOKINGS_RESOURCE_TIME").doesNotContain("tableScan");
+    }
+
+    // van transakcije getResultStream bi citao posle zatvaranja konekcije
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findFirstOverlap_outsideTransaction_returnsConflict() {
+        LocalDateTime from = SEED_START.plusDays(3600);
+
+        Long id = repo.findFirstOverlap("Sala 7", from, from.plusDays(1), -1L).orElseThrow();
+
+        assertThat(jdbc.queryForObject("SELECT resource_name FROM bookings WHERE id = ?", String.class, id))
+                .isEqualTo("Sala 7");
+        assertThat(repo.findFirstOverlap("Sala 7", from, from.plusDays(1), id)).isPresent();
+        assertThat(repo.findFirstOverlap("Sala 7", SEED_START, SEED_START.plusDays(1), -1L)).isEmpty();
+    }
+
+    @Test
+    void findOverlapping_usesResourceTimeIndex() {
+        LocalDateTime from = SEED_START.plusDays(3600);
+        LocalDateTime to = from.plusDays(30);
+        String plan = planOf(() -> repo.findOverlapping("Sala 7", from, to), "Sala 7", to, from);
+        assertThat(plan).contains("IDX_BOOKINGS_RESOURCE_TIME").doesNotContain("tableScan");
+        assertThat(repo.findOverlapping("Sala 7", from, to)).hasSize(36);
+    }
+
+    // druga instanca (ovde druga transakcija) ceka na lock istog resursa dok prva ne commit-uje
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void lockResources_blocksOtherTransactionUntilCommit() throws Exception {
+        var tx = new TransactionTemplate(transactionManager);
+        var locked = new CountDownLatch(1);
+        var committed = new AtomicBoolean();
+
+        var first = CompletableFuture.runAsync(() -> tx.executeWithoutResult(s -> {
+            repo.lockResources(List.of("Sala 7", "Sala 8"));
+            locked.countDown();
+            sleep(300);
+            committed.set(true);
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        Boolean sawCommit = tx.execute(s -> {
+            repo.lockResources(List.of("Sala 8"));
+            return committed.get();
+        });
+        first.get(5, TimeUnit.SECONDS);
+
+        assertThat(sawCommit).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
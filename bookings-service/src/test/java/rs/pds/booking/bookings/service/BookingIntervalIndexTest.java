@@ -0,0 +1,225 @@
+package rs.pds.booking.bookings.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.common.dto.TimeSlot;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BookingIntervalIndexTest {
+
+    BookingRepository repo = Mockito.mock(BookingRepository.class);
+    // transakcija je no-op: lock i provera u bazi su u BookingRepositoryQueryPlanTest
+    BookingIntervalIndex index = new BookingIntervalIndex(repo, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+    AtomicLong ids = new AtomicLong();
+
+    private static LocalDateTime day(int d) {
+        return LocalDateTime.parse("2026-01-01T10:00:00").plusDays(d);
+    }
+
+    private Booking save(Long id, String resource, LocalDateTime start, LocalDateTime end) {
+        Booking b = new Booking();
+        b.setId(id != null ? id : ids.incrementAndGet());
+        b.setUserId(1L);
+        b.setResourceName(resource);
+        b.setStart(start);
+        b.setEnd(end);
+        b.setPrice(new BigDecimal("10.00"));
+        return b;
+    }
+
+    private Booking reserve(Long id, String resource, int from, int to) {
+        return index.reserve(id, resource, day(from), day(to), () -> save(id, resource, day(from), day(to)));
+    }
+
+    @Test
+    void overlappingBooking_isRejected() {
+        reserve(null, "Sala A", 0, 7);
+
+        assertThatThrownBy(() -> reserve(null, "Sala A", 3, 10))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("409");
+        assertThatThrownBy(() -> reserve(null, "Sala A", -3, 1))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void adjacentBookingsAndOtherResources_areAllowed() {
+        reserve(null, "Sala A", 0, 7);
+        reserve(null, "Sala A", 7, 14);
+        reserve(null, "Sala A", -7, 0);
+        reserve(null, "Sala B", 3, 10);
+
+        assertThat(index.isFree("Sala A", day(14), day(21))).isTrue();
+        assertThat(index.isFree("Sala A", day(13), day(15))).isFalse();
+    }
+
+    @Test
+    void update_ignoresOwnSlot_andFreesOldResource() {
+        Booking b = reserve(null, "Sala A", 0, 7);
+
+        reserve(b.getId(), "Sala A", 2, 9);
+        assertThat(index.isFree("Sala A", day(0), day(2))).isTrue();
+
+        reserve(b.getId(), "Sala B", 2, 9);
+        assertThat(index.isFree("Sala A", day(2), day(9))).isTrue();
+        assertThat(index.isFree("Sala B", day(2), day(9))).isFalse();
+    }
+
+    @Test
+    void release_removesSlot() {
+        Booking b = reserve(null, "Sala A", 0, 7);
+
+        index.release(b, () -> {});
+
+        assertThat(index.isFree("Sala A", day(0), day(7))).isTrue();
+    }
+
+    @Test
+    void release_afterMoveToOtherResource_removesSlotFromNewResource() {
+        Booking b = reserve(null, "Sala A", 0, 7);
+        reserve(b.getId(), "Sala B", 0, 7);
+
+        // booking ucitan pre premestanja i dalje nosi stari resurs
+        index.release(b, () -> {});
+
+        assertThat(index.isFree("Sala B", day(0), day(7))).isTrue();
+        assertThat(index.userIdOf(b.getId())).isNull();
+    }
+
+    @Test
+    void overlapWrittenByOtherInstance_isRejectedBeforePersist() {
+        Mockito.when(repo.findFirstOverlap("Sala A", day(0), day(7), -1L)).thenReturn(Optional.of(99L));
+        Mockito.when(repo.findOverlapping("Sala A", day(0), day(7))).thenReturn(Map.of(99L, new TimeSlot(day(-1), day(1))));
+        var persisted = new AtomicInteger();
+
+        assertThatThrownBy(() -> index.reserve(null, "Sala A", day(0), day(7), () -> {
+            persisted.incrementAndGet();
+            return save(null, "Sala A", day(0), day(7));
+        })).isInstanceOf(ResponseStatusException.class).hasMessageContaining("bookingId: 99");
+
+        Booking row = save(null, "Sala A", day(0), day(7));
+        row.setId(null);
+        List<String> rejections = index.reserveAll(List.of(row), accepted -> {
+            persisted.incrementAndGet();
+            return accepted;
+        });
+        assertThat(rejections.get(0)).contains("bookingId: 99");
+        assertThat(persisted.get()).isZero();
+        assertThat(index.isFree("Sala A", day(0), day(7))).isTrue();
+        Mockito.verify(repo).lockResources(List.of("Sala A"));
+    }
+
+    @Test
+    void reserveAll_readsDatabaseOncePerResource() {
+        Mockito.when(repo.findOverlapping("Sala A", day(0), day(30))).thenReturn(Map.of(99L, new TimeSlot(day(14), day(21))));
+        var candidates = List.of(
+                save(null, "Sala A", day(0), day(7)),
+                save(null, "Sala A", day(14), day(21)),   // zauzeto u bazi (druga instanca)
+                save(null, "Sala A", day(23), day(30)));
+        candidates.forEach(b -> b.setId(null));
+
+        List<String> rejections = index.reserveAll(candidates, accepted -> {
+            accepted.forEach(b -> b.setId(ids.incrementAndGet()));
+            return accepted;
+        });
+
+        assertThat(rejections).extracting(r -> r == null ? null : r.contains("bookingId: 99")).containsExactly(null, true, null);
+        Mockito.verify(repo, Mockito.times(1)).findOverlapping(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(repo, Mockito.never()).findFirstOverlap(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyLong());
+    }
+
+    @Test
+    void failedPersist_leavesIndexUntouched() {
+        assertThatThrownBy(() -> index.reserve(null, "Sala A", day(0), day(7), () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(index.isFree("Sala A", day(0), day(7))).isTrue();
+    }
+
+    @Test
+    void freeSlots_returnsGapsInsideRange() {
+        reserve(null, "Sala A", -2, 2);
+        reserve(null, "Sala A", 5, 8);
+        reserve(null, "Sala A", 8, 9);
+        reserve(null, "Sala A", 12, 20);
+
+        var free = index.freeSlots("Sala A", day(0), day(14));
+
+        assertThat(free).extracting(TimeSlot::getStart, TimeSlot::getEnd).containsExactly(
+                tuple(day(2), day(5)),
+                tuple(day(9), day(12)));
+        assertThat(index.freeSlots("Sala B", day(0), day(14)))
+                .extracting(TimeSlot::getStart, TimeSlot::getEnd)
+                .containsExactly(tuple(day(0), day(14)));
+    }
+
+    @Test
+    void reserveAll_rejectsConflictsWithIndexAndWithinBatch() {
+        reserve(null, "Sala A", 0, 7);
+        Booking moved = reserve(null, "Sala B", 0, 7);
+
+        var candidates = List.of(
+                save(0L, "Sala A", day(3), day(10)),   // zauzeto u indeksu
+                save(0L, "Sala A", day(7), day(14)),   // slobodno
+                save(0L, "Sala A", day(10), day(17)),  // preklapa prethodni red iz batch-a
+                save(moved.getId(), "Sala B", day(2), day(9)));
+        candidates.stream().limit(3).forEach(b -> b.setId(null));
+
+        List<String> rejections = index.reserveAll(candidates, accepted -> {
+            accepted.stream().filter(b -> b.getId() == null).forEach(b -> b.setId(ids.incrementAndGet()));
+            return accepted;
+        });
+
+        assertThat(rejections.get(0)).contains("zauzet");
+        assertThat(rejections.get(1)).isNull();
+        assertThat(rejections.get(2)).contains("istog importa");
+        assertThat(rejections.get(3)).isNull();
+        assertThat(index.isFree("Sala A", day(7), day(14))).isFalse();
+        assertThat(index.isFree("Sala B", day(0), day(2))).isTrue();
+    }
+
+    @Test
+    void concurrentWriters_onlyOneWins() throws Exception {
+        int writers = 32;
+        var ready = new CountDownLatch(writers);
+        var go = new CountDownLatch(1);
+        var wins = new AtomicInteger();
+        try (var pool = Executors.newFixedThreadPool(writers)) {
+            for (int i = 0; i < writers; i++) {
+                int offset = i % 3;
+                pool.execute(() -> {
+                    ready.countDown();
+                    try {
+                        go.await();
+                        reserve(null, "Sala A", offset, offset + 7);
+                        wins.incrementAndGet();
+                    } catch (ResponseStatusException | InterruptedException ignored) {
+                    }
+                });
+            }
+            ready.await();
+            go.countDown();
+        }
+
+        assertThat(wins.get()).isEqualTo(1);
+    }
+}
@@ -1,31 +1,62 @@
 package rs.pds.booking.bookings.service;
 
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.bookings.client.UserBatchLoader;
 import rs.pds.booking.bookings.client.UserClient;
 import rs.pds.booking.bookings.domain.Booking;
-import rs.pds.booking.bookings.dto.BookingDetails;
-import rs.pds.booking.bookings.dto.UserSummary;
 import rs.pds.booking.bookings.repository.BookingRepository;
 import rs.pds.booking.bookings.service.BookingService;
+import rs.pds.booking.bookings.service.UserLookupService;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.UserSummary;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 class BookingServiceTest {
 
     BookingRepository repo = Mockito.mock(BookingRepository.class);
     UserClient userClient = Mockito.mock(UserClient.class);
+    BookingIntervalIndex index = new BookingIntervalIndex(repo, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+    SimpleMeterRegistry meters = new SimpleMeterRegistry();
     BookingService service;
 
     @BeforeEach
     void setUp() {
-        service = new BookingService(repo, userClient);
+        // replika nije spremna (mock vraca Optional.empty()), pa lookup-i idu na users-service
+        service = new BookingService(repo, new UserLookupService(new UserGuard(
+                new UserBatchLoader(userClient, Duration.ZERO, 1, meters), RetryRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults()),
+                Mockito.mock(UserReplicator.class)), index, meters);
+    }
+
+    private void indexed(Booking b) {
+        index.reserve(null, b.getResourceName(), b.getStart(), b.getEnd(), () -> b);
     }
 
     private Booking sample() {
@@ -52,15 +83,112 @@ class BookingServiceTest {
         assertThat(d.getUser().getEmail()).isEqualTo("ana@example.com");
     }
 
+    @Test
+    void getDetails_indexedBooking_fetchesUserConcurrentlyWithDbRead() {
+        Booking b = sample();
+        indexed(b);
+        var userRequested = new CountDownLatch(1);
+        when(userClient.getById(1L)).thenAnswer(inv -> {
+            userRequested.countDown();
+            return new UserSummary(1L, "Ana", "ana@example.com");
+        });
+        // citanje iz baze se zavrsava tek kad je user fetch vec krenuo
+        when(repo.findById(1L)).thenAnswer(inv -> {
+            assertThat(userRequested.await(5, TimeUnit.SECONDS)).isTrue();
+            return Optional.of(b);
+        });
+
+        BookingDetails d = service.getDetails(1L);
+
+        assertThat(d.getUser().getName()).isEqualTo("Ana");
+        verify(repo, times(1)).findById(1L);
+        verify(userClient, times(1)).getById(1L);
+        assertThat(meters.get("bookings.details").timers())
+                .extracting(t -> t.getId().getTag("stage"), t -> t.count())
+                .containsExactlyInAnyOrder(
+                        tuple("booking", 1L),
+                        tuple("user", 1L),
+                        tuple("total", 1L));
+    }
+
+    @Test
+    void getDetails_userChangedSinceIndexed_usesUserFromDb() {
+        indexed(sample());
+        Booking moved = sample();
+        moved.setUserId(2L);
+        when(repo.findById(1L)).thenReturn(Optional.of(moved));
+        when(userClient.getById(1L)).thenReturn(new UserSummary(1L, "Ana", "ana@example.com"));
+        when(userClient.getById(2L)).thenReturn(new UserSummary(2L, "Marko", "marko@example.com"));
+
+        assertThat(service.getDetails(1L).getUser().getName()).isEqualTo("Marko");
+    }
+
+    @Test
+    void getDetails_userMissing_isNotFound() {
+        when(repo.findById(1L)).thenReturn(Optional.of(sample()));
+        var request = Request.create(Request.HttpMethod.GET, "/users/1", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(userClient.getById(1L)).thenThrow(new FeignException.NotFound("not found", request, null, null));
+
+        assertThatThrownBy(() -> service.getDetails(1L))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(NOT_FOUND));
+    }
+
     @Test
     void getDetails_userDown_usesFallback() {
         when(repo.findById(1L)).thenReturn(Optional.of(sample()));
         when(userClient.getById(1L)).thenThrow(new RuntimeException("down"));
 
-        BookingDetails d = service.getDetailsFallback(1L, new RuntimeException("down"));
+        BookingDetails d = service.getDetails(1L);
 
         assertThat(d.getId()).isEqualTo(1L);
         assertThat(d.getUser().getName()).isEqualTo("UNAVAILABLE");
         assertThat(d.getUser().getEmail()).isEqualTo("unavailable@local");
     }
+
+    // ceka (najvise 10s) da se zadati broj poziva prikljuci ucitavanju koje je u toku
+    private void awaitCoalesced(String name, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalesced(name) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double coalesced(String name) {
+        return meters.get("singleflight.calls").tags("name", name, "result", "coalesced").counter().count();
+    }
+
+    @Test
+    void getDetails_thousandConcurrentRequests_shareOneDbReadAndOneUserCall() {
+        int clients = 1000;
+        Booking b = sample();
+        indexed(b);
+        // izvori "traju" dok se svi ostali zahtevi ne prikljuce ucitavanju koje je u toku
+        when(repo.findById(1L)).thenAnswer(inv -> {
+            awaitCoalesced("booking", clients - 1);
+            return Optional.of(b);
+        });
+        when(userClient.getById(1L)).thenAnswer(inv -> {
+            awaitCoalesced("user", clients - 1);
+            return new UserSummary(1L, "Ana", "ana@example.com");
+        });
+
+        List<BookingDetails> results;
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = IntStream.range(0, clients)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> service.getDetails(1L), pool))
+                    .toList();
+            results = futures.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertThat(results).hasSize(clients).allSatisfy(d -> assertThat(d.getUser().getName()).isEqualTo("Ana"));
+        verify(repo, times(1)).findById(1L);
+        verify(userClient, times(1)).getById(1L);
+        assertThat(coalesced("booking")).isEqualTo(clients - 1);
+        assertThat(coalesced("user")).isEqualTo(clients - 1);
+
+        // kad se ucitavanje zavrsi, sledeci zahtev ide ponovo do izvora (nema kesiranja)
+        service.getDetails(1L);
+        verify(repo, times(2)).findById(1L);
+    }
 }
@@ -0,0 +1,178 @@
+package rs.pds.booking.bookings.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.common.bulk.BulkImportState;
+import rs.pds.booking.common.dto.BookingRequest;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResult;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lokalni stub users-service-a koji odgovara tek posle 2s (Feign readTimeout je 3s).
+ * Pod opterecenjem lookup-i moraju brzo da padnu na 503 (TimeLimiter / Bulkhead / CircuitBreaker),
+ * a ne da svaki ceka do Feign timeout-a.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "users.replication.enabled=false",
+        "users.batch.window=0",
+        "resilience4j.timelimiter.instances.usersClient.timeoutDuration=300ms",
+        "resilience4j.bulkhead.instances.usersClient.maxConcurrentCalls=10"
+})
+class UserGuardFailFastTest {
+
+    static final Duration STUB_DELAY = Duration.ofSeconds(2);
+
+    static HttpServer stub;
+    static final AtomicInteger calls = new AtomicInteger();
+    static final AtomicInteger inFlight = new AtomicInteger();
+    static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/users", exchange -> {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(STUB_DELAY);
+                String path = exchange.getRequestURI().getPath();
+                byte[] body = ("{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + ",\"name\":\"Ana\",\"email\":\"ana@example.com\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void usersServiceUri(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.users-service[0].uri",
+                () -> "http://localhost:" + stub.getAddress().getPort());
+    }
+
+    @Autowired UserLookupService userLookupService;
+    @Autowired CircuitBreakerRegistry cbRegistry;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired BookingImportService importService;
+
+    // vraca HTTP status koji bi dobio klijent (200 ako je user nadjen)
+    private int lookup(long userId) {
+        try {
+            userLookupService.findById(userId);
+            return 200;
+        } catch (ResponseStatusException e) {
+            return e.getStatusCode().value();
+        }
+    }
+
+    // poziv koji je bulkhead pustio pre otvaranja CB-a moze da stigne do stub-a i posle isteka TimeLimiter-a
+    private static int settledCalls() throws InterruptedException {
+        int seen;
+        do {
+            seen = calls.get();
+            Thread.sleep(100);
+        } while (calls.get() != seen);
+        return seen;
+    }
+
+    @Test
+    void slowUsersService_failsFastUnderLoad() throws InterruptedException {
+        long started = System.nanoTime();
+        List<Integer> statuses;
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = LongStream.rangeClosed(1, 100)
+                    .mapToObj(id -> CompletableFuture.supplyAsync(() -> lookup(id), pool))
+                    .toList();
+            statuses = futures.stream().map(CompletableFuture::join).toList();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(statuses).containsOnly(503);
+        assertThat(elapsed).isLessThan(STUB_DELAY);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(10);
+        assertThat(cbRegistry.circuitBreaker(UserGuard.USERS_CLIENT).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // otvoren CB: poziv ne stize do users-service-a i vraca se odmah
+        int callsBefore = settledCalls();
+        long t0 = System.nanoTime();
+        assertThat(lookup(1000)).isEqualTo(503);
+        assertThat(Duration.ofNanos(System.nanoTime() - t0)).isLessThan(Duration.ofMillis(200));
+        assertThat(calls.get()).isEqualTo(callsBefore);
+
+        // stanje i trajanje politika idu kroz resilience4j-micrometer
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tags("name", UserGuard.USERS_CLIENT, "state", "open").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.not.permitted.calls")
+                .tag("name", UserGuard.USERS_CLIENT).counter().count()).isPositive();
+        assertThat(meterRegistry.get("resilience4j.timelimiter.calls")
+                .tags("name", UserGuard.USERS_CLIENT, "kind", "timeout").counter().count()).isPositive();
+        assertThat(meterRegistry.get("resilience4j.bulkhead.max.allowed.concurrent.calls")
+                .tag("name", UserGuard.USERS_CLIENT).gauge().value()).isEqualTo(10.0);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.calls")
+                .tags("name", UserGuard.USERS_CLIENT, "kind", "failed").timer().count()).isPositive();
+    }
+
+    // import ide kroz iste politike; nedostupan users-service ne prekida import sa 503, redovi dobijaju FAILED
+    @Test
+    void bulkImport_usersServiceDown_marksRowsFailed() throws InterruptedException {
+        var cb = cbRegistry.circuitBreaker(UserGuard.USERS_CLIENT);
+        cb.transitionToForcedOpenState();
+        try {
+            int callsBefore = settledCalls();
+            var row = new BookingRequest();
+            row.setUserId(2000L);
+            row.setResourceName("Sala Import");
+            row.setStart(LocalDateTime.parse("2032-01-01T10:00:00"));
+            row.setPrice(new BigDecimal("10.00"));
+
+            BulkBookingResponse response = importService.importAll(List.of(row).iterator());
+
+            assertThat(response.getFailed()).isEqualTo(1);
+            assertThat(response.getResults()).singleElement().satisfies(r -> {
+                assertThat(r.getStatus()).isEqualTo(BulkBookingResult.Status.FAILED);
+                assertThat(r.getError()).isEqualTo(BulkImportState.USERS_UNAVAILABLE);
+            });
+            assertThat(calls.get()).isEqualTo(callsBefore);
+        } finally {
+            cb.reset();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package rs.pds.booking.bookings.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+import rs.pds.booking.bookings.config.UserCacheConfig;
+import rs.pds.booking.bookings.controller.UserCacheController;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Kes korisnika sa pravim CacheManager-om iz application.yml (Caffeine, async mod iz UserCacheConfig):
+ * pogodak, promasaj, negativni kes za 404, greske se ne kesiraju, DELETE /internal/users/{id}/cache izbacuje.
+ * (@WebMvcTest gasi kes - spring.cache.type=none - pa je ovde uzak @SpringBootTest.)
+ */
+@SpringBootTest(classes = UserLookupCacheTest.Config.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class UserLookupCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @ImportAutoConfiguration(CacheAutoConfiguration.class)
+    @Import({UserLookupService.class, UserCacheConfig.class, UserCacheController.class})
+    static class Config {
+    }
+
+    @MockBean UserGuard userGuard;
+    @MockBean UserReplicator replicator;
+
+    @Autowired UserLookupService userLookupService;
+    @Autowired UserCacheController userCacheController;
+    @Autowired CacheManager cacheManager;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserLookupService.USERS_CACHE).clear();
+        reset(userGuard, replicator);
+        when(replicator.findLocal(anyLong())).thenReturn(Optional.empty());
+        mockMvc = MockMvcBuilders.standaloneSetup(userCacheController).build();
+    }
+
+    @Test
+    void secondLookup_isServedFromCache() {
+        when(userGuard.load(7L)).thenReturn(CompletableFuture.completedFuture(Optional.of(new UserSummary(7L, "Ana", "ana@example.com"))));
+
+        assertThat(userLookupService.findById(7L)).get().extracting(UserSummary::getName).isEqualTo("Ana");
+        assertThat(userLookupService.findById(7L)).get().extracting(UserSummary::getName).isEqualTo("Ana");
+
+        verify(userGuard, times(1)).load(7L);
+    }
+
+    @Test
+    void notFound_isCachedAsEmpty() {
+        when(userGuard.load(404L)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        assertThat(userLookupService.findById(404L)).isEmpty();
+        assertThat(userLookupService.findById(404L)).isEmpty();
+
+        verify(userGuard, times(1)).load(404L);
+    }
+
+    @Test
+    void failure_isNotCached() {
+        when(userGuard.load(8L))
+                .thenReturn(CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(new UserSummary(8L, "Marko", "marko@example.com"))));
+
+        assertThatThrownBy(() -> userLookupService.findById(8L)).isInstanceOf(ResponseStatusException.class);
+        assertThat(userLookupService.findById(8L)).isPresent();
+
+        verify(userGuard, times(2)).load(8L);
+    }
+
+    @Test
+    void localReplicaHit_skipsUsersService() {
+        when(replicator.findLocal(9L)).thenReturn(Optional.of(new UserSummary(9L, "Jovana", "jovana@example.com")));
+
+        assertThat(userLookupService.findById(9L)).isPresent();
+
+        verify(userGuard, times(0)).load(9L);
+    }
+
+    @Test
+    void evictEndpoint_dropsCachedUser() throws Exception {
+        when(userGuard.load(7L))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(new UserSummary(7L, "Ana", "ana@example.com"))))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(new UserSummary(7L, "Ana Nova", "ana@example.com"))));
+        userLookupService.findById(7L);
+
+        mockMvc.perform(delete("/internal/users/7/cache")).andExpect(status().isNoContent());
+
+        assertThat(userLookupService.findById(7L)).get().extracting(UserSummary::getName).isEqualTo("Ana Nova");
+        verify(userGuard, times(2)).load(7L);
+        verify(userGuard).forget(7L);
+    }
+}
@@ -0,0 +1,123 @@
+package rs.pds.booking.bookings.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * traceparent koji stigne na GET /bookings/{id}/details (od gateway-a) mora da stigne i do users-service-a:
+ * lookup prolazi kroz async kes, UserBatchLoader i Feign, svaki na svojoj niti.
+ * Poziv ide preko JDK HttpClient-a, ne TestRestTemplate-a, da klijent ne bi otvorio svoj trace.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "users.replication.enabled=false",
+        "users.batch.window=5ms"
+})
+@AutoConfigureObservability(metrics = false)
+class UserLookupTracingTest {
+
+    static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    static HttpServer stub;
+    static final List<String> traceparents = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/users", exchange -> {
+            traceparents.add(String.valueOf(exchange.getRequestHeaders().getFirst("traceparent")));
+            byte[] body = "{\"id\":7,\"name\":\"Ana\",\"email\":\"ana@example.com\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void usersServiceUri(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.users-service[0].uri",
+                () -> "http://localhost:" + stub.getAddress().getPort());
+    }
+
+    @LocalServerPort int port;
+    @Autowired BookingRepository bookingRepository;
+    @Autowired BookingIntervalIndex intervalIndex;
+
+    @BeforeEach
+    void clearCalls() {
+        traceparents.clear();
+    }
+
+    @Test
+    void details_propagatesIncomingTraceToUsersService() throws Exception {
+        assertTracePropagated(save(7L, "Sala T"));
+    }
+
+    // booking iz indeksa: user fetch krece paralelno sa citanjem iz baze, na fanOut niti
+    @Test
+    void details_parallelUserFetch_keepsIncomingTrace() throws Exception {
+        Long id = save(8L, "Sala U");
+        intervalIndex.rebuild();
+
+        assertTracePropagated(id);
+    }
+
+    // kes user-a je po id-ju, pa svaki test ima svog user-a da bi lookup stigao do stub-a
+    private Long save(long userId, String resource) {
+        Booking b = new Booking();
+        b.setUserId(userId);
+        b.setResourceName(resource);
+        b.setStart(LocalDateTime.parse("2031-01-01T10:00:00"));
+        b.setEnd(LocalDateTime.parse("2031-01-08T10:00:00"));
+        b.setPrice(new BigDecimal("20.00"));
+        return bookingRepository.save(b).getId();
+    }
+
+    private void assertTracePropagated(Long id) throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/" + id + "/details"))
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("\"name\":\"Ana\"");
+        // isti trace, novi span (Feign klijent) -> 00-<traceId>-<spanId != roditelj>-01
+        assertThat(traceparents).singleElement()
+                .satisfies(tp -> assertThat(tp).startsWith("00-" + TRACE_ID + "-").doesNotContain("00f067aa0ba902b7"));
+    }
+}
@@ -0,0 +1,142 @@
+package rs.pds.booking.bookings.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.pds.booking.bookings.client.UserEventSource;
+import rs.pds.booking.bookings.dto.UserEvent;
+import rs.pds.booking.bookings.dto.UserEvents;
+import rs.pds.booking.bookings.repository.ReplicationOffsetRepository;
+import rs.pds.booking.bookings.repository.UserReplicaRepository;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replika nad pravom (H2) bazom, sa in-process izvorom dogadjaja umesto HTTP feed-a.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // replikator sam commit-uje svoje transakcije
+class UserReplicatorTest {
+
+    @Autowired UserReplicaRepository replicaRepository;
+    @Autowired ReplicationOffsetRepository offsetRepository;
+    @Autowired PlatformTransactionManager txManager;
+
+    // in-process "broker": lista dogadjaja, fetch vraca seq > after
+    final List<UserEvent> log = new ArrayList<>();
+    String epoch = "e1";
+    final UserEventSource source = (after, limit) -> new UserEvents(epoch, log.size(), false,
+            log.stream().filter(e -> e.getSeq() > after).limit(limit).toList());
+    final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UserLookupService.USERS_CACHE);
+
+    @BeforeEach
+    void clean() {
+        replicaRepository.deleteAll();
+        offsetRepository.deleteAll();
+    }
+
+    private UserReplicator replicator() {
+        return new UserReplicator(source, replicaRepository, offsetRepository, new TransactionTemplate(txManager),
+                cacheManager, new SimpleMeterRegistry(), true, 2);
+    }
+
+    private void publish(String type, long userId, String name) {
+        log.add(new UserEvent((long) log.size() + 1, type, userId, name, name.toLowerCase() + "@example.com", 0L));
+    }
+
+    @Test
+    void notReadyUntilFirstSync_thenServesUsersLocally() {
+        publish("CREATED", 1, "Ana");
+        publish("CREATED", 2, "Marko");
+        publish("CREATED", 3, "Jovan");
+        var replicator = replicator();
+
+        assertThat(replicator.findLocal(1L)).isEmpty(); // pre prve sinhronizacije sve ide na users-service
+
+        assertThat(replicator.sync()).isEqualTo(3); // vise blokova (batch-size 2)
+        assertThat(replicator.isReady()).isTrue();
+        assertThat(replicator.findLocal(2L)).map(UserSummary::getName).contains("Marko");
+        assertThat(replicator.findLocalIds(List.of(1L, 3L, 99L))).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void updatesAndDeletes_areAppliedAndEvictCachedUser() {
+        publish("CREATED", 1, "Ana");
+        var replicator = replicator();
+        replicator.sync();
+        cacheManager.getCache(UserLookupService.USERS_CACHE).put(1L, Optional.of(new UserSummary(1L, "Ana", "ana@example.com")));
+
+        publish("UPDATED", 1, "Anica");
+        replicator.sync();
+        assertThat(replicator.findLocal(1L)).map(UserSummary::getName).contains("Anica");
+        assertThat(cacheManager.getCache(UserLookupService.USERS_CACHE).get(1L)).isNull();
+
+        publish("DELETED", 1, "Anica");
+        replicator.sync();
+        assertThat(replicator.findLocal(1L)).isEmpty();
+    }
+
+    @Test
+    void restart_continuesFromStoredOffset() {
+        publish("CREATED", 1, "Ana");
+        publish("CREATED", 2, "Marko");
+        replicator().sync();
+        assertThat(offsetRepository.findById(UserReplicator.STREAM)).get()
+                .extracting(o -> o.getPosition()).isEqualTo(2L);
+
+        // novi replikator (restart) ne primenjuje ponovo stare dogadjaje
+        publish("CREATED", 3, "Jovan");
+        assertThat(replicator().sync()).isEqualTo(1);
+        assertThat(replicaRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void usersServiceRestart_newEpoch_truncatesReplicaAndResyncsFromZero() {
+        publish("CREATED", 1, "Ana");
+        publish("CREATED", 2, "Marko");
+        publish("CREATED", 3, "Jovan");
+        var replicator = replicator();
+        replicator.sync();
+        cacheManager.getCache(UserLookupService.USERS_CACHE).put(2L, Optional.of(new UserSummary(2L, "Marko", "marko@example.com")));
+
+        // users-service sa novom bazom: seq krece od 1, stari user-i ne postoje
+        log.clear();
+        epoch = "e2";
+        publish("CREATED", 7, "Mina");
+
+        assertThat(replicator.sync()).isEqualTo(1);
+        assertThat(replicaRepository.findAll()).extracting(u -> u.getId()).containsExactly(7L);
+        assertThat(offsetRepository.findById(UserReplicator.STREAM)).get()
+                .satisfies(o -> {
+                    assertThat(o.getPosition()).isEqualTo(1L);
+                    assertThat(o.getEpoch()).isEqualTo("e2");
+                });
+        assertThat(cacheManager.getCache(UserLookupService.USERS_CACHE).get(2L)).isNull();
+        assertThat(replicator.isReady()).isTrue();
+    }
+
+    @Test
+    void offsetAheadOfHead_sameEpoch_resets() {
+        publish("CREATED", 1, "Ana");
+        publish("CREATED", 2, "Marko");
+        replicator().sync();
+
+        // isti epoch, ali tok je kraci od offset-a (npr. vracen backup) -> reset, ne preskakanje
+        log.clear();
+        publish("CREATED", 5, "Luka");
+        assertThat(replicator().sync()).isEqualTo(1);
+        assertThat(replicaRepository.findAll()).extracting(u -> u.getId()).containsExactly(5L);
+    }
+}
@@ -0,0 +1,14 @@
+package rs.pds.booking.discovery.registry;
+
+import java.util.Map;
+
+/**
+ * Jedna izmena registra: instanca je UP (registracija / status UP) ili DOWN (odjava, istekao lease, status != UP).
+ * Za DOWN posle odjave poznati su samo app i instanceId.
+ */
+public record RegistryChange(long seq, String type, String app, String instanceId,
+                             String host, int port, Map<String, String> metadata) {
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+}
@@ -0,0 +1,36 @@
+package rs.pds.booking.discovery.registry;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+/**
+ * Long-poll tok izmena registra: GET /registry/changes?epoch=&lt;epoch&gt;&amp;after=&lt;seq&gt;&amp;waitMs=30000.
+ * Odgovor stize cim postoji izmena posle after, najkasnije posle waitMs (prazna lista).
+ * Bez epoch/after klijent dobija samo trenutni epoch i seq i od njih nastavlja.
+ */
+@RestController
+@RequestMapping("/registry")
+public class RegistryChangeController {
+
+    static final Duration MAX_WAIT = Duration.ofSeconds(60);
+
+    private final RegistryChangeFeed feed;
+
+    public RegistryChangeController(RegistryChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @GetMapping("/changes")
+    public DeferredResult<RegistryChanges> changes(@RequestParam(value = "epoch", required = false) String epoch,
+                                                   @RequestParam(value = "after", defaultValue = "-1") long after,
+                                                   @RequestParam(value = "waitMs", defaultValue = "30000") long waitMs) {
+        DeferredResult<RegistryChanges> result = new DeferredResult<>(Math.min(waitMs, MAX_WAIT.toMillis()));
+        feed.await(epoch, after, result);
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package rs.pds.booking.discovery.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tok izmena Eureka registra za klijente (gateway, bookings-service) koji ne zele da cekaju
+ * svoj registry fetch + LoadBalancer kes: registracija, odjava i istek lease-a (eviction) ulaze u bafer
+ * poslednjih buffer-size izmena sa rastucim seq, a klijenti koji cekaju (long-poll) dobijaju ih odmah.
+ * Isti princip kao outbox tok user-a (after=seq), samo u memoriji: posle restarta se menja epoch i klijenti rade reset.
+ */
+@Component
+public class RegistryChangeFeed {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final int bufferSize;
+
+    private final Deque<RegistryChange> buffer = new ArrayDeque<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+    private long seq;
+
+    private record Waiter(long after, DeferredResult<RegistryChanges> result) {
+    }
+
+    public RegistryChangeFeed(@Value("${registry.changes.buffer-size:1000}") int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        InstanceInfo info = event.getInstanceInfo();
+        String type = info.getStatus() == InstanceInfo.InstanceStatus.UP ? RegistryChange.UP : RegistryChange.DOWN;
+        append(type, info.getAppName(), info.getId(), info.getHostName(), info.getPort(), info.getMetadata());
+    }
+
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        append(RegistryChange.DOWN, event.getAppName(), event.getServerId(), null, 0, Map.of());
+    }
+
+    private synchronized void append(String type, String app, String instanceId, String host, int port, Map<String, String> metadata) {
+        buffer.addLast(new RegistryChange(++seq, type, app, instanceId, host, port, Map.copyOf(metadata)));
+        if (buffer.size() > bufferSize) {
+            buffer.removeFirst();
+        }
+        List<Waiter> ready = new ArrayList<>(waiters);
+        waiters.clear();
+        for (Waiter waiter : ready) {
+            waiter.result().setResult(changesAfter(waiter.after()));
+        }
+    }
+
+    /**
+     * Izmene posle after; ako ih nema, result ostaje otvoren do prve izmene ili isteka (tada prazna lista).
+     * after < 0: samo trenutni seq (klijent se tek ukljucuje); seq iz drugog epoch-a: reset.
+     */
+    public synchronized void await(String clientEpoch, long after, DeferredResult<RegistryChanges> result) {
+        if (after >= 0 && !epoch.equals(clientEpoch)) {
+            result.setResult(new RegistryChanges(epoch, seq, true, List.of()));
+            return;
+        }
+        RegistryChanges changes = changesAfter(after);
+        if (after < 0 || changes.reset() || !changes.changes().isEmpty()) {
+            result.setResult(changes);
+            return;
+        }
+        Waiter waiter = new Waiter(after, result);
+        waiters.add(waiter);
+        result.onTimeout(() -> expire(waiter));
+        result.onCompletion(() -> remove(waiter));
+    }
+
+    private synchronized void expire(Waiter waiter) {
+        waiter.result().setResult(new RegistryChanges(epoch, seq, false, List.of()));
+        waiters.remove(waiter);
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private RegistryChanges changesAfter(long after) {
+        if (after < 0) {
+            return new RegistryChanges(epoch, seq, false, List.of());
+        }
+        long oldest = buffer.isEmpty() ? seq + 1 : buffer.peekFirst().seq();
+        // izmene koje vise nisu u baferu
+        if (after > seq || after < oldest - 1) {
+            return new RegistryChanges(epoch, seq, true, List.of());
+        }
+        List<RegistryChange> changes = new ArrayList<>();
+        for (Iterator<RegistryChange> it = buffer.descendingIterator(); it.hasNext(); ) {
+            RegistryChange change = it.next();
+            if (change.seq() <= after) {
+                break;
+            }
+            changes.add(0, change);
+        }
+        return new RegistryChanges(epoch, seq, false, changes);
+    }
+}
@@ -0,0 +1,11 @@
+package rs.pds.booking.discovery.registry;
+
+import java.util.List;
+
+/**
+ * Odgovor GET /registry/changes: izmene posle trazenog seq i poslednji seq.
+ * reset = klijent je propustio izmene (restart discovery-service-a ili izmene vec izbacene iz bafera);
+ * tada odbacuje sve sto je primio i oslanja se na redovni Eureka fetch.
+ */
+public record RegistryChanges(String epoch, long seq, boolean reset, List<RegistryChange> changes) {
+}
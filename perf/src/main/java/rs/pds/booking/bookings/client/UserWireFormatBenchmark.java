@@ -0,0 +1,95 @@
+package rs.pds.booking.bookings.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import rs.pds.booking.common.dto.UserSummary;
+import rs.pds.booking.users.dto.UserResponse;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Format odgovora users-service -> bookings-service (UserClient): JSON, Smile i CBOR.
+ * write = users-service serijalizuje UserResponse, read = bookings-service cita UserSummary; one = GET /users/{id},
+ * batch = GET /users?ids=... sa 100 user-a (UserBatchLoader). ObjectMapper-i su napravljeni kao u Spring MVC
+ * converter-ima (Jackson2ObjectMapperBuilder.json() / smile() / cbor()). Velicina tela se ispisuje na setup-u.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserWireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    ObjectWriter oneWriter;
+    ObjectWriter batchWriter;
+    ObjectReader oneReader;
+    ObjectReader batchReader;
+
+    UserResponse user;
+    List<UserResponse> batch;
+    byte[] oneBytes;
+    byte[] batchBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        oneWriter = objectMapper.writerFor(UserResponse.class);
+        batchWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserResponse.class));
+        oneReader = objectMapper.readerFor(UserSummary.class);
+        batchReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserSummary.class));
+
+        batch = LongStream.rangeClosed(1, 100)
+                .mapToObj(i -> new UserResponse(1000 + i, "Korisnik " + i, "korisnik" + i + "@example.com"))
+                .toList();
+        user = batch.get(0);
+        oneBytes = oneWriter.writeValueAsBytes(user);
+        batchBytes = batchWriter.writeValueAsBytes(batch);
+        System.out.printf(Locale.ROOT, "%n%s: one=%dB batch=%dB%n", format, oneBytes.length, batchBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeOne() throws Exception {
+        return oneWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public UserSummary readOne() throws Exception {
+        return oneReader.readValue(oneBytes);
+    }
+
+    @Benchmark
+    public byte[] writeBatch() throws Exception {
+        return batchWriter.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public List<UserSummary> readBatch() throws Exception {
+        return batchReader.readValue(batchBytes);
+    }
+}
@@ -0,0 +1,90 @@
+package rs.pds.booking.bookings.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import rs.pds.booking.common.dto.BookingDetails;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.dto.UserSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JSON serijalizacija odgovora bookings-service-a: BookingResponse, BookingDetails i stranica od 50.
+ * ObjectMapper je podesen kao Boot-ov (Jackson2ObjectMapperBuilder + datumi kao ISO string);
+ * writer-i su pripremljeni unapred, kao sto ih Spring MVC kesira po tipu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingJsonBenchmark {
+
+    ObjectMapper objectMapper;
+    ObjectWriter responseWriter;
+    ObjectWriter detailsWriter;
+    ObjectWriter pageWriter;
+
+    BookingResponse response;
+    BookingDetails details;
+    List<BookingResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        responseWriter = objectMapper.writerFor(BookingResponse.class);
+        detailsWriter = objectMapper.writerFor(BookingDetails.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, BookingResponse.class));
+
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        page = LongStream.rangeClosed(1, 50)
+                .mapToObj(i -> new BookingResponse(i, i % 7 + 1, "Sala " + (i % 5),
+                        start.plusHours(i), start.plusHours(i + 1), new BigDecimal("1500.00")))
+                .toList();
+        response = page.get(0);
+        details = new BookingDetails(1L, 1L, "Sala A", start, start.plusHours(1), new BigDecimal("1500.00"),
+                new UserSummary(1L, "Ana", "ana@example.com"));
+    }
+
+    @Benchmark
+    public byte[] response() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] details() throws Exception {
+        return detailsWriter.writeValueAsBytes(details);
+    }
+
+    @Benchmark
+    public byte[] page() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    // obrnut smer: POST /bookings telo je mali JSON, ali se parsira na svakom upisu
+    @Benchmark
+    public BookingResponse readResponse() throws Exception {
+        return objectMapper.readValue("{\"id\":1,\"userId\":1,\"resourceName\":\"Sala A\","
+                + "\"start\":\"2026-01-01T08:00:00\",\"end\":\"2026-01-01T09:00:00\",\"price\":1500.00}", BookingResponse.class);
+    }
+}
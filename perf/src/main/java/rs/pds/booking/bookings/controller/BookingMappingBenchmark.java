@@ -0,0 +1,68 @@
+package rs.pds.booking.bookings.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.common.dto.BookingResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cena BookingController.toResponse (entitet -> DTO): jedan booking i stranica od 50
+ * (podrazumevani limit za GET /bookings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingMappingBenchmark {
+
+    Booking single;
+    List<Booking> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        page = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (long i = 1; i <= 50; i++) {
+            Booking b = new Booking();
+            b.setId(i);
+            b.setUserId(i % 7 + 1);
+            b.setResourceName("Sala " + (i % 5));
+            b.setStart(start.plusHours(i));
+            b.setEnd(start.plusHours(i + 1));
+            b.setPrice(new BigDecimal("1500.00"));
+            b.setVersion(0L);
+            page.add(b);
+        }
+        single = page.get(0);
+    }
+
+    @Benchmark
+    public BookingResponse single() {
+        return BookingController.toResponse(single);
+    }
+
+    @Benchmark
+    public void page(Blackhole bh) {
+        for (Booking b : page) {
+            bh.consume(BookingController.toResponse(b));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package rs.pds.booking.bookings.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.common.dto.TimeSlot;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /bookings/availability bez HTTP-a: BookingIntervalIndex.freeSlots nad resursom sa perf.slots termina
+ * (100k, 1h termin + 1h pauza, ~23 godine) za prozore od 1, 30 i 365 dana na nasumicnim pozicijama.
+ * scan = isti rezultat prolaskom kroz sve termine resursa (ono sto bi radila obrada posle
+ * findByResourceName bez indeksa), kao osnova za poredjenje.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class FreeSlotsBenchmark {
+
+    static final String RESOURCE = "Sala A";
+    static final LocalDateTime ORIGIN = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Param({"100000"})
+    int slots;
+
+    @Param({"1", "30", "365"})
+    int windowDays;
+
+    BookingIntervalIndex index;
+    List<Booking> all;
+    LocalDateTime[] windows;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // puni se preko reserve, bez rebuild-a iz baze; provera u bazi (druge instance) uvek prazna
+        BookingRepository noOtherInstances = (BookingRepository) Proxy.newProxyInstance(BookingRepository.class.getClassLoader(),
+                new Class<?>[]{BookingRepository.class}, (proxy, method, args) -> Optional.empty());
+        PlatformTransactionManager noTransactions = (PlatformTransactionManager) Proxy.newProxyInstance(
+                PlatformTransactionManager.class.getClassLoader(), new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> method.getName().equals("getTransaction") ? new SimpleTransactionStatus() : null);
+        index = new BookingIntervalIndex(noOtherInstances, new TransactionTemplate(noTransactions));
+        all = new ArrayList<>(slots);
+        for (long i = 0; i < slots; i++) {
+            Booking b = new Booking();
+            b.setId(i + 1);
+            b.setUserId(i % 1000 + 1);
+            b.setResourceName(RESOURCE);
+            b.setStart(ORIGIN.plusHours(2 * i));
+            b.setEnd(ORIGIN.plusHours(2 * i + 1));
+            index.reserve(null, RESOURCE, b.getStart(), b.getEnd(), () -> b);
+            all.add(b);
+        }
+        long spanHours = 2L * slots - Duration.ofDays(windowDays).toHours();
+        SplittableRandom random = new SplittableRandom(42);
+        windows = new LocalDateTime[1024];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = ORIGIN.plusHours(random.nextLong(spanHours)).plusMinutes(30);
+        }
+    }
+
+    private LocalDateTime nextFrom() {
+        return windows[next++ & (windows.length - 1)];
+    }
+
+    @Benchmark
+    public List<TimeSlot> index() {
+        LocalDateTime from = nextFrom();
+        return index.freeSlots(RESOURCE, from, from.plusDays(windowDays));
+    }
+
+    @Benchmark
+    public List<TimeSlot> scan() {
+        LocalDateTime from = nextFrom();
+        LocalDateTime to = from.plusDays(windowDays);
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Booking b : all) {
+            if (!b.getEnd().isAfter(from) || !b.getStart().isBefore(to)) {
+                continue;
+            }
+            if (b.getStart().isAfter(cursor)) {
+                free.add(new TimeSlot(cursor, b.getStart()));
+            }
+            if (b.getEnd().isAfter(cursor)) {
+                cursor = b.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return free;
+    }
+}
@@ -0,0 +1,107 @@
+package rs.pds.booking.gateway.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cena ApiKeyFilter-a po zahtevu za 1, 10 i 100 whitelist pattern-a (zahtev nije na whitelist-i,
+ * pa se prolazi kroz sve pattern-e). legacyValidKey je stara implementacija (AntPathMatcher + equals)
+ * radi poredjenja.
+ *
+ * Pokretanje: mvn -pl perf -am install -DskipTests, pa mvn -pl perf exec:exec -Dperf.args=ApiKeyFilterBenchmark
+ * (ili main() iz IDE-a).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiKeyFilterBenchmark {
+
+    static final String KEY = "sifra123";
+
+    @Param({"1", "10", "100"})
+    int patterns;
+
+    ApiKeyFilter filter;
+    List<String> whitelist;
+    AntPathMatcher antPathMatcher;
+    ServerWebExchange validExchange;
+    ServerWebExchange whitelistedExchange;
+    ServerWebExchange invalidExchange;
+
+    final GatewayFilterChain chain = exchange -> Mono.empty();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        whitelist = IntStream.range(0, patterns).mapToObj(i -> "/public/p" + i + "/**").toList();
+        var props = new ApiKeyProperties();
+        props.setValue(KEY);
+        props.setWhitelist(whitelist);
+        filter = new ApiKeyFilter(props);
+        antPathMatcher = new AntPathMatcher();
+
+        validExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/bookings/42/details").header("X-API-Key", KEY));
+        whitelistedExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/public/p" + (patterns - 1) + "/docs"));
+        invalidExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/bookings/42/details").header("X-API-Key", "pogresan"));
+    }
+
+    @Benchmark
+    public Mono<Void> validKey() {
+        return filter.filter(validExchange, chain);
+    }
+
+    @Benchmark
+    public Mono<Void> whitelisted() {
+        return filter.filter(whitelistedExchange, chain);
+    }
+
+    // 401 se upisuje u response, pa svaki poziv dobija nov (mutate je jeftin, novi MockServerWebExchange nije);
+    // block() da bi se telo zaista napisalo
+    @Benchmark
+    public Void invalidKey() {
+        var exchange = invalidExchange.mutate().response(new MockServerHttpResponse()).build();
+        return filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public boolean legacyValidKey() {
+        var path = validExchange.getRequest().getPath().value();
+        for (String pattern : whitelist) {
+            if (antPathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        var provided = validExchange.getRequest().getHeaders().getFirst("X-API-Key");
+        return provided != null && provided.equals(KEY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ApiKeyFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
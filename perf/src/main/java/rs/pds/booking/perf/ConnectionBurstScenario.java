@@ -0,0 +1,207 @@
+package rs.pds.booking.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
+import rs.pds.booking.bookings.client.UserClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Cena otvaranja konekcija ka users-service-u pod naletima: perf.burst.count naleta po perf.burst.size
+ * istovremenih zahteva, sa pauzom perf.burst.gap izmedju (pool ostaje topao), na dve putanje:
+ * <ul>
+ *   <li>gateway: GET /api/users/{id} preko gateway-a (Reactor Netty pool ka users-service-u)</li>
+ *   <li>feign: UserClient.getById direktno iz bookings konteksta (bez kesa, replike i batch-a)</li>
+ * </ul>
+ * Modovi (svaki je poseban stack): "no-keep-alive" = users-service zatvara konekciju posle svakog zahteva
+ * (svaki poziv otvara novu), "keep-alive-100" = Tomcat podrazumevano (nova konekcija na 100 zahteva),
+ * "pooled" = podesavanja iz application.yml, "h2c" = pooled + HTTP/2 bez TLS-a (INTERNAL_H2C).
+ * conns = najveci broj konekcija u pool-u posle naleta, iz izvezenih metrika (reactor.netty.connection.provider.*,
+ * httpcomponents.httpclient.pool.*); JDK HttpClient (feign + h2c) pool ne izvozi.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.burst.modes (no-keep-alive,keep-alive-100,pooled,h2c), perf.burst.size (100), perf.burst.count (30),
+ *  perf.burst.warmup (5), perf.burst.gap (300ms), perf.report (CSV fajl, opciono).
+ */
+public final class ConnectionBurstScenario {
+
+    static final Map<String, Map<String, String>> MODES = Map.of(
+            "no-keep-alive", Map.of("perf.users.server.tomcat.max-keep-alive-requests", "1"),
+            "keep-alive-100", Map.of("perf.users.server.tomcat.max-keep-alive-requests", "100"),
+            "pooled", Map.of(),
+            "h2c", Map.of("perf.users.server.http2.enabled", "true",
+                    "perf.bookings.users.http.h2c", "true",
+                    "perf.gateway.gateway.upstream.h2c", "true"));
+
+    record Result(LoadRunner.Result result, int connections) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int size;
+    private final int count;
+    private final int warmup;
+    private final Duration gap;
+
+    ConnectionBurstScenario(int size, int count, int warmup, Duration gap) {
+        this.size = size;
+        this.count = count;
+        this.warmup = warmup;
+        this.gap = gap;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = List.of(System.getProperty("perf.burst.modes", "no-keep-alive,keep-alive-100,pooled,h2c").split(","));
+        int size = Integer.getInteger("perf.burst.size", 100);
+        int count = Integer.getInteger("perf.burst.count", 30);
+        int warmup = Integer.getInteger("perf.burst.warmup", 5);
+        Duration gap = Duration.parse("PT" + System.getProperty("perf.burst.gap", "0.3s"));
+
+        ConnectionBurstScenario scenario = new ConnectionBurstScenario(size, count, warmup, gap);
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            Map<String, String> overrides = MODES.get(mode);
+            if (overrides == null) {
+                throw new IllegalArgumentException("Nepoznat mod: " + mode + " (" + MODES.keySet() + ")");
+            }
+            overrides.forEach(System::setProperty);
+            try (InProcessStack stack = InProcessStack.start()) {
+                results.put(mode + " gateway", scenario.gateway(stack));
+                results.put(mode + " feign", scenario.feign(stack));
+            } finally {
+                overrides.keySet().forEach(System::clearProperty);
+            }
+            results.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(mode + " "))
+                    .forEach(e -> System.out.printf("%-22s %s conns=%d%n", e.getKey(), e.getValue().result().summary(),
+                            e.getValue().connections()));
+        }
+
+        System.out.println();
+        System.out.printf("burst size=%d count=%d warmup=%d gap=%s (conns -1 = pool bez metrika)%n", size, count, warmup, gap);
+        System.out.printf(Locale.ROOT, "%-22s %9s %7s %8s %8s %8s %6s%n", "mode", "requests", "errors", "p50 ms", "p99 ms", "max ms", "conns");
+        results.forEach((name, r) -> System.out.printf(Locale.ROOT, "%-22s %9d %7d %8.1f %8.1f %8.1f %6d%n", name,
+                r.result().requests(), r.result().errors(), r.result().percentileMs(0.50), r.result().p99Ms(),
+                r.result().percentileMs(1.0), r.connections()));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("mode,requests,errors,p50_ms,p99_ms,max_ms,connections");
+            results.forEach((name, r) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.2f,%.2f,%d", name,
+                    r.result().requests(), r.result().errors(), r.result().percentileMs(0.50), r.result().p99Ms(),
+                    r.result().percentileMs(1.0), r.connections())));
+            Files.write(Path.of(report), lines);
+        }
+        // Eureka / Tomcat niti ne smeju da drze JVM posle izvestaja
+        System.exit(0);
+    }
+
+    private Result gateway(InProcessStack stack) throws Exception {
+        long userId = seedUser(stack.usersPort());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + stack.gatewayPort() + "/api/users/" + userId))
+                .header("X-API-Key", LoadScenario.API_KEY)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        return bursts(() -> http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2,
+                stack.gateway(), "reactor.netty.connection.provider.total.connections");
+    }
+
+    private Result feign(InProcessStack stack) throws Exception {
+        long userId = seedUser(stack.usersPort());
+        UserClient client = stack.bookings().getBean(UserClient.class);
+        return bursts(() -> client.getById(userId) != null,
+                stack.bookings(), "httpcomponents.httpclient.pool.total.connections");
+    }
+
+    // warmup + count naleta; latencija od zajednickog starta naleta do odgovora
+    private Result bursts(Callable<Boolean> call, ConfigurableApplicationContext ctx, String poolGauge) throws Exception {
+        MeterRegistry registry = ctx.getBean(MeterRegistry.class);
+        long[] latencies = new long[size * count];
+        int recorded = 0;
+        long errors = 0;
+        long busyNanos = 0;
+        int connections = -1;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int b = 0; b < warmup + count; b++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> futures = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        long t0 = System.nanoTime();
+                        try {
+                            return call.call() ? System.nanoTime() - t0 : -1L;
+                        } catch (Exception e) {
+                            return -1L;
+                        }
+                    }));
+                }
+                long burstStart = System.nanoTime();
+                start.countDown();
+                for (Future<Long> f : futures) {
+                    long nanos = f.get();
+                    if (b < warmup) {
+                        continue;
+                    }
+                    if (nanos < 0) {
+                        errors++;
+                    } else {
+                        latencies[recorded++] = nanos;
+                    }
+                }
+                if (b >= warmup) {
+                    busyNanos += System.nanoTime() - burstStart;
+                    connections = Math.max(connections, poolSize(registry, poolGauge));
+                }
+                Thread.sleep(gap.toMillis());
+            }
+        }
+        long[] sorted = Arrays.copyOf(latencies, recorded);
+        Arrays.sort(sorted);
+        return new Result(new LoadRunner.Result(recorded + (int) errors, errors, recorded / (busyNanos / 1e9), sorted), connections);
+    }
+
+    // zbir po stanju / udaljenoj adresi; -1 kad pool nema metriku
+    private static int poolSize(MeterRegistry registry, String name) {
+        var gauges = registry.find(name).gauges();
+        return gauges.isEmpty() ? -1 : (int) gauges.stream().mapToDouble(Gauge::value).sum();
+    }
+
+    private long seedUser(int usersPort) throws Exception {
+        HttpRequest post = HttpRequest.newBuilder(URI.create("http://localhost:" + usersPort + "/users"))
+                .header("Content-Type", "application/json")
+                // H2 baza u memoriji prezivi stack (DB_CLOSE_DELAY=-1), pa svaka putanja pravi svog user-a
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Burst\",\"email\":\"b" + System.nanoTime() % 1_000_000_000
+                        + "@perf.rs\",\"password\":\"sifra123\"}"))
+                .build();
+        HttpResponse<String> response = http.send(post, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seed user odbijen: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+}
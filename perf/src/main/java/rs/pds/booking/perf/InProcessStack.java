@@ -0,0 +1,336 @@
+package rs.pds.booking.perf;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import rs.pds.booking.bookings.BookingsServiceApplication;
+import rs.pds.booking.bookings.reactive.BookingsReactiveApplication;
+import rs.pds.booking.discovery.DiscoveryServiceApplication;
+import rs.pds.booking.gateway.ApiGatewayApplication;
+import rs.pds.booking.users.UsersServiceApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * discovery, users, bookings i gateway u jednom JVM-u, svaki u svom Spring kontekstu na random portu.
+ * Svaki kontekst cita application.yml SVOG modula (na zajednickom classpath-u bi inace pobedio prvi),
+ * a zajednicke zavisnosti (JPA, Flyway, gateway) se iskljucuju tamo gde ne pripadaju.
+ * Sistemska svojstva perf.&lt;servis&gt;.&lt;kljuc&gt; (npr. -Dperf.gateway.gateway.response-cache.enabled=true)
+ * se prosledjuju kontekstu tog servisa.
+ * Bez profila Eureka intervali su skraceni na 1s (stack je brzo spreman za merenje endpoint-a);
+ * sa profilom vaze intervali iz application.yml + application-&lt;profil&gt;.yml modula, kao van perf-a.
+ * Umesto bookings-service-a moze da se pokrene bookings-reactive-service ({@link #startReactive()}): i on se
+ * registruje kao bookings-service, a perf.bookings.* vazi za onaj koji je pokrenut.
+ * Oba bookings modula su na classpath-u, pa svaki kontekst vidi samo svoje Flyway migracije, a MVC kontekst
+ * ne skenira reaktivni paket (rs.pds.booking.bookings.reactive je potpaket) niti dize R2DBC.
+ */
+final class InProcessStack implements AutoCloseable {
+
+    private static final String NO_JDBC = String.join(",",
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration");
+
+    // sa podrazumevanim intervalima (30s fetch + 30s kes odgovora + 35s LoadBalancer kes) instanca se vidi i posle ~1.5min
+    private static final String NO_WEB_CLIENT = String.join(",",
+            "org.springframework.boot.autoconfigure.web.reactive.function.client.ClientHttpConnectorAutoConfiguration",
+            "org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration");
+
+    // r2dbc-h2 je na classpath-u zbog reaktivnog bookings-a; ostali konteksti bi inace dobili ugradjenu R2DBC bazu
+    // (a MVC bookings i R2DBC TransactionManager umesto JPA)
+    private static final String NO_R2DBC = String.join(",",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration");
+
+    private static final String REACTIVE_BOOKINGS_PACKAGE = BookingsReactiveApplication.class.getPackageName() + ".";
+
+    private static final Duration REGISTRATION_TIMEOUT = Duration.ofMinutes(3);
+
+    private final List<ConfigurableApplicationContext> contexts = new CopyOnWriteArrayList<>();
+    private final String profile;
+    private final boolean reactiveBookings;
+    private String eurekaUrl;
+    private ConfigurableApplicationContext bookingsCtx;
+    private ConfigurableApplicationContext gatewayCtx;
+
+    private int gatewayPort;
+    private int usersPort;
+    private int bookingsPort;
+
+    private InProcessStack(String profile, boolean reactiveBookings) {
+        this.profile = profile;
+        this.reactiveBookings = reactiveBookings;
+    }
+
+    static InProcessStack start() {
+        return start(null);
+    }
+
+    // bookings-reactive-service umesto bookings-service-a
+    static InProcessStack startReactive() {
+        return start(null, true);
+    }
+
+    // profile: npr. "fast-discovery"; "default" = Eureka intervali bez izmena
+    static InProcessStack start(String profile) {
+        return start(profile, false);
+    }
+
+    private static InProcessStack start(String profile, boolean reactiveBookings) {
+        InProcessStack stack = new InProcessStack(profile, reactiveBookings);
+        try {
+            stack.startAll();
+            return stack;
+        } catch (RuntimeException e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private void startAll() {
+        Map<String, String> discovery = common();
+        discovery.put("spring.autoconfigure.exclude", NO_JDBC + "," + NO_R2DBC);
+        discovery.put("spring.cloud.gateway.enabled", "false");
+        discovery.put("eureka.server.enable-self-preservation", "false");
+        discovery.put("eureka.server.wait-time-in-ms-when-sync-empty", "0");
+        if (profile == null) {
+            discovery.put("eureka.server.use-read-only-response-cache", "false");
+            discovery.put("eureka.server.response-cache-update-interval-ms", "200");
+        }
+        discovery.put("logging.level.com.netflix.eureka", "WARN");
+        discovery.put("logging.level.org.springframework.cloud.netflix.eureka", "WARN");
+        int discoveryPort = port(run(DiscoveryServiceApplication.class, WebApplicationType.SERVLET, "discovery", discovery));
+        eurekaUrl = "http://localhost:" + discoveryPort + "/eureka";
+
+        ConfigurableApplicationContext usersCtx = startUsers(Map.of());
+        usersPort = port(usersCtx);
+
+        Map<String, String> bookings = eurekaClient();
+        bookings.put("spring.cloud.gateway.enabled", "false");
+        if (reactiveBookings) {
+            // spring.autoconfigure.exclude (bez JDBC DataSource-a) ostaje iz application.yml modula
+            bookingsCtx = run(BookingsReactiveApplication.class, WebApplicationType.REACTIVE, "bookings", bookings);
+        } else {
+            bookings.put("spring.autoconfigure.exclude", NO_R2DBC);
+            bookings.put("spring.datasource.url", "jdbc:h2:mem:perf-bookings;DB_CLOSE_DELAY=-1");
+            bookingsCtx = run(BookingsServiceApplication.class, WebApplicationType.SERVLET, "bookings", bookings);
+        }
+        bookingsPort = port(bookingsCtx);
+
+        // gateway meri servise, ne svoj kes i rate limit (ukljucuju se preko perf.gateway.*)
+        Map<String, String> gateway = eurekaClient();
+        gateway.put("spring.autoconfigure.exclude", NO_JDBC + "," + NO_R2DBC);
+        gateway.put("gateway.response-cache.enabled", "false");
+        gateway.put("gateway.rate-limit.enabled", "false");
+        // actuator na istom (random) portu, bez posebnog management konteksta
+        gateway.put("management.server.port", gateway.get("server.port"));
+        gatewayCtx = run(ApiGatewayApplication.class, WebApplicationType.REACTIVE, "gateway", gateway);
+        gatewayPort = port(gatewayCtx);
+
+        awaitInstances(usersCtx, "bookings-service");
+        awaitInstances(bookingsCtx, "users-service");
+        awaitInstances(gatewayCtx, "users-service", "bookings-service");
+    }
+
+    /**
+     * Jos jedna users-service instanca (ista H2 baza u memoriji); extra dopunjuje / menja podesavanja.
+     * Gasi se sa {@link #stop} ili zajedno sa stack-om.
+     */
+    ConfigurableApplicationContext startUsers(Map<String, String> extra) {
+        Map<String, String> users = eurekaClient();
+        users.put("spring.cloud.gateway.enabled", "false");
+        users.put("spring.flyway.enabled", "false");
+        users.put("spring.datasource.url", "jdbc:h2:mem:perf-users;DB_CLOSE_DELAY=-1");
+        // users ne koristi WebClient; njegov konektor deli globalne Reactor Netty resurse sa gateway-em
+        // i gasi ih zajedno sa ovim kontekstom (dodatna instanca se gasi dok gateway radi)
+        users.put("spring.autoconfigure.exclude", NO_WEB_CLIENT + "," + NO_R2DBC);
+        users.putAll(extra);
+        return run(UsersServiceApplication.class, WebApplicationType.SERVLET, "users", users);
+    }
+
+    void stop(ConfigurableApplicationContext ctx) {
+        ctx.close();
+        contexts.remove(ctx);
+    }
+
+    ConfigurableApplicationContext bookings() {
+        return bookingsCtx;
+    }
+
+    ConfigurableApplicationContext gateway() {
+        return gatewayCtx;
+    }
+
+    int gatewayPort() {
+        return gatewayPort;
+    }
+
+    int usersPort() {
+        return usersPort;
+    }
+
+    int bookingsPort() {
+        return bookingsPort;
+    }
+
+    @Override
+    public void close() {
+        // obrnutim redom: gateway pa servisi pa discovery
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+        contexts.clear();
+    }
+
+    private ConfigurableApplicationContext run(Class<?> app, WebApplicationType type, String service, Map<String, String> props) {
+        props.put("spring.config.location", configOf(app, profile));
+        String prefix = "perf." + service + ".";
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .forEach(name -> props.put(name.substring(prefix.length()), System.getProperty(name)));
+
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(app).web(type).logStartupInfo(false)
+                .resourceLoader(new DefaultResourceLoader(new OwnMigrationsClassLoader(app)));
+        if (app == BookingsServiceApplication.class) {
+            builder.initializers(ctx -> ctx.getBeanFactory().registerSingleton("perfSkipReactiveBookings", new TypeExcludeFilter() {
+                @Override
+                public boolean match(MetadataReader reader, MetadataReaderFactory factory) {
+                    return reader.getClassMetadata().getClassName().startsWith(REACTIVE_BOOKINGS_PACKAGE);
+                }
+            }));
+        }
+        ConfigurableApplicationContext ctx = builder.run(args);
+        contexts.add(ctx);
+        return ctx;
+    }
+
+    // application.yml (+ application-<profil>.yml ako postoji) iz jar-a / target/classes modula kome pripada klasa aplikacije
+    private static String configOf(Class<?> app, String profile) {
+        String base = moduleOf(app);
+        String dir = base.endsWith(".jar") ? "jar:" + base + "!/" : base;
+        return dir + "application.yml" + (profile != null ? ",optional:" + dir + "application-" + profile + ".yml" : "");
+    }
+
+    private static String moduleOf(Class<?> app) {
+        URL location = app.getProtectionDomain().getCodeSource().getLocation();
+        return location.toString();
+    }
+
+    /**
+     * Flyway trazi classpath:db/migration na celom classpath-u, a oba bookings modula imaju V1__create_bookings.sql
+     * ("more than one migration with version 1"). Ovaj ClassLoader vraca db/migration samo iz modula aplikacije;
+     * klase i ostali resursi idu od roditelja bez izmena.
+     */
+    private static final class OwnMigrationsClassLoader extends ClassLoader {
+
+        private static final String MIGRATIONS = "db/migration";
+
+        private final String module;
+
+        OwnMigrationsClassLoader(Class<?> app) {
+            super(app.getClassLoader());
+            this.module = moduleOf(app);
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            Enumeration<URL> all = super.getResources(name);
+            if (!name.startsWith(MIGRATIONS)) {
+                return all;
+            }
+            return Collections.enumeration(Collections.list(all).stream()
+                    .filter(url -> url.toString().contains(module))
+                    .toList());
+        }
+
+        @Override
+        public URL getResource(String name) {
+            if (!name.startsWith(MIGRATIONS)) {
+                return super.getResource(name);
+            }
+            try {
+                Enumeration<URL> own = getResources(name);
+                return own.hasMoreElements() ? own.nextElement() : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static Map<String, String> common() {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("server.port", "0");
+        props.put("spring.jpa.show-sql", "false");
+        props.put("spring.main.banner-mode", "off");
+        props.put("logging.level.root", "WARN");
+        return props;
+    }
+
+    // bez profila kratki Eureka intervali: instance se vide za par sekundi umesto ~30s;
+    // Jersey sa classpath-a (eureka-server) se ne koristi -> isti RestTemplate transport kao van perf-a
+    private Map<String, String> eurekaClient() {
+        Map<String, String> props = common();
+        // bez refresh scope-a (spring.cloud.refresh.enabled=false) Eureka instanca nastaje pre web servera,
+        // pa bi se sa server.port=0 registrovala na portu 0 -> slobodan port unapred
+        props.put("server.port", String.valueOf(freePort()));
+        props.put("eureka.client.jersey.enabled", "false");
+        props.put("eureka.client.service-url.defaultZone", eurekaUrl);
+        if (profile == null) {
+            props.put("eureka.client.registry-fetch-interval-seconds", "1");
+            props.put("eureka.client.initial-instance-info-replication-interval-seconds", "1");
+            props.put("eureka.instance.lease-renewal-interval-in-seconds", "1");
+        }
+        props.put("eureka.instance.hostname", "localhost");
+        return props;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int port(ConfigurableApplicationContext ctx) {
+        return ((WebServerApplicationContext) ctx).getWebServer().getPort();
+    }
+
+    private static void awaitInstances(ConfigurableApplicationContext ctx, String... services) {
+        DiscoveryClient discoveryClient = ctx.getBean(DiscoveryClient.class);
+        long deadline = System.nanoTime() + REGISTRATION_TIMEOUT.toNanos();
+        for (String service : services) {
+            while (discoveryClient.getInstances(service).isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(service + " se nije registrovao u Eureka-i za " + REGISTRATION_TIMEOUT);
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Prekinuto cekanje na " + service, e);
+                }
+            }
+        }
+    }
+}
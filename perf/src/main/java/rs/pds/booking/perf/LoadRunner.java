@@ -0,0 +1,132 @@
+package rs.pds.booking.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Zatvorena petlja: N klijenata salje zahtev, ceka odgovor i odmah salje sledeci, dok ne istekne vreme.
+ * Latencija se meri od slanja do procitanog tela; sve sto nije 2xx (ili je izuzetak) je greska.
+ */
+final class LoadRunner {
+
+    private final HttpClient http;
+    private final int concurrency;
+    // redni broj zahteva kroz sve faze (i warmup), da POST nikad ne ponovi resurs
+    private final AtomicLong seq = new AtomicLong();
+
+    LoadRunner(HttpClient http, int concurrency) {
+        this.http = http;
+        this.concurrency = concurrency;
+    }
+
+    Result run(LongFunction<HttpRequest> request, Duration duration) throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        Worker[] workers = new Worker[concurrency];
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] futures = new Future<?>[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker();
+                workers[i] = worker;
+                futures[i] = pool.submit(() -> worker.loop(request, deadline));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int total = 0;
+        long errors = 0;
+        for (Worker w : workers) {
+            total += w.count;
+            errors += w.errors;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Worker w : workers) {
+            System.arraycopy(w.latencies, 0, latencies, offset, w.count);
+            offset += w.count;
+        }
+        Arrays.sort(latencies);
+        return new Result(total, errors, total / seconds, latencies);
+    }
+
+    private final class Worker {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void loop(LongFunction<HttpRequest> request, long deadline) {
+            while (System.nanoTime() < deadline) {
+                HttpRequest req = request.apply(seq.incrementAndGet());
+                long t0 = System.nanoTime();
+                try {
+                    HttpResponse<byte[]> response = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() / 100 != 2) {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    errors++;
+                }
+                record(System.nanoTime() - t0);
+            }
+        }
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    record Result(int requests, long errors, double rps, long[] sortedLatencies) {
+
+        static final String HEADER = String.format(Locale.ROOT, "%-34s %9s %7s %9s %8s %8s %8s %8s",
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        double errorRate() {
+            return requests == 0 ? 1.0 : (double) errors / requests;
+        }
+
+        double percentileMs(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        double p99Ms() {
+            return percentileMs(0.99);
+        }
+
+        String summary() {
+            return String.format(Locale.ROOT, "%d req, %.0f rps, p50=%.1fms p99=%.1fms, errors=%d",
+                    requests, rps, percentileMs(0.50), p99Ms(), errors);
+        }
+
+        String row(String name) {
+            return String.format(Locale.ROOT, "%-34s %9d %7d %9.1f %8.1f %8.1f %8.1f %8.1f",
+                    name, requests, errors, rps, percentileMs(0.50), percentileMs(0.95), p99Ms(), percentileMs(1.0));
+        }
+
+        String csv(String name) {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f",
+                    name, requests, errors, rps, percentileMs(0.50), percentileMs(0.95), p99Ms(), percentileMs(1.0));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package rs.pds.booking.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import rs.pds.booking.common.dto.BulkBookingResponse;
+import rs.pds.booking.common.dto.BulkBookingResult;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * End-to-end load scenario: podigne ceo stack u jednom JVM-u ({@link InProcessStack}), napuni users/bookings
+ * i zatim redom gadja svaki endpoint preko gateway-a (sa X-API-Key) fiksnim brojem konkurentnih klijenata.
+ * Za svaki endpoint ispisuje propusnost i p50/p95/p99/max latencije.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.concurrency (16), perf.warmup (10s), perf.duration (15s), perf.users (200), perf.bookings (1000),
+ *  perf.endpoints (svi; npr. "booking,details"), perf.report (CSV fajl, opciono),
+ *  perf.maxP99Ms / perf.maxErrorRate (0.01) -> exit 1 ako je neki endpoint preko praga.
+ */
+public final class LoadScenario {
+
+    static final String API_KEY = "sifra123";
+    static final LocalDateTime SEED_START = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    record Endpoint(String id, String name, LongFunction<HttpRequest> request) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("perf.concurrency", 16);
+        Duration warmup = Duration.parse("PT" + System.getProperty("perf.warmup", "10s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("perf.duration", "15s"));
+        int users = Integer.getInteger("perf.users", 200);
+        int bookings = Integer.getInteger("perf.bookings", 1000);
+        String only = System.getProperty("perf.endpoints", "");
+        String maxP99 = System.getProperty("perf.maxP99Ms");
+        double maxErrorRate = Double.parseDouble(System.getProperty("perf.maxErrorRate", "0.01"));
+
+        LoadScenario scenario = new LoadScenario();
+        Map<String, LoadRunner.Result> results = new LinkedHashMap<>();
+        try (InProcessStack stack = InProcessStack.start()) {
+            System.out.printf("stack: gateway=%d users=%d bookings=%d%n", stack.gatewayPort(), stack.usersPort(), stack.bookingsPort());
+            scenario.seed(stack, users, bookings);
+
+            LoadRunner runner = new LoadRunner(scenario.http, concurrency);
+            for (Endpoint endpoint : scenario.endpoints(stack.gatewayPort())) {
+                if (!only.isBlank() && !List.of(only.split(",")).contains(endpoint.id())) {
+                    continue;
+                }
+                runner.run(endpoint.request(), warmup);
+                LoadRunner.Result result = runner.run(endpoint.request(), duration);
+                results.put(endpoint.name(), result);
+                System.out.printf("%-34s %s%n", endpoint.name(), result.summary());
+            }
+        }
+
+        System.out.println();
+        System.out.printf("concurrency=%d duration=%s%n", concurrency, duration);
+        System.out.println(LoadRunner.Result.HEADER);
+        results.forEach((name, r) -> System.out.println(r.row(name)));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("endpoint,requests,errors,rps,p50_ms,p95_ms,p99_ms,max_ms");
+            results.forEach((name, r) -> lines.add(r.csv(name)));
+            Files.write(Path.of(report), lines);
+        }
+
+        boolean failed = false;
+        for (var e : results.entrySet()) {
+            LoadRunner.Result r = e.getValue();
+            if (r.errorRate() > maxErrorRate) {
+                System.out.printf("FAIL %s: error rate %.4f > %.4f%n", e.getKey(), r.errorRate(), maxErrorRate);
+                failed = true;
+            }
+            if (maxP99 != null && r.p99Ms() > Double.parseDouble(maxP99)) {
+                System.out.printf("FAIL %s: p99 %.1fms > %sms%n", e.getKey(), r.p99Ms(), maxP99);
+                failed = true;
+            }
+        }
+        // Eureka / Tomcat niti ne smeju da drze JVM posle izvestaja
+        System.exit(failed ? 1 : 0);
+    }
+
+    private List<Endpoint> endpoints(int gatewayPort) {
+        String base = "http://localhost:" + gatewayPort + "/api";
+        return List.of(
+                new Endpoint("user", "GET /api/users/{id}", seq -> get(base + "/users/" + pick(userIds, seq))),
+                new Endpoint("booking", "GET /api/bookings/{id}", seq -> get(base + "/bookings/" + pick(bookingIds, seq))),
+                new Endpoint("details", "GET /api/bookings/{id}/details", seq -> get(base + "/bookings/" + pick(bookingIds, seq) + "/details")),
+                new Endpoint("list", "GET /api/bookings?limit=50", seq -> get(base + "/bookings?limit=50")),
+                // svaki POST je nov resurs -> uvek CREATED, bez 409 na preklapanju
+                new Endpoint("create", "POST /api/bookings", seq -> post(base + "/bookings",
+                        bookingJson(pick(userIds, seq), "Load " + seq, SEED_START.plusYears(5)))));
+    }
+
+    private void seed(InProcessStack stack, int users, int bookings) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        String usersUrl = "http://localhost:" + stack.usersPort() + "/users";
+        for (int i = 1; i <= users; i++) {
+            String body = "{\"name\":\"Perf " + i + "\",\"email\":\"p" + i + "@perf.rs\",\"password\":\"sifra123\"}";
+            HttpResponse<String> response = send(post(usersUrl, body));
+            userIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+
+        // bulk direktno na bookings-service, po 500; svaki booking na svom resursu -> bez preklapanja
+        String bulkUrl = "http://localhost:" + stack.bookingsPort() + "/bookings/bulk";
+        for (int from = 0; from < bookings; from += 500) {
+            List<String> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(bookings, from + 500); i++) {
+                rows.add(bookingJson(userIds.get(i % userIds.size()), "Perf " + i, SEED_START.plusHours(i)));
+            }
+            HttpResponse<String> response = send(post(bulkUrl, "[" + String.join(",", rows) + "]"));
+            BulkBookingResponse bulk = objectMapper.readValue(response.body(), BulkBookingResponse.class);
+            for (BulkBookingResult row : bulk.getResults()) {
+                if (row.getId() == null) {
+                    throw new IllegalStateException("Seed booking odbijen: " + row.getError());
+                }
+                bookingIds.add(row.getId());
+            }
+        }
+        System.out.printf("seed: %d users, %d bookings za %dms%n",
+                userIds.size(), bookingIds.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " -> " + response.statusCode() + " " + response.body());
+        }
+        return response;
+    }
+
+    private String bookingJson(long userId, String resource, LocalDateTime start) {
+        try {
+            return objectMapper.writeValueAsString(Map.of(
+                    "userId", userId, "resourceName", resource, "start", start, "price", new BigDecimal("1500.00")));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long pick(List<Long> ids, long seq) {
+        return ids.get((int) (seq % ids.size()));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("X-API-Key", API_KEY).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("X-API-Key", API_KEY)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
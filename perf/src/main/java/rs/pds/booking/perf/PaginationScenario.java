@@ -0,0 +1,273 @@
+package rs.pds.booking.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+import rs.pds.booking.common.dto.BookingResponse;
+import rs.pds.booking.common.web.KeysetCursor;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GET /bookings nad perf.pagination.rows redova (podrazumevano 1M), tri nacina da se procita cela tabela:
+ * <ul>
+ *   <li>page: keyset stranice (limit perf.pagination.limit) redom preko X-Next-Cursor; latencija = po stranici</li>
+ *   <li>ndjson: jedan zahtev sa Accept: application/x-ndjson; latencija = prvi red (TTFB) i ceo odgovor</li>
+ *   <li>findAll: ono sto je GET /bookings radio ranije (findAll + mapiranje + jedan JSON niz), pozvano
+ *   direktno u bookings kontekstu - HTTP deo bi samo dodao kopiju istog niza</li>
+ * </ul>
+ * heap = najveci zauzet heap (uzorak na 5ms, ukljucuje i smece koje ceka GC), live = najvece zauzece posle GC-a
+ * (ono sto mod stvarno drzi), oba iznad stanja posle GC-a pre moda; alloc = ukupno alocirano u JVM-u za vreme moda
+ * (svi thread-ovi, ukljucujuci klijenta u istom JVM-u). findAll sa premalim heap-om
+ * zavrsava sa OutOfMemoryError - to se i prijavljuje kao rezultat.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.pagination.rows (1000000), perf.pagination.limit (500), perf.pagination.modes (page,ndjson,findAll),
+ *  perf.report (CSV fajl, opciono).
+ */
+public final class PaginationScenario {
+
+    record Result(long rows, long bytes, double p50Ms, double p99Ms, double totalMs, long heapPeakMb, long liveMb,
+                  long allocatedMb, String note) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+            .toList();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final int bookingsPort;
+    private final int limit;
+
+    PaginationScenario(int bookingsPort, int limit) {
+        this.bookingsPort = bookingsPort;
+        this.limit = limit;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("perf.pagination.rows", 1_000_000);
+        int limit = Integer.getInteger("perf.pagination.limit", 500);
+        List<String> modes = List.of(System.getProperty("perf.pagination.modes", "page,ndjson,findAll").split(","));
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (InProcessStack stack = InProcessStack.start()) {
+            ConfigurableApplicationContext bookings = stack.bookings();
+            long seedStart = System.nanoTime();
+            seed(bookings.getBean(JdbcTemplate.class), rows);
+            System.out.printf("seed: %d redova za %.1fs%n", rows, (System.nanoTime() - seedStart) / 1e9);
+
+            PaginationScenario scenario = new PaginationScenario(stack.bookingsPort(), limit);
+            for (String mode : modes) {
+                Result r = switch (mode) {
+                    case "page" -> scenario.measure(scenario::pages);
+                    case "ndjson" -> scenario.measure(scenario::ndjson);
+                    case "findAll" -> scenario.measure(() -> findAll(bookings));
+                    default -> throw new IllegalArgumentException("Nepoznat mod: " + mode);
+                };
+                results.put(mode, r);
+                System.out.printf(Locale.ROOT, "%-8s %s%n", mode, r);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("rows=%d limit=%d heap max=%dMB%n", rows, limit, Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf(Locale.ROOT, "%-8s %9s %8s %8s %8s %9s %9s %9s %9s  %s%n",
+                "mode", "rows", "MB", "p50 ms", "p99 ms", "total ms", "heap MB", "live MB", "alloc MB", "");
+        results.forEach((mode, r) -> System.out.printf(Locale.ROOT, "%-8s %9d %8d %8.1f %8.1f %9.0f %9d %9d %9d  %s%n",
+                mode, r.rows(), r.bytes() >> 20, r.p50Ms(), r.p99Ms(), r.totalMs(), r.heapPeakMb(), r.liveMb(),
+                r.allocatedMb(), r.note()));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("mode,rows,bytes,p50_ms,p99_ms,total_ms,heap_peak_mb,live_peak_mb,allocated_mb,note");
+            results.forEach((mode, r) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.2f,%.0f,%d,%d,%d,%s", mode,
+                    r.rows(), r.bytes(), r.p50Ms(), r.p99Ms(), r.totalMs(), r.heapPeakMb(), r.liveMb(), r.allocatedMb(),
+                    r.note())));
+            Files.write(Path.of(report), lines);
+        }
+        // Eureka / Tomcat niti ne smeju da drze JVM posle izvestaja
+        System.exit(0);
+    }
+
+    // jedan INSERT ... SELECT iz SYSTEM_RANGE (H2): 50 resursa, po 1h, dan za danom
+    private static void seed(JdbcTemplate jdbc, int rows) {
+        // H2 baza u memoriji prezivi stack (DB_CLOSE_DELAY=-1): dopunjuje se samo ono sto fali
+        long existing = jdbc.queryForObject("select count(*) from bookings", Long.class);
+        if (existing >= rows) {
+            return;
+        }
+        long from = 1_000_000_000L + existing;
+        jdbc.update("""
+                insert into bookings (id, user_id, resource_name, start_time, end_time, price, version)
+                select x, 1 + mod(x, 1000), 'Sala ' || mod(x, 50),
+                       dateadd('HOUR', x / 50, timestamp '2030-01-01 00:00:00'),
+                       dateadd('HOUR', x / 50 + 1, timestamp '2030-01-01 00:00:00'),
+                       10.00, 0
+                from system_range(?, ?)""", from, from + (rows - existing) - 1);
+    }
+
+    private interface Mode {
+        Result run() throws Exception;
+    }
+
+    // GC pre moda, pa uzorkovanje heap-a dok mod radi
+    private Result measure(Mode mode) throws Exception {
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        long liveBaseline = afterGc();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicLong livePeak = new AtomicLong(liveBaseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                livePeak.accumulateAndGet(afterGc(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        Result r;
+        try {
+            r = mode.run();
+        } catch (OutOfMemoryError e) {
+            r = new Result(0, 0, 0, 0, 0, 0, 0, 0, "OutOfMemoryError");
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long heapPeakMb = (peak.get() - baseline) >> 20;
+        long liveMb = Math.max(0, livePeak.get() - liveBaseline) >> 20;
+        long allocatedMb = (threads.getTotalThreadAllocatedBytes() - allocatedBefore) >> 20;
+        return new Result(r.rows(), r.bytes(), r.p50Ms(), r.p99Ms(), r.totalMs(), heapPeakMb, liveMb, allocatedMb, r.note());
+    }
+
+    // zauzece heap-a posle poslednjeg GC-a, po svim heap pool-ovima
+    private long afterGc() {
+        return heapPools.stream().mapToLong(pool -> pool.getCollectionUsage().getUsed()).sum();
+    }
+
+    private Result pages() throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        long rows = 0;
+        long bytes = 0;
+        long started = System.nanoTime();
+        String cursor = "";
+        while (cursor != null) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + bookingsPort
+                            + "/bookings?limit=" + limit + "&cursor=" + cursor))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long t0 = System.nanoTime();
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            latencies.add(System.nanoTime() - t0);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET /bookings: " + response.statusCode());
+            }
+            rows += objectMapper.readTree(response.body()).size();
+            bytes += response.body().length;
+            cursor = response.headers().firstValue(KeysetCursor.NEXT_CURSOR_HEADER).orElse(null);
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(rows, bytes, percentileMs(sorted, 0.50), percentileMs(sorted, 0.99),
+                (System.nanoTime() - started) / 1e6, 0, 0, 0, latencies.size() + " stranica");
+    }
+
+    private Result ndjson() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + bookingsPort + "/bookings"))
+                .header("Accept", "application/x-ndjson")
+                .timeout(Duration.ofMinutes(10))
+                .GET()
+                .build();
+        long started = System.nanoTime();
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long rows = 0;
+        long bytes = 0;
+        long firstRowNanos = -1;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = response.body()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n') {
+                        if (firstRowNanos < 0) {
+                            firstRowNanos = System.nanoTime() - started;
+                        }
+                        rows++;
+                    }
+                }
+                bytes += n;
+            }
+        }
+        double totalMs = (System.nanoTime() - started) / 1e6;
+        // p50 kolona = prvi red (TTFB), p99 = ceo odgovor: jedan zahtev, nema raspodele
+        return new Result(rows, bytes, firstRowNanos / 1e6, totalMs, totalMs, 0, 0, 0, "p50=prvi red, p99=ceo odgovor");
+    }
+
+    // GET /bookings pre keyset-a: bookingRepository.findAll() -> List<BookingResponse> -> jedan JSON niz
+    private static Result findAll(ConfigurableApplicationContext bookings) throws Exception {
+        BookingRepository repository = bookings.getBean(BookingRepository.class);
+        ObjectMapper mapper = bookings.getBean(ObjectMapper.class);
+        TransactionTemplate tx = new TransactionTemplate(bookings.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        long started = System.nanoTime();
+        long[] rowsAndBytes = tx.execute(status -> {
+            List<BookingResponse> out = repository.findAll().stream()
+                    .map(PaginationScenario::toResponse)
+                    .toList();
+            try {
+                return new long[] {out.size(), mapper.writeValueAsBytes(out).length};
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        double totalMs = (System.nanoTime() - started) / 1e6;
+        // jedan "zahtev": p50 = p99 = ceo odgovor
+        return new Result(rowsAndBytes[0], rowsAndBytes[1], totalMs, totalMs, totalMs, 0, 0, 0, "");
+    }
+
+    private static BookingResponse toResponse(Booking b) {
+        return new BookingResponse(b.getId(), b.getUserId(), b.getResourceName(), b.getStart(), b.getEnd(), b.getPrice());
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)] / 1e6;
+    }
+}
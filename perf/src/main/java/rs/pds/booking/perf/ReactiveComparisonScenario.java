@@ -0,0 +1,248 @@
+package rs.pds.booking.perf;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * bookings-service (Tomcat + JPA + Feign) i bookings-reactive-service (Netty + R2DBC + WebClient) pod istim opterecenjem:
+ * GET /bookings/{id}/details direktno na bookings port, isti booking-zi (upisani kroz POST /bookings, isti REST ugovor)
+ * i isti users-service stub u istom JVM-u koji odgovara posle perf.cmp.delay-ms (GET /users/{id} i GET /users?ids=).
+ * Slucajevi:
+ *  warm    - kes user-a ukljucen; posle zagrevanja svi lookup-i su pogodci, meri se sam bookings
+ *  nocache - bez kesa (MVC spring.cache.type=none, reaktivni users.cache.maximum-size=0): svaki zahtev ceka stub
+ * Oba modula rade sa svojim application.yml (Resilience4j, pool-ovi); iskljucena je samo replika user-a u MVC-u
+ * jer je reaktivni nema. Istovremeni lookup-i istog user-a se spajaju u oba (SingleFlight / AsyncCache),
+ * a MVC ih dodatno skuplja u batch pozive (users.batch.window) - to je razlika u implementaciji, ne u opterecenju.
+ * usersFail = neuspeli + odbijeni pozivi users-service-a (CircuitBreaker metrike): za njih /details vraca
+ * 200 sa placeholder user-om, pa nisu u errors, ali nisu ni pravi odgovor.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.cmp.impls (mvc,reactive), perf.cmp.cases (warm,nocache), perf.cmp.concurrency (50,1000),
+ *  perf.cmp.delay-ms (50), perf.cmp.bookings (200), perf.warmup (10s), perf.duration (20s), perf.report (CSV, opciono).
+ */
+public final class ReactiveComparisonScenario {
+
+    static final Map<String, String> COMMON = Map.of(
+            "perf.bookings.eureka.client.fetch-registry", "false",
+            "perf.bookings.users.replication.enabled", "false");
+
+    static final Map<String, Map<String, String>> NO_CACHE = Map.of(
+            "mvc", Map.of("perf.bookings.spring.cache.type", "none"),
+            "reactive", Map.of("perf.bookings.users.cache.maximum-size", "0"));
+
+    private static final Pattern IDS = Pattern.compile("ids=(\\d+)");
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    record Result(LoadRunner.Result result, double usersFail) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        List<String> impls = List.of(System.getProperty("perf.cmp.impls", "mvc,reactive").split(","));
+        List<String> cases = List.of(System.getProperty("perf.cmp.cases", "warm,nocache").split(","));
+        List<Integer> concurrencies = List.of(System.getProperty("perf.cmp.concurrency", "50,1000").split(",")).stream()
+                .map(Integer::valueOf).toList();
+        Duration delay = Duration.ofMillis(Long.getLong("perf.cmp.delay-ms", 50));
+        int bookings = Integer.getInteger("perf.cmp.bookings", 200);
+        Duration warmup = Duration.parse("PT" + System.getProperty("perf.warmup", "10s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("perf.duration", "20s"));
+
+        ReactiveComparisonScenario scenario = new ReactiveComparisonScenario();
+        HttpServer stub = startUsersStub(delay);
+        Map<String, Result> results = new LinkedHashMap<>();
+        try {
+            for (String impl : impls) {
+                if (!impl.equals("mvc") && !impl.equals("reactive")) {
+                    throw new IllegalArgumentException("Nepoznata implementacija: " + impl + " (mvc, reactive)");
+                }
+                for (String scenarioCase : cases) {
+                    if (!scenarioCase.equals("warm") && !scenarioCase.equals("nocache")) {
+                        throw new IllegalArgumentException("Nepoznat slucaj: " + scenarioCase + " (warm, nocache)");
+                    }
+                    Map<String, String> overrides = new LinkedHashMap<>(COMMON);
+                    overrides.put("perf.bookings.spring.cloud.discovery.client.simple.instances.users-service[0].uri",
+                            "http://localhost:" + stub.getAddress().getPort());
+                    if (scenarioCase.equals("nocache")) {
+                        overrides.putAll(NO_CACHE.get(impl));
+                    }
+                    overrides.forEach(System::setProperty);
+                    try (InProcessStack stack = impl.equals("reactive") ? InProcessStack.startReactive() : InProcessStack.start()) {
+                        List<Long> ids = scenario.seed(stack.bookingsPort(), bookings);
+                        MeterRegistry registry = stack.bookings().getBean(MeterRegistry.class);
+                        for (int concurrency : concurrencies) {
+                            String name = impl + " " + scenarioCase + " c=" + concurrency;
+                            Result r = scenario.measure(stack.bookingsPort(), registry, ids, concurrency, warmup, duration);
+                            results.put(name, r);
+                            System.out.printf("%-26s %s usersFail=%.0f%n", name, r.result().summary(), r.usersFail());
+                        }
+                    } finally {
+                        overrides.keySet().forEach(System::clearProperty);
+                    }
+                }
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        System.out.println();
+        System.out.printf("users-service delay=%s bookings=%d warmup=%s duration=%s%n", delay, bookings, warmup, duration);
+        System.out.printf(Locale.ROOT, "%-26s %9s %7s %8s %8s %8s %9s%n",
+                "scenario", "requests", "errors", "rps", "p50 ms", "p99 ms", "usersFail");
+        results.forEach((name, r) -> System.out.printf(Locale.ROOT, "%-26s %9d %7d %8.1f %8.1f %8.1f %9.0f%n", name,
+                r.result().requests(), r.result().errors(), r.result().rps(), r.result().percentileMs(0.50),
+                r.result().p99Ms(), r.usersFail()));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("scenario,requests,errors,rps,p50_ms,p99_ms,users_fail");
+            results.forEach((name, r) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.0f", name,
+                    r.result().requests(), r.result().errors(), r.result().rps(), r.result().percentileMs(0.50),
+                    r.result().p99Ms(), r.usersFail())));
+            Files.write(Path.of(report), lines);
+        }
+        // Eureka / Tomcat / Netty niti ne smeju da drze JVM posle izvestaja
+        System.exit(0);
+    }
+
+    private Result measure(int bookingsPort, MeterRegistry registry, List<Long> ids, int concurrency,
+                           Duration warmup, Duration duration) throws Exception {
+        LoadRunner runner = new LoadRunner(http, concurrency);
+        String base = "http://localhost:" + bookingsPort + "/bookings/";
+        runner.run(seq -> get(base + ids.get((int) (seq % ids.size())) + "/details"), warmup);
+
+        double failedBefore = usersFailures(registry);
+        LoadRunner.Result result = runner.run(seq -> get(base + ids.get((int) (seq % ids.size())) + "/details"), duration);
+        return new Result(result, usersFailures(registry) - failedBefore);
+    }
+
+    // neuspeli (timeout, pun bulkhead, greska) + odbijeni (otvoren CB) pozivi instance usersClient
+    private static double usersFailures(MeterRegistry registry) {
+        double failed = registry.find("resilience4j.circuitbreaker.calls").tag("kind", "failed").timers().stream()
+                .mapToDouble(Timer::count).sum();
+        double notPermitted = registry.find("resilience4j.circuitbreaker.not.permitted.calls").counters().stream()
+                .mapToDouble(Counter::count).sum();
+        return failed + notPermitted;
+    }
+
+    // POST /bookings kroz REST ugovor koji oba modula dele; user i resurs po booking-u (bez spajanja lookup-a)
+    private List<Long> seed(int bookingsPort, int count) {
+        URI uri = URI.create("http://localhost:" + bookingsPort + "/bookings");
+        LocalDateTime start = LoadScenario.SEED_START.plusYears(20);
+        List<Long> ids = new ArrayList<>(count);
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < count; from += 20) {
+                List<CompletableFuture<Long>> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(count, from + 20); i++) {
+                    String body = String.format(Locale.ROOT,
+                            "{\"userId\":%d,\"resourceName\":\"Cmp %d\",\"start\":\"%s\",\"price\":10.00}",
+                            i + 1, i, start.plusHours(i));
+                    batch.add(CompletableFuture.supplyAsync(() -> create(uri, body), pool));
+                }
+                batch.forEach(f -> ids.add(f.join()));
+            }
+        }
+        return ids;
+    }
+
+    // tek podignut servis (hladan JIT, LoadBalancer) ume da prekoraci TimeLimiter pa vrati 503 i otvori CB: ponovo
+    private Long create(URI uri, String body) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                // 200: H2 baza MVC-a (DB_CLOSE_DELAY=-1) ostaje u JVM-u izmedju stack-ova, pa je to upsert istog booking-a
+                if (response.statusCode() == 201 || response.statusCode() == 200) {
+                    Matcher id = ID.matcher(response.body());
+                    if (!id.find()) {
+                        throw new IllegalStateException("Seed bez id-ja: " + response.body());
+                    }
+                    return Long.valueOf(id.group(1));
+                }
+                if (response.statusCode() != 503 || attempt == 30) {
+                    throw new IllegalStateException("Seed POST /bookings -> " + response.statusCode() + ": " + response.body());
+                }
+                Thread.sleep(1000);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Prekinut seed", e);
+        }
+    }
+
+    // GET /users/{id} i GET /users?ids=..: svaki id postoji, odgovor posle delay-a (na virtuelnim nitima, nije usko grlo)
+    private static HttpServer startUsersStub(Duration delay) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(delay);
+                String path = exchange.getRequestURI().getPath();
+                String body;
+                if (path.equals("/users")) {
+                    Matcher ids = IDS.matcher(String.valueOf(exchange.getRequestURI().getQuery()));
+                    List<String> users = new ArrayList<>();
+                    while (ids.find()) {
+                        users.add(userJson(ids.group(1)));
+                    }
+                    body = users.stream().collect(Collectors.joining(",", "[", "]"));
+                } else {
+                    body = userJson(path.substring("/users/".length()));
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String userJson(String id) {
+        return "{\"id\":" + id + ",\"name\":\"Cmp " + id + "\",\"email\":\"cmp" + id + "@perf.rs\"}";
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+}
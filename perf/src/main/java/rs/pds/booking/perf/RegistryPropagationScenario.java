@@ -0,0 +1,214 @@
+package rs.pds.booking.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.discovery.EurekaClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Koliko brzo gateway vidi izmenu users-service instanci, pod stalnim GET /api/users/{id} opterecenjem:
+ * <ul>
+ *   <li>nova instanca: od kraja njenog starta do pojave u LoadBalancer listi gateway-a i do prvog zahteva koji je opsluzila</li>
+ *   <li>gasenje (odjava iz Eureka-e): do nestanka iz liste gateway-a i broj gresaka klijenata u tom periodu</li>
+ *   <li>pad (bez odjave, prestaje renew): isto, instanca ispada tek kad joj istekne lease</li>
+ * </ul>
+ * Svaki mod je poseban stack ({@link InProcessStack}) sa profilom: "default" = Eureka / LoadBalancer intervali bez
+ * izmena (30s fetch, 30s kes odgovora, 35s LoadBalancer kes, 90s lease), "fast-discovery" = kraci intervali + push.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.registry.modes (default,fast-discovery), perf.registry.concurrency (4),
+ *  perf.registry.timeout (240s, po merenju), perf.report (CSV fajl, opciono).
+ */
+public final class RegistryPropagationScenario {
+
+    static final String USERS = "USERS-SERVICE";
+
+    record Result(long visibleMs, long firstRequestMs, long drainMs, long drainErrors, long crashDrainMs, long crashErrors) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration timeout;
+
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean loading;
+
+    RegistryPropagationScenario(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = List.of(System.getProperty("perf.registry.modes", "default,fast-discovery").split(","));
+        int concurrency = Integer.getInteger("perf.registry.concurrency", 4);
+        Duration timeout = Duration.parse("PT" + System.getProperty("perf.registry.timeout", "240s"));
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            RegistryPropagationScenario scenario = new RegistryPropagationScenario(timeout);
+            try (InProcessStack stack = InProcessStack.start(mode)) {
+                Result result = scenario.run(stack, concurrency);
+                results.put(mode, result);
+                System.out.printf("%-15s %s%n", mode, result);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("concurrency=%d timeout=%s (-1 = nije se desilo do timeout-a)%n", concurrency, timeout);
+        System.out.printf(Locale.ROOT, "%-15s %10s %10s %10s %8s %10s %8s%n",
+                "mode", "visible ms", "first ms", "drain ms", "errors", "crash ms", "errors");
+        results.forEach((mode, r) -> System.out.printf(Locale.ROOT, "%-15s %10d %10d %10d %8d %10d %8d%n",
+                mode, r.visibleMs(), r.firstRequestMs(), r.drainMs(), r.drainErrors(), r.crashDrainMs(), r.crashErrors()));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("mode,visible_ms,first_request_ms,drain_ms,drain_errors,crash_drain_ms,crash_errors");
+            results.forEach((mode, r) -> lines.add(String.join(",", mode, String.valueOf(r.visibleMs()),
+                    String.valueOf(r.firstRequestMs()), String.valueOf(r.drainMs()), String.valueOf(r.drainErrors()),
+                    String.valueOf(r.crashDrainMs()), String.valueOf(r.crashErrors()))));
+            Files.write(Path.of(report), lines);
+        }
+        // Eureka / Tomcat niti ne smeju da drze JVM posle izvestaja
+        System.exit(0);
+    }
+
+    private Result run(InProcessStack stack, int concurrency) throws Exception {
+        long userId = seedUser(stack.usersPort());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + stack.gatewayPort() + "/api/users/" + userId))
+                .header("X-API-Key", LoadScenario.API_KEY)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        ExecutorService load = Executors.newVirtualThreadPerTaskExecutor();
+        loading = true;
+        for (int i = 0; i < concurrency; i++) {
+            load.submit(() -> loop(request));
+        }
+        try {
+            // nova instanca -> vidljiva / prvi zahtev; zatim odjava
+            ConfigurableApplicationContext added = stack.startUsers(Map.of());
+            int port = port(added);
+            long started = System.nanoTime();
+            long visible = await(() -> inGateway(stack, port), started);
+            long first = await(() -> served(added) > 0, started);
+
+            // gasenje konteksta traje (Eureka odjava na kraju), meri se uporedo
+            long errorsBefore = errors.get();
+            started = System.nanoTime();
+            CompletableFuture<Void> stopped = CompletableFuture.runAsync(() -> stack.stop(added));
+            long drain = await(() -> !inGateway(stack, port), started);
+            long drainErrors = errors.get() - errorsBefore;
+            stopped.join();
+
+            // pad: instanca prestaje da odgovara bez odjave i bez renew-a
+            ConfigurableApplicationContext crashed = stack.startUsers(Map.of("eureka.client.should-unregister-on-shutdown", "false"));
+            int crashedPort = port(crashed);
+            await(() -> served(crashed) > 0, System.nanoTime());
+
+            errorsBefore = errors.get();
+            started = System.nanoTime();
+            stopped = CompletableFuture.runAsync(() -> crash(stack, crashed));
+            long crashDrain = await(() -> !inGateway(stack, crashedPort), started);
+            long crashErrors = errors.get() - errorsBefore;
+            stopped.join();
+
+            return new Result(visible, first, drain, drainErrors, crashDrain, crashErrors);
+        } finally {
+            loading = false;
+            load.shutdown();
+            load.awaitTermination(15, TimeUnit.SECONDS);
+        }
+    }
+
+    private long seedUser(int usersPort) throws Exception {
+        HttpRequest post = HttpRequest.newBuilder(URI.create("http://localhost:" + usersPort + "/users"))
+                .header("Content-Type", "application/json")
+                // H2 baza u memoriji prezivi stack (DB_CLOSE_DELAY=-1), pa svaki mod pravi svog user-a
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Registry\",\"email\":\"r" + System.nanoTime() % 1_000_000_000
+                        + "@perf.rs\",\"password\":\"sifra123\"}"))
+                .build();
+        HttpResponse<String> response = http.send(post, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seed user odbijen: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private void loop(HttpRequest request) {
+        while (loading) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 != 2) {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    // Eureka klijent staje bez odjave (heartbeat i status listener ugaseni), pa se gasi i ostatak konteksta
+    private static void crash(InProcessStack stack, ConfigurableApplicationContext ctx) {
+        ctx.getBean(EurekaClient.class).shutdown();
+        stack.stop(ctx);
+    }
+
+    // lista koju LatencyAwareLoadBalancer gateway-a dobija za lb://USERS-SERVICE
+    private static boolean inGateway(InProcessStack stack, int port) {
+        List<ServiceInstance> instances = stack.gateway().getBean(LoadBalancerClientFactory.class)
+                .getInstance(USERS, ServiceInstanceListSupplier.class)
+                .get()
+                .blockFirst(Duration.ofSeconds(5));
+        return instances != null && instances.stream().anyMatch(i -> i.getPort() == port);
+    }
+
+    private static long served(ConfigurableApplicationContext users) {
+        MeterRegistry registry = users.getBean(MeterRegistry.class);
+        return registry.find("http.server.requests").tag("uri", "/users/{id}").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    // ms od started do uslova; -1 posle timeout-a
+    private long await(BooleanSupplier condition, long started) throws InterruptedException {
+        long deadline = started + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return -1;
+            }
+            Thread.sleep(20);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private static int port(ConfigurableApplicationContext ctx) {
+        return ((WebServerApplicationContext) ctx).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,273 @@
+package rs.pds.booking.perf;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vreme do health UP i RSS po servisu, za isti jar pokrenut na tri nacina (kao u Dockerfile-ovima):
+ * <ul>
+ *   <li>jar - fat jar, kao do sada</li>
+ *   <li>cds - raspakovan jar (jarmode=tools extract) + AppCDS arhiva iz trening pokretanja</li>
+ *   <li>aot-cds - isto + -Dspring.aot.enabled=true (jar mora biti build-ovan sa -Paot; discovery nema AOT)</li>
+ * </ul>
+ * Servisi se dizu redom kao u compose-u (discovery, users, bookings, gateway), svaki kao poseban proces sa
+ * docker profilom i istim -Xmx; meri se od pokretanja procesa do prvog health UP, RSS se cita iz /proc u tom trenutku.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.startup.services (discovery,users,bookings,gateway), perf.startup.modes (jar,cds,aot-cds),
+ *  perf.startup.runs (3, uzima se medijana), perf.startup.jvmArgs (-Xms128m -Xmx256m),
+ *  perf.startup.workDir (perf/target/startup), perf.report (CSV fajl, opciono).
+ */
+public final class StartupScenario {
+
+    static final Duration READY_TIMEOUT = Duration.ofMinutes(3);
+
+    record Service(String id, String module) {
+    }
+
+    record Sample(long readyMs, long rssKb) {
+    }
+
+    static final List<Service> SERVICES = List.of(
+            new Service("discovery", "discovery-service"),
+            new Service("users", "users-service"),
+            new Service("bookings", "bookings-service"),
+            new Service("gateway", "api-gateway"));
+
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final List<String> jvmArgs = Arrays.asList(System.getProperty("perf.startup.jvmArgs", "-Xms128m -Xmx256m").split("\\s+"));
+    private final Path root = projectRoot();
+    private final Path workDir = Path.of(System.getProperty("perf.startup.workDir", root.resolve("perf/target/startup").toString()));
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final List<Process> running = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        List<String> only = List.of(System.getProperty("perf.startup.services", "discovery,users,bookings,gateway").split(","));
+        List<String> modes = List.of(System.getProperty("perf.startup.modes", "jar,cds,aot-cds").split(","));
+        int runs = Integer.getInteger("perf.startup.runs", 3);
+
+        StartupScenario scenario = new StartupScenario();
+        Runtime.getRuntime().addShutdownHook(new Thread(scenario::stopAll));
+        List<Service> services = SERVICES.stream().filter(s -> only.contains(s.id())).toList();
+
+        Map<String, Sample> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            Map<String, List<Sample>> samples = new LinkedHashMap<>();
+            Map<String, List<String>> commands = new LinkedHashMap<>();
+            for (Service service : services) {
+                List<String> command = scenario.prepare(service, mode);
+                if (command != null) {
+                    samples.put(service.id(), new ArrayList<>());
+                } else {
+                    // discovery nema AOT: u aot-cds modu se ostali servisi registruju na cds discovery (ne meri se)
+                    command = scenario.prepare(service, "cds");
+                }
+                commands.put(service.id(), command);
+            }
+            for (int run = 1; run <= runs; run++) {
+                scenario.runOnce(services, mode, run, commands, samples);
+            }
+            samples.forEach((id, list) -> {
+                Sample median = median(list);
+                results.put(id + "/" + mode, median);
+                System.out.printf("%-10s %-8s ready=%dms rss=%dMB%n", id, mode, median.readyMs(), median.rssKb() / 1024);
+            });
+        }
+
+        System.out.println();
+        System.out.printf("runs=%d jvmArgs=%s%n", runs, String.join(" ", scenario.jvmArgs));
+        System.out.printf(Locale.ROOT, "%-10s %-8s %10s %8s%n", "service", "mode", "ready ms", "RSS MB");
+        results.forEach((key, s) -> {
+            String[] parts = key.split("/");
+            System.out.printf(Locale.ROOT, "%-10s %-8s %10d %8d%n", parts[0], parts[1], s.readyMs(), s.rssKb() / 1024);
+        });
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("service,mode,ready_ms,rss_mb");
+            results.forEach((key, s) -> lines.add(key.replace('/', ',') + "," + s.readyMs() + "," + s.rssKb() / 1024));
+            Files.write(Path.of(report), lines);
+        }
+        System.exit(0);
+    }
+
+    // komanda za pokretanje servisa u datom modu; za cds/aot-cds jednom raspakuje jar i napravi arhivu
+    private List<String> prepare(Service service, String mode) throws IOException, InterruptedException {
+        Path jar = root.resolve(service.module()).resolve("target").resolve(service.module() + "-1.0.0.jar");
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Nema " + jar + " (mvn -Paot -DskipTests package spring-boot:repackage)");
+        }
+        List<String> command = new ArrayList<>(List.of(java));
+        command.addAll(jvmArgs);
+        if (mode.equals("jar")) {
+            command.addAll(List.of("-jar", jar.toString()));
+            return command;
+        }
+        boolean aot = mode.equals("aot-cds");
+        if (!mode.equals("cds") && !aot) {
+            throw new IllegalArgumentException("Nepoznat mod: " + mode);
+        }
+        if (aot && service.id().equals("discovery")) {
+            return null;
+        }
+
+        Path dir = workDir.resolve(service.module());
+        Path app = dir.resolve("app.jar");
+        // marker umesto app.jar: extract zadrzava vremena iz jar-a
+        Path extracted = workDir.resolve(service.module() + ".extracted");
+        if (!Files.exists(extracted) || olderThan(extracted, jar)) {
+            exec(workDir, "extract-" + service.id(), List.of(java, "-Djarmode=tools", "-jar", jar.toString(),
+                    "extract", "--destination", dir.toString(), "--application-filename", "app.jar", "--force"));
+            Files.writeString(extracted, jar.toString());
+        }
+        Path archive = dir.resolve(mode + ".jsa");
+        if (!Files.exists(archive) || olderThan(archive, extracted)) {
+            // trening kao u Dockerfile-u: kontekst do refresh-a pa izlaz, bez Eureka poziva
+            List<String> training = new ArrayList<>(List.of(java));
+            training.addAll(jvmArgs);
+            training.addAll(List.of("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh",
+                    "-Dspring.aot.enabled=" + aot, "-Dspring.profiles.active=docker",
+                    "-Deureka.client.register-with-eureka=false", "-Deureka.client.fetch-registry=false", "-jar", app.toString()));
+            exec(dir, "train-" + mode, training);
+        }
+
+        command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=" + aot, "-jar", app.toString()));
+        return command;
+    }
+
+    private void runOnce(List<Service> services, String mode, int run, Map<String, List<String>> commands,
+                         Map<String, List<Sample>> samples) throws IOException, InterruptedException {
+        int discoveryPort = freePort();
+        try {
+            for (Service service : services) {
+                boolean discovery = service.id().equals("discovery");
+                List<String> command = commands.get(service.id());
+                int port = discovery ? discoveryPort : freePort();
+                List<String> full = new ArrayList<>(command);
+                // actuator na istom portu i za gateway (inace na GATEWAY_MANAGEMENT_PORT)
+                full.addAll(List.of("--spring.profiles.active=docker", "--server.port=" + port, "--management.server.port=" + port,
+                        "--eureka.client.service-url.defaultZone=http://localhost:" + discoveryPort + "/eureka",
+                        "--eureka.instance.hostname=localhost"));
+
+                Path log = workDir.resolve("logs").resolve(mode + "-" + service.id() + "-" + run + ".log");
+                Files.createDirectories(log.getParent());
+                long started = System.nanoTime();
+                Process process = new ProcessBuilder(full).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+                running.add(process);
+                awaitUp(process, port, log);
+                long readyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                Sample sample = new Sample(readyMs, rssKb(process.pid()));
+                if (samples.containsKey(service.id())) {
+                    samples.get(service.id()).add(sample);
+                }
+                System.out.printf("  %s run %d %-10s ready=%dms rss=%dMB%n", mode, run, service.id(), readyMs, sample.rssKb() / 1024);
+            }
+        } finally {
+            stopAll();
+        }
+    }
+
+    private void awaitUp(Process process, int port, Path log) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Proces je izasao (" + process.exitValue() + "), log: " + log);
+            }
+            try {
+                HttpResponse<String> response = http.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"UP\"")) {
+                    return;
+                }
+            } catch (IOException e) {
+                // jos ne slusa
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Nije UP za " + READY_TIMEOUT + ", log: " + log);
+    }
+
+    private void exec(Path dir, String name, List<String> command) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        Path log = dir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(name + " exit " + process.exitValue() + ", log: " + log);
+        }
+    }
+
+    private void stopAll() {
+        for (int i = running.size() - 1; i >= 0; i--) {
+            Process process = running.get(i);
+            process.destroy();
+            try {
+                if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        running.clear();
+    }
+
+    private static boolean olderThan(Path file, Path than) throws IOException {
+        return Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(than)) < 0;
+    }
+
+    // VmRSS iz /proc (Linux); -1 drugde
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // nije Linux
+        }
+        return -1;
+    }
+
+    private static Sample median(List<Sample> samples) {
+        long[] ready = samples.stream().mapToLong(Sample::readyMs).sorted().toArray();
+        long[] rss = samples.stream().mapToLong(Sample::rssKb).sorted().toArray();
+        return new Sample(ready[ready.length / 2], rss[rss.length / 2]);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // exec:exec se pokrece iz perf/, rucno obicno iz korena
+    private static Path projectRoot() {
+        Path dir = Path.of("").toAbsolutePath();
+        while (dir != null && !Files.isDirectory(dir.resolve("discovery-service"))) {
+            dir = dir.getParent();
+        }
+        if (dir == null) {
+            throw new IllegalStateException("Koren projekta (sa discovery-service/) nije pronadjen");
+        }
+        return dir;
+    }
+}
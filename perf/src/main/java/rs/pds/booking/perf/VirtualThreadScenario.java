@@ -0,0 +1,181 @@
+package rs.pds.booking.perf;
+
+import com.sun.net.httpserver.HttpServer;
+import rs.pds.booking.bookings.domain.Booking;
+import rs.pds.booking.bookings.repository.BookingRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Platformske vs virtuelne niti u bookings-service-u (spring.threads.virtual.enabled) kad je users-service spor:
+ * GET /bookings/{id}/details direktno na bookings-service, users-service je stub u istom JVM-u koji odgovara
+ * posle perf.vt.delay. Nit zahteva ceka na user lookup (join), pa sa platformskim nitima propusnost ogranicava
+ * Tomcat pool (200 niti), a sa virtuelnim broj klijenata.
+ * Da bi se merile niti, a ne zastite ispred users-service-a: bez kesa user-a, replike i batch-a, bulkhead i
+ * Feign pool 1000, TimeLimiter i slow-call prag 10s; bookings vidi samo stub (simple discovery, bez Eureka fetch-a).
+ * inflight = najvise istovremenih poziva na stub-u, threads = najvise platformskih niti u JVM-u tokom merenja.
+ * Pinovanje: dodati -Djdk.tracePinnedThreads=short u perf.jvmArgs.
+ *
+ * Podesavanja (sistemska svojstva):
+ *  perf.vt.modes (platform,virtual), perf.vt.concurrency (100,400), perf.vt.delay (1s), perf.vt.bookings (1000),
+ *  perf.warmup (10s), perf.duration (20s), perf.report (CSV fajl, opciono).
+ */
+public final class VirtualThreadScenario {
+
+    static final Map<String, String> COMMON = Map.of(
+            "perf.bookings.eureka.client.fetch-registry", "false",
+            "perf.bookings.spring.cache.type", "none",
+            "perf.bookings.users.replication.enabled", "false",
+            "perf.bookings.users.batch.window", "0ms",
+            "perf.bookings.resilience4j.bulkhead.instances.usersClient.maxConcurrentCalls", "1000",
+            "perf.bookings.resilience4j.timelimiter.instances.usersClient.timeoutDuration", "10s",
+            "perf.bookings.resilience4j.circuitbreaker.instances.usersClient.slowCallDurationThreshold", "10s",
+            "perf.bookings.spring.cloud.openfeign.httpclient.max-connections", "1000",
+            "perf.bookings.spring.cloud.openfeign.httpclient.max-connections-per-route", "1000");
+
+    record Result(LoadRunner.Result result, int inFlight, int threads) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = List.of(System.getProperty("perf.vt.modes", "platform,virtual").split(","));
+        List<Integer> concurrencies = List.of(System.getProperty("perf.vt.concurrency", "100,400").split(",")).stream()
+                .map(Integer::valueOf).toList();
+        Duration delay = Duration.parse("PT" + System.getProperty("perf.vt.delay", "1s"));
+        int bookings = Integer.getInteger("perf.vt.bookings", 1000);
+        Duration warmup = Duration.parse("PT" + System.getProperty("perf.warmup", "10s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("perf.duration", "20s"));
+
+        VirtualThreadScenario scenario = new VirtualThreadScenario();
+        HttpServer stub = scenario.startUsersStub(delay);
+        Map<String, Result> results = new LinkedHashMap<>();
+        try {
+            for (String mode : modes) {
+                if (!mode.equals("platform") && !mode.equals("virtual")) {
+                    throw new IllegalArgumentException("Nepoznat mod: " + mode + " (platform, virtual)");
+                }
+                Map<String, String> overrides = new LinkedHashMap<>(COMMON);
+                overrides.put("perf.bookings.spring.threads.virtual.enabled", String.valueOf(mode.equals("virtual")));
+                overrides.put("perf.bookings.spring.cloud.discovery.client.simple.instances.users-service[0].uri",
+                        "http://localhost:" + stub.getAddress().getPort());
+                overrides.forEach(System::setProperty);
+                try (InProcessStack stack = InProcessStack.start()) {
+                    List<Long> ids = seed(stack, bookings);
+                    for (int concurrency : concurrencies) {
+                        Result r = scenario.measure(stack.bookingsPort(), ids, concurrency, warmup, duration);
+                        results.put(mode + " c=" + concurrency, r);
+                        System.out.printf("%-16s %s inflight=%d threads=%d%n", mode + " c=" + concurrency,
+                                r.result().summary(), r.inFlight(), r.threads());
+                    }
+                } finally {
+                    overrides.keySet().forEach(System::clearProperty);
+                }
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        System.out.println();
+        System.out.printf("users-service delay=%s warmup=%s duration=%s%n", delay, warmup, duration);
+        System.out.printf(Locale.ROOT, "%-16s %9s %7s %8s %8s %8s %9s %8s%n",
+                "mode", "requests", "errors", "rps", "p50 ms", "p99 ms", "inflight", "threads");
+        results.forEach((name, r) -> System.out.printf(Locale.ROOT, "%-16s %9d %7d %8.1f %8.1f %8.1f %9d %8d%n", name,
+                r.result().requests(), r.result().errors(), r.result().rps(), r.result().percentileMs(0.50),
+                r.result().p99Ms(), r.inFlight(), r.threads()));
+
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("mode,requests,errors,rps,p50_ms,p99_ms,inflight,threads");
+            results.forEach((name, r) -> lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%d,%d", name,
+                    r.result().requests(), r.result().errors(), r.result().rps(), r.result().percentileMs(0.50),
+                    r.result().p99Ms(), r.inFlight(), r.threads())));
+            Files.write(Path.of(report), lines);
+        }
+        // Eureka / Tomcat niti ne smeju da drze JVM posle izvestaja
+        System.exit(0);
+    }
+
+    private Result measure(int bookingsPort, List<Long> ids, int concurrency, Duration warmup, Duration duration) throws Exception {
+        LoadRunner runner = new LoadRunner(http, concurrency);
+        String base = "http://localhost:" + bookingsPort + "/bookings/";
+        runner.run(seq -> get(base + ids.get((int) (seq % ids.size())) + "/details"), warmup);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        maxInFlight.set(0);
+        LoadRunner.Result result = runner.run(seq -> get(base + ids.get((int) (seq % ids.size())) + "/details"), duration);
+        return new Result(result, maxInFlight.get(), threads.getPeakThreadCount());
+    }
+
+    // GET /users/{id} -> user posle delay-a; stub sam radi na virtuelnim nitima da ne bi bio usko grlo
+    private HttpServer startUsersStub(Duration delay) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/users/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delay);
+                String id = exchange.getRequestURI().getPath().substring("/users/".length());
+                byte[] body = ("{\"id\":" + id + ",\"name\":\"Spor " + id + "\",\"email\":\"spor" + id + "@perf.rs\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    // direktno kroz repository: POST bi za svaki booking cekao spori users-service
+    private static List<Long> seed(InProcessStack stack, int count) {
+        BookingRepository repository = stack.bookings().getBean(BookingRepository.class);
+        LocalDateTime start = LoadScenario.SEED_START.plusYears(10);
+        List<Booking> rows = IntStream.range(0, count).mapToObj(i -> {
+            Booking b = new Booking();
+            // svaki booking svoj user: istovremeni lookup-i istog user-a bi se spojili (SingleFlight)
+            b.setUserId(1L + i);
+            b.setResourceName("VT " + i);
+            b.setStart(start.plusHours(i));
+            b.setEnd(start.plusHours(i).plusDays(7));
+            b.setPrice(new BigDecimal("10.00"));
+            return b;
+        }).toList();
+        return repository.saveAll(rows).stream().map(Booking::getId).toList();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+}
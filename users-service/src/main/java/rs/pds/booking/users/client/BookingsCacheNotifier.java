@@ -0,0 +1,57 @@
+package rs.pds.booking.users.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Javlja svim bookings-service instancama da izbace user-a iz lokalnog kesa.
+ * Best-effort: ako poziv ne prodje, kes ionako istice po TTL-u.
+ */
+@Component
+public class BookingsCacheNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingsCacheNotifier.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final RestClient restClient;
+    private final boolean enabled;
+    private final String serviceId;
+
+    public BookingsCacheNotifier(DiscoveryClient discoveryClient,
+                                 RestClient.Builder restClientBuilder,
+                                 @Value("${users.cache-invalidation.enabled:true}") boolean enabled,
+                                 @Value("${users.cache-invalidation.service-id:bookings-service}") String serviceId) {
+        var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(1000);
+        requestFactory.setReadTimeout(1000);
+        this.discoveryClient = discoveryClient;
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.enabled = enabled;
+        this.serviceId = serviceId;
+    }
+
+    @Async
+    public void userChanged(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            try {
+                restClient.delete()
+                        .uri(instance.getUri() + "/internal/users/{id}/cache", userId)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RestClientException e) {
+                log.warn("Invalidacija kesa nije uspela za userId={} na {}: {}", userId, instance.getUri(), e.toString());
+            }
+        }
+    }
+}
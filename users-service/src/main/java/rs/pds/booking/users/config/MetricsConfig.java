@@ -0,0 +1,17 @@
+package rs.pds.booking.users.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Eureka klijent (RestTemplate) bi upisivao heartbeat-e kao http.client.requests sa instance id-jem i
+    // lastDirtyTimestamp-om u uri tagu -> nova serija na svaku promenu; registracija se prati kroz discovery-service
+    @Bean
+    public MeterFilter denyEurekaClientRequests() {
+        return MeterFilter.deny(id -> "http.client.requests".equals(id.getName())
+                && id.getTag("uri") != null && id.getTag("uri").startsWith("/eureka/"));
+    }
+}
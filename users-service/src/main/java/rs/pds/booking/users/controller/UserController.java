@@ -1,29 +1,55 @@
 package rs.pds.booking.users.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
+import rs.pds.booking.common.web.KeysetCursor;
+import rs.pds.booking.users.client.BookingsCacheNotifier;
 import rs.pds.booking.users.domain.User;
 import rs.pds.booking.users.dto.UserRequest;
 import rs.pds.booking.users.dto.UserResponse;
 import rs.pds.booking.users.repository.UserRepository;
+import rs.pds.booking.users.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 @RestController
 @RequestMapping("/users") // važi: /api/users/** preko gateway-a (StripPrefix=1) -> /users/**
 public class UserController {
 
+    static final int MAX_BATCH_IDS = 500;
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
+    private final UserService userService;
+    private final BookingsCacheNotifier cacheNotifier;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, UserService userService,
+                          BookingsCacheNotifier cacheNotifier, ObjectMapper objectMapper) {
         this.userRepository = userRepository;
+        this.userService = userService;
+        this.cacheNotifier = cacheNotifier;
+        this.objectMapper = objectMapper;
     }
 
     // POST /users -> 201 Created + Location: /users/{id}
@@ -40,36 +66,95 @@ public class UserController {
         u.setEmail(input.getEmail());
         u.setPassword(input.getPassword());
 
-        User saved = userRepository.save(u);
+        User saved = userService.create(u);
+        cacheNotifier.userChanged(saved.getId()); // brise eventualni negativni kes (404)
 
         URI location = uriBuilder.path("/users/{id}").buildAndExpand(saved.getId()).toUri();
-        return ResponseEntity.created(location).body(toResponse(saved));
+        return ResponseEntity.created(location).eTag(etagOf(saved)).body(toResponse(saved));
     }
 
-    // GET /users/{id} -> 200 ili 404 (bez 500)
+    // GET /users/{id} -> 200 ili 404 (bez 500); ETag = verzija, If-None-Match koji se poklapa -> 304 bez tela
     @GetMapping("/{id}")
-    public ResponseEntity<?> getById(@PathVariable("id") Long id) {
-        return userRepository.findById(id)
-                .map(user -> ResponseEntity.ok(toResponse(user)))
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> getById(@PathVariable("id") Long id, WebRequest request) {
+        var maybe = userRepository.findById(id);
+        if (maybe.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = etagOf(maybe.get());
+        if (request.checkNotModified(etag)) {
+            return null; // 304 je vec postavljen
+        }
+        return ResponseEntity.ok().eTag(etag).body(toResponse(maybe.get()));
     }
 
-    // GET /users -> 200 + lista
+    // GET /users?cursor=&limit= -> 200 + jedna keyset stranica (po id-ju)
+    // sledeca stranica: X-Next-Cursor header / Link rel="next"
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAll() {
-        var list = userRepository.findAll()
+    public ResponseEntity<List<UserResponse>> getAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                                     @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                     UriComponentsBuilder uriBuilder) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        var rows = userRepository.findByIdGreaterThanOrderByIdAsc(KeysetCursor.decode(cursor), Limit.of(size + 1));
+
+        boolean hasNext = rows.size() > size;
+        var list = rows.stream()
+                .limit(size)
+                .map(UserController::toResponse)
+                .toList();
+
+        var response = ResponseEntity.ok();
+        if (hasNext) {
+            String next = KeysetCursor.encode(list.get(size - 1).getId());
+            URI nextUri = uriBuilder.path("/users")
+                    .queryParam("cursor", next)
+                    .queryParam("limit", size)
+                    .build()
+                    .toUri();
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, next)
+                    .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(list);
+    }
+
+    // GET /users, Accept: application/x-ndjson -> svi user-i, red po red sa JDBC kursora
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        var writer = objectMapper.writerFor(UserResponse.class);
+        StreamingResponseBody body = out -> {
+            userRepository.forEachResponse(u -> {
+                try {
+                    out.write(writer.writeValueAsBytes(u));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // GET /users?ids=1,2,3 -> 200 + lista postojecih (jedan findAllById umesto N poziva)
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<UserResponse>> getByIds(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ResponseStatusException(BAD_REQUEST, "Najvise " + MAX_BATCH_IDS + " id-jeva po zahtevu.");
+        }
+        var list = userRepository.findAllById(new LinkedHashSet<>(ids))
                 .stream()
                 .map(UserController::toResponse)
                 .toList();
         return ResponseEntity.ok(list);
     }
 
-    // PUT /users/{id} -> 200 ili 404/409
+    // PUT /users/{id} -> 200 ili 404/409; If-Match koji se ne poklapa sa verzijom -> 412
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable("id") Long id,
-                                               @Valid @RequestBody UserRequest input) {
+                                               @Valid @RequestBody UserRequest input,
+                                               WebRequest request) {
         var existing = userRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "User nije pronadjen"));
+        checkIfMatch(existing, request);
 
         if (!existing.getEmail().equalsIgnoreCase(input.getEmail())
                 && userRepository.existsByEmailAndIdNot(input.getEmail(), id)) {
@@ -80,20 +165,40 @@ public class UserController {
         existing.setEmail(input.getEmail());
         existing.setPassword(input.getPassword());
 
-        var updated = userRepository.save(existing);
-        return ResponseEntity.ok(toResponse(updated));
+        User updated;
+        try {
+            updated = userService.update(existing);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(request.getHeader(HttpHeaders.IF_MATCH) != null ? PRECONDITION_FAILED : CONFLICT,
+                    "User je izmenjen u medjuvremenu, pokusajte ponovo");
+        }
+        cacheNotifier.userChanged(id);
+        return ResponseEntity.ok().eTag(etagOf(updated)).body(toResponse(updated));
     }
 
     // DELETE /users/{id} -> 204 ili 404
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable("id") Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResponseStatusException(NOT_FOUND, "User nije pronadjen.");
-        }
-        userRepository.deleteById(id);
+    public ResponseEntity<?> delete(@PathVariable("id") Long id, WebRequest request) {
+        var existing = userRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "User nije pronadjen."));
+        checkIfMatch(existing, request);
+        userService.delete(existing);
+        cacheNotifier.userChanged(id);
         return ResponseEntity.noContent().build();
     }
 
+    // jak ETag: verzija se menja na svakoj izmeni user-a
+    static String etagOf(User u) {
+        return "\"" + u.getVersion() + "\"";
+    }
+
+    // If-Match koji se ne poklapa sa trenutnom verzijom -> 412 (checkNotModified radi i proveru preduslova)
+    private static void checkIfMatch(User current, WebRequest request) {
+        if (request.checkNotModified(etagOf(current))) {
+            throw new ResponseStatusException(PRECONDITION_FAILED, "User je izmenjen u medjuvremenu (ETag se ne poklapa)");
+        }
+    }
+
     // helper: ne vraćamo password u response
     private static UserResponse toResponse(User u) {
         return new UserResponse(u.getId(), u.getName(), u.getEmail());
@@ -0,0 +1,45 @@
+package rs.pds.booking.users.controller;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.pds.booking.users.domain.OutboxSequence;
+import rs.pds.booking.users.dto.UserEvent;
+import rs.pds.booking.users.dto.UserEvents;
+import rs.pds.booking.users.repository.OutboxEventRepository;
+import rs.pds.booking.users.repository.OutboxSequenceRepository;
+
+import java.util.List;
+
+// interni endpoint (nije izlozen kroz gateway) - tok izmena user-a iz outbox-a za replike (bookings-service)
+@RestController
+@RequestMapping("/internal/users")
+public class UserEventsController {
+
+    static final int MAX_EVENTS = 1000;
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxSequenceRepository sequenceRepository;
+
+    public UserEventsController(OutboxEventRepository outboxRepository, OutboxSequenceRepository sequenceRepository) {
+        this.outboxRepository = outboxRepository;
+        this.sequenceRepository = sequenceRepository;
+    }
+
+    // GET /internal/users/events?after=0&limit=500 -> dogadjaji sa seq > after, po redu, uz epoch i head toka
+    @GetMapping("/events")
+    public ResponseEntity<UserEvents> events(@RequestParam(value = "after", defaultValue = "0") long after,
+                                             @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        // offset potrosaca je seq nekog ranije commit-ovanog dogadjaja, pa u istom epoch-u nikad nije veci od head-a
+        OutboxSequence sequence = sequenceRepository.findById(OutboxSequence.ID)
+                .orElseThrow(() -> new IllegalStateException("Outbox sekvenca nije inicijalizovana"));
+        if (after > 0 && after < sequence.getPrunedSeq()) {
+            return ResponseEntity.ok(new UserEvents(sequence.getEpoch(), sequence.getLastSeq(), true, List.of()));
+        }
+        var events = outboxRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(Math.clamp(limit, 1, MAX_EVENTS)))
+                .stream()
+                .map(UserEvent::new)
+                .toList();
+        return ResponseEntity.ok(new UserEvents(sequence.getEpoch(), sequence.getLastSeq(), false, events));
+    }
+}
@@ -0,0 +1,85 @@
+package rs.pds.booking.users.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Transakcioni outbox: red se upisuje u istoj transakciji kao i izmena user-a,
+ * pa dogadjaj postoji ako i samo ako je izmena commit-ovana. id je redni broj u toku dogadjaja (offset),
+ * dodeljen iz {@link OutboxSequence} pod lock-om, pa su dogadjaji commit-ovani istim redom kao id-jevi.
+ */
+@Entity
+// indeks za kompakciju (poslednji dogadjaj po user-u, OutboxRetention)
+@Table(name = "user_outbox", indexes = @Index(name = "idx_user_outbox_user", columnList = "userId, id"))
+public class OutboxEvent implements Persistable<Long> {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // stanje posle izmene; null za DELETED
+    @Column(length = 20)
+    private String name;
+
+    @Column(length = 30)
+    private String email;
+
+    private Long userVersion;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    protected OutboxEvent() {}
+
+    public OutboxEvent(long seq, Type type, User user) {
+        this.id = seq;
+        this.type = type;
+        this.userId = user.getId();
+        if (type != Type.DELETED) {
+            this.name = user.getName();
+            this.email = user.getEmail();
+            this.userVersion = user.getVersion();
+        }
+        this.createdAt = Instant.now();
+    }
+
+    // dogadjaj se samo upisuje (nikad ne menja), pa save ide direktno na INSERT bez SELECT-a
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    //getter-i
+    @Override
+    public Long getId() {
+        return id;
+    }
+    public Type getType() {
+        return type;
+    }
+    public Long getUserId() {
+        return userId;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public Long getUserVersion() {
+        return userVersion;
+    }
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
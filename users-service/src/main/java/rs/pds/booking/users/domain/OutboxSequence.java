@@ -0,0 +1,53 @@
+package rs.pds.booking.users.domain;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * Jedan red sa poslednjim dodeljenim offset-om outbox-a. Transakcija koja upisuje dogadjaj drzi
+ * lock nad ovim redom do commit-a, pa se dogadjaji commit-uju redom kojim su dobili offset
+ * (sa IDENTITY bi kasniji id mogao da bude vidljiv pre ranijeg, i potrosac bi ga preskocio).
+ * epoch se pravi zajedno sa redom: nova baza (npr. H2 u memoriji posle restarta) = nov epoch i seq od 1,
+ * pa potrosac zna da njegov offset vise ne vazi.
+ */
+@Entity
+@Table(name = "user_outbox_seq")
+public class OutboxSequence {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    @Column(nullable = false)
+    private long lastSeq;
+
+    @Column(length = 36)
+    private String epoch = UUID.randomUUID().toString();
+
+    // najveci seq obrisanog DELETED dogadjaja (OutboxRetention); potrosac sa manjim offset-om je mozda propustio brisanje
+    @Column(nullable = false)
+    private long prunedSeq;
+
+    public long next() {
+        return ++lastSeq;
+    }
+
+    //getter-i i setter-i
+    public Integer getId() {
+        return id;
+    }
+    public long getLastSeq() {
+        return lastSeq;
+    }
+    public String getEpoch() {
+        return epoch;
+    }
+    public long getPrunedSeq() {
+        return prunedSeq;
+    }
+    public void setPrunedSeq(long prunedSeq) {
+        this.prunedSeq = prunedSeq;
+    }
+}
@@ -28,6 +28,11 @@ public class User {
     @Column(nullable = false, length = 20)
     private String password;
 
+    // optimisticko zakljucavanje; ujedno i ETag resursa (GET If-None-Match, PUT/DELETE If-Match)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     //getter-i
     public Long getId() {
         return id;
@@ -45,6 +50,10 @@ public class User {
         return password;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     //setter-i
     public void  setId(Long id) {
         this.id = id;
@@ -58,5 +67,8 @@ public class User {
     public void setPassword(String password) {
         this.password = password;
     }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 
 }
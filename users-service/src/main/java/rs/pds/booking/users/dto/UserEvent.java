@@ -0,0 +1,62 @@
+package rs.pds.booking.users.dto;
+
+import rs.pds.booking.users.domain.OutboxEvent;
+
+// jedan dogadjaj iz outbox-a kako ga vide potrosaci (GET /internal/users/events)
+public class UserEvent {
+    private Long seq;
+    private String type;
+    private Long userId;
+    private String name;
+    private String email;
+    private Long version;
+
+    public UserEvent() {}
+
+    public UserEvent(OutboxEvent e) {
+        this.seq = e.getId();
+        this.type = e.getType().name();
+        this.userId = e.getUserId();
+        this.name = e.getName();
+        this.email = e.getEmail();
+        this.version = e.getUserVersion();
+    }
+
+    //getter-i i setter-i
+    public Long getSeq() {
+        return seq;
+    }
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+    public String getType() {
+        return type;
+    }
+    public void setType(String type) {
+        this.type = type;
+    }
+    public Long getUserId() {
+        return userId;
+    }
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,11 @@
+package rs.pds.booking.users.dto;
+
+import java.util.List;
+
+/**
+ * Odgovor GET /internal/users/events: dogadjaji posle trazenog seq, epoch toka i poslednji dodeljeni seq (head).
+ * Potrosac radi reset (brise repliku i cita od 0) kad se epoch promeni, kad je njegov offset veci od head-a
+ * ili kad je reset = true (offset je stariji od obrisanih DELETED dogadjaja).
+ */
+public record UserEvents(String epoch, long head, boolean reset, List<UserEvent> events) {
+}
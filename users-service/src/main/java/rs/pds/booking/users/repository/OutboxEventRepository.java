@@ -0,0 +1,30 @@
+package rs.pds.booking.users.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rs.pds.booking.users.domain.OutboxEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // tok dogadjaja posle datog offset-a, po redu upisa
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // dogadjaji nose celo stanje user-a, pa je dovoljan poslednji po user-u (kompakcija)
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id < (select max(n.id) from OutboxEvent n where n.userId = e.userId)")
+    int deleteSuperseded();
+
+    @Query("select max(e.id) from OutboxEvent e where e.type = rs.pds.booking.users.domain.OutboxEvent.Type.DELETED and e.createdAt < :before")
+    Optional<Long> findLastTombstoneBefore(@Param("before") Instant before);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.type = rs.pds.booking.users.domain.OutboxEvent.Type.DELETED and e.id <= :upTo")
+    int deleteTombstonesUpTo(@Param("upTo") long upTo);
+}
@@ -0,0 +1,17 @@
+package rs.pds.booking.users.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import rs.pds.booking.users.domain.OutboxSequence;
+
+import java.util.Optional;
+
+public interface OutboxSequenceRepository extends JpaRepository<OutboxSequence, Integer> {
+
+    // SELECT ... FOR UPDATE: upisi u outbox idu jedan po jedan
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from OutboxSequence s where s.id = " + OutboxSequence.ID)
+    Optional<OutboxSequence> lockHead();
+}
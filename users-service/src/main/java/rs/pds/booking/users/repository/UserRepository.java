@@ -1,12 +1,37 @@
 package rs.pds.booking.users.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import rs.pds.booking.users.domain.User;
+import rs.pds.booking.users.dto.UserResponse;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, Long id);
+
+    // keyset stranica: id > afterId
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // projekcija u DTO (bez password-a), strimuje se red po red
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new rs.pds.booking.users.dto.UserResponse(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserResponse> streamResponses();
+
+    @Transactional(readOnly = true)
+    default void forEachResponse(Consumer<UserResponse> sink) {
+        try (Stream<UserResponse> rows = streamResponses()) {
+            rows.forEach(sink);
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package rs.pds.booking.users.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import rs.pds.booking.users.domain.OutboxSequence;
+import rs.pds.booking.users.repository.OutboxEventRepository;
+import rs.pds.booking.users.repository.OutboxSequenceRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Ciscenje outbox-a, tako da citanje od 0 i dalje daje tacno stanje svih user-a:
+ * <ul>
+ *   <li>kompakcija: od dogadjaja jednog user-a ostaje samo poslednji (svaki nosi celo stanje)</li>
+ *   <li>DELETED dogadjaji stariji od users.outbox.tombstone-retention se brisu, a njihov najveci seq
+ *   ide u prunedSeq; potrosac koji je iza toga dobija reset i cita tok ispocetka</li>
+ * </ul>
+ */
+@Component
+public class OutboxRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRetention.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxSequenceRepository sequenceRepository;
+    private final Duration tombstoneRetention;
+
+    public OutboxRetention(OutboxEventRepository outboxRepository,
+                           OutboxSequenceRepository sequenceRepository,
+                           @Value("${users.outbox.tombstone-retention:7d}") Duration tombstoneRetention) {
+        this.outboxRepository = outboxRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${users.outbox.retention-interval-ms:600000}")
+    @Transactional
+    public void prune() {
+        // lock nad sekvencom: prunedSeq se menja u istom redu kao lastSeq, upisi user-a cekaju kraj ciscenja
+        OutboxSequence sequence = sequenceRepository.lockHead()
+                .orElseThrow(() -> new IllegalStateException("Outbox sekvenca nije inicijalizovana"));
+        int compacted = outboxRepository.deleteSuperseded();
+        int tombstones = outboxRepository.findLastTombstoneBefore(Instant.now().minus(tombstoneRetention))
+                .map(upTo -> {
+                    sequence.setPrunedSeq(Math.max(sequence.getPrunedSeq(), upTo));
+                    return outboxRepository.deleteTombstonesUpTo(upTo);
+                })
+                .orElse(0);
+        if (compacted + tombstones > 0) {
+            log.info("[outbox] obrisano {} zamenjenih i {} DELETED dogadjaja, prunedSeq={}", compacted, tombstones, sequence.getPrunedSeq());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package rs.pds.booking.users.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.pds.booking.users.domain.OutboxEvent;
+import rs.pds.booking.users.domain.OutboxSequence;
+import rs.pds.booking.users.domain.User;
+import rs.pds.booking.users.repository.OutboxEventRepository;
+import rs.pds.booking.users.repository.OutboxSequenceRepository;
+import rs.pds.booking.users.repository.UserRepository;
+
+/**
+ * Upisi user-a: izmena i outbox dogadjaj u jednoj transakciji.
+ * Potrosaci (bookings-service replika) citaju dogadjaje preko GET /internal/users/events.
+ */
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxSequenceRepository sequenceRepository;
+
+    public UserService(UserRepository userRepository,
+                       OutboxEventRepository outboxRepository,
+                       OutboxSequenceRepository sequenceRepository) {
+        this.userRepository = userRepository;
+        this.outboxRepository = outboxRepository;
+        this.sequenceRepository = sequenceRepository;
+    }
+
+    @PostConstruct
+    void initSequence() {
+        if (sequenceRepository.existsById(OutboxSequence.ID)) {
+            return;
+        }
+        try {
+            sequenceRepository.save(new OutboxSequence());
+        } catch (DataIntegrityViolationException e) {
+            // druga instanca ga je upravo napravila
+        }
+    }
+
+    @Transactional
+    public User create(User user) {
+        User saved = userRepository.saveAndFlush(user); // flush: id i verzija za dogadjaj
+        publish(OutboxEvent.Type.CREATED, saved);
+        return saved;
+    }
+
+    @Transactional
+    public User update(User user) {
+        User saved = userRepository.saveAndFlush(user);
+        publish(OutboxEvent.Type.UPDATED, saved);
+        return saved;
+    }
+
+    @Transactional
+    public void delete(User user) {
+        userRepository.delete(user);
+        publish(OutboxEvent.Type.DELETED, user);
+    }
+
+    private void publish(OutboxEvent.Type type, User user) {
+        OutboxSequence head = sequenceRepository.lockHead()
+                .orElseThrow(() -> new IllegalStateException("Outbox sekvenca nije inicijalizovana"));
+        outboxRepository.save(new OutboxEvent(head.next(), type, user));
+    }
+}
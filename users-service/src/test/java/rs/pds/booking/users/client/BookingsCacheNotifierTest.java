@@ -0,0 +1,77 @@
+package rs.pds.booking.users.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// userChanged se zove direktno (bez @Async proxy-ja); bookings instance su JDK HttpServer stub-ovi
+class BookingsCacheNotifierTest {
+
+    final List<HttpServer> servers = new ArrayList<>();
+    final List<String> calls = new CopyOnWriteArrayList<>();
+    final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+    @AfterEach
+    void stopStubs() {
+        servers.forEach(s -> s.stop(0));
+    }
+
+    private ServiceInstance stub(String name, int status) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            calls.add(name + " " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return new DefaultServiceInstance(name, "bookings-service", "localhost", server.getAddress().getPort(), false);
+    }
+
+    private BookingsCacheNotifier notifier(boolean enabled) {
+        return new BookingsCacheNotifier(discoveryClient, RestClient.builder(), enabled, "bookings-service");
+    }
+
+    @Test
+    void userChanged_evictsOnEveryInstance_evenWhenOneFails() throws IOException {
+        when(discoveryClient.getInstances("bookings-service"))
+                .thenReturn(List.of(stub("b1", 500), stub("b2", 204)));
+
+        notifier(true).userChanged(7L);
+
+        assertThat(calls).containsExactly("b1 DELETE /internal/users/7/cache", "b2 DELETE /internal/users/7/cache");
+    }
+
+    @Test
+    void userChanged_unreachableInstance_isSkipped() throws IOException {
+        ServiceInstance down = stub("down", 204);
+        servers.remove(0).stop(0);
+        when(discoveryClient.getInstances("bookings-service")).thenReturn(List.of(down, stub("b1", 204)));
+
+        notifier(true).userChanged(7L);
+
+        assertThat(calls).containsExactly("b1 DELETE /internal/users/7/cache");
+    }
+
+    @Test
+    void disabled_sendsNothing() {
+        notifier(false).userChanged(7L);
+
+        verifyNoInteractions(discoveryClient);
+    }
+}
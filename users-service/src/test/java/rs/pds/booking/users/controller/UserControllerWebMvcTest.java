@@ -2,26 +2,58 @@ package rs.pds.booking.users.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.web.servlet.MvcResult;
+import rs.pds.booking.common.web.KeysetCursor;
+import rs.pds.booking.users.client.BookingsCacheNotifier;
+import rs.pds.booking.users.domain.OutboxEvent;
+import rs.pds.booking.users.domain.OutboxSequence;
 import rs.pds.booking.users.domain.User;
 import rs.pds.booking.users.dto.UserRequest;
+import rs.pds.booking.users.dto.UserResponse;
+import rs.pds.booking.users.repository.OutboxEventRepository;
+import rs.pds.booking.users.repository.OutboxSequenceRepository;
 import rs.pds.booking.users.repository.UserRepository;
+import rs.pds.booking.users.service.UserService;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(UserService.class)
 public class UserControllerWebMvcTest {
 
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper objectMapper;
     @MockBean UserRepository userRepository;
+    @MockBean OutboxEventRepository outboxRepository;
+    @MockBean OutboxSequenceRepository sequenceRepository;
+    @MockBean BookingsCacheNotifier cacheNotifier;
+
+    @BeforeEach
+    void outboxHead() {
+        Mockito.when(sequenceRepository.lockHead()).thenReturn(Optional.of(new OutboxSequence()));
+    }
 
     @Test
     void create_valid_returns() throws Exception {
@@ -37,9 +69,16 @@ public class UserControllerWebMvcTest {
         user.setName("Ana");
         user.setPassword("sifra123");
         user.setEmail("ana@example.com");
-        Mockito.when(userRepository.save(Mockito.any(User.class))).thenReturn(user);
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class))).thenReturn(user);
 
         mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(userRequest))).andExpect(status().isCreated()).andExpect(header().string("Location", "http://localhost/users/1")).andExpect(jsonPath("$.id").value(1)).andExpect(jsonPath("$.email").value("ana@example.com"));
+
+        // uz user-a ide i outbox dogadjaj (ista transakcija u UserService)
+        var event = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxRepository).save(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(OutboxEvent.Type.CREATED);
+        assertThat(event.getValue().getUserId()).isEqualTo(1L);
+        assertThat(event.getValue().getId()).isEqualTo(1L);
     }
 
     @Test
@@ -63,4 +102,125 @@ public class UserControllerWebMvcTest {
 
         mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(userRequest))).andExpect(status().isBadRequest());
     }
+
+    private static User ana(long version) {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Ana");
+        user.setPassword("sifra123");
+        user.setEmail("ana@example.com");
+        user.setVersion(version);
+        return user;
+    }
+
+    @Test
+    void get_returnsEtag_and304OnMatchingIfNoneMatch() throws Exception {
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(ana(3)));
+
+        mvc.perform(get("/users/1")).andExpect(status().isOk()).andExpect(header().string("ETag", "\"3\"")).andExpect(jsonPath("$.id").value(1));
+        mvc.perform(get("/users/1").header("If-None-Match", "\"3\"")).andExpect(status().isNotModified()).andExpect(content().string(""));
+        mvc.perform(get("/users/1").header("If-None-Match", "\"2\"")).andExpect(status().isOk());
+    }
+
+    @Test
+    void put_staleIfMatch_returns412() throws Exception {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setName("Ana");
+        userRequest.setPassword("sifra123");
+        userRequest.setEmail("ana@example.com");
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(ana(3)));
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class))).thenReturn(ana(4));
+
+        mvc.perform(put("/users/1").header("If-Match", "\"2\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(userRequest))).andExpect(status().isPreconditionFailed());
+        Mockito.verify(userRepository, Mockito.never()).saveAndFlush(Mockito.any(User.class));
+
+        mvc.perform(put("/users/1").header("If-Match", "\"3\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(userRequest))).andExpect(status().isOk()).andExpect(header().string("ETag", "\"4\""));
+    }
+
+    private static User user(long id) {
+        User user = ana(0);
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void list_pageWithNextCursor_thenLastPage() throws Exception {
+        // limit + 1 red: postoji sledeca stranica
+        Mockito.when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(user(1), user(2), user(3)));
+        String next = KeysetCursor.encode(2);
+
+        mvc.perform(get("/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER, next))
+                .andExpect(header().string("Link", "<http://localhost/users?cursor=" + next + "&limit=2>; rel=\"next\""));
+
+        Mockito.when(userRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(user(3)));
+        mvc.perform(get("/users").param("cursor", next).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void list_invalidCursor_returns400() throws Exception {
+        mvc.perform(get("/users").param("cursor", "nije-broj")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_ndjson_streamsOneUserPerLine() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Consumer<UserResponse> sink = inv.getArgument(0);
+            sink.accept(new UserResponse(1L, "Ana", "ana@example.com"));
+            sink.accept(new UserResponse(2L, "Marko", "marko@example.com"));
+            return null;
+        }).when(userRepository).forEachResponse(Mockito.any(Consumer.class));
+
+        MvcResult started = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"id":1,"name":"Ana","email":"ana@example.com"}
+                        {"id":2,"name":"Marko","email":"marko@example.com"}
+                        """));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getByIds_returnsExistingUsers_withOneRepositoryCall() throws Exception {
+        Mockito.when(userRepository.findAllById(Mockito.any(Iterable.class))).thenReturn(List.of(user(1), user(3)));
+
+        mvc.perform(get("/users").param("ids", "1,2,3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(3));
+
+        // duplikati se izbacuju pre upita
+        var ids = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(userRepository).findAllById(ids.capture());
+        assertThat(ids.getValue()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void getByIds_overLimit_returns400() throws Exception {
+        String ids = LongStream.rangeClosed(1, UserController.MAX_BATCH_IDS + 1)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+
+        mvc.perform(get("/users").param("ids", ids)).andExpect(status().isBadRequest());
+        Mockito.verify(userRepository, Mockito.never()).findAllById(Mockito.any());
+
+        Mockito.when(userRepository.findAllById(Mockito.any())).thenReturn(List.of());
+        String max = LongStream.rangeClosed(1, UserController.MAX_BATCH_IDS)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+        mvc.perform(get("/users").param("ids", max)).andExpect(status().isOk());
+    }
 }
@@ -0,0 +1,53 @@
+package rs.pds.booking.users.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import rs.pds.booking.users.domain.OutboxEvent;
+import rs.pds.booking.users.domain.OutboxSequence;
+import rs.pds.booking.users.domain.User;
+import rs.pds.booking.users.repository.OutboxEventRepository;
+import rs.pds.booking.users.repository.OutboxSequenceRepository;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import(UserService.class)
+class OutboxRetentionTest {
+
+    @Autowired UserService userService;
+    @Autowired OutboxEventRepository outboxRepository;
+    @Autowired OutboxSequenceRepository sequenceRepository;
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.toLowerCase() + "@example.com");
+        user.setPassword("sifra123");
+        return userService.create(user);
+    }
+
+    @Test
+    void prune_keepsLastEventPerUser_andDropsOldTombstones() {
+        User ana = user("Ana");
+        User marko = user("Marko");
+        ana.setName("Anica");
+        userService.update(ana);
+        userService.delete(marko);
+
+        // tombstone-retention u proslosti: i upravo obrisan user je "star"
+        new OutboxRetention(outboxRepository, sequenceRepository, Duration.ofSeconds(-1)).prune();
+
+        // od Ane ostaje samo UPDATED, Marko (CREATED + DELETED) nestaje, a prunedSeq pamti obrisan DELETED
+        assertThat(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.unlimited()))
+                .extracting(OutboxEvent::getUserId, OutboxEvent::getType, OutboxEvent::getName)
+                .containsExactly(tuple(ana.getId(), OutboxEvent.Type.UPDATED, "Anica"));
+        assertThat(sequenceRepository.findById(OutboxSequence.ID)).get()
+                .extracting(OutboxSequence::getPrunedSeq).isEqualTo(4L);
+    }
+}